@@ -0,0 +1,104 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.HackAssemblyWriter;
+import me.bilousov.backend.HackProgramLinker;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.vm.VMSegment;
+import me.bilousov.vm.VMTextReader;
+import me.bilousov.writer.MemoryVMWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AssemblyBackendBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<ClassNode> classes = new ArrayList<>();
+        for (File jackFile : jackFiles) {
+            classes.add(new JackParser(new JackTokenizer(jackFile)).parseClass());
+        }
+
+        File asmFile = Files.createTempFile("jack-backend", HackProgramLinker.OUTPUT_FILE_EXTENSION).toFile();
+        try {
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                viaVMText(classes, asmFile);
+                inProcess(classes, asmFile);
+            }
+
+            int textInstructions = 0;
+            long textStart = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                textInstructions = viaVMText(classes, asmFile);
+            }
+            long textNanos = System.nanoTime() - textStart;
+
+            int directInstructions = 0;
+            long directStart = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                directInstructions = inProcess(classes, asmFile);
+            }
+            long directNanos = System.nanoTime() - directStart;
+
+            System.out.printf("vm text + plain translator: %,8d Hack instructions, %.2f ms per build%n", textInstructions, textNanos / 1e6 / rounds);
+            System.out.printf("in-process backend:         %,8d Hack instructions, %.2f ms per build (%.1f%% of the ROM)%n",
+                    directInstructions, directNanos / 1e6 / rounds, 100.0 * directInstructions / textInstructions);
+        } finally {
+            Files.deleteIfExists(asmFile.toPath());
+        }
+    }
+
+    // what the two-tool pipeline does: print .vm text, parse it again, translate it command by command
+    private static int viaVMText(List<ClassNode> classes, File asmFile) throws IOException {
+        HackProgramLinker linker = new HackProgramLinker(false);
+
+        for (ClassNode classNode : classes) {
+            MemoryVMWriter vmText = new MemoryVMWriter();
+            new VMCodeGenerator(vmText).generate(classNode);
+
+            HackAssemblyWriter assembly = new HackAssemblyWriter(classNode.getName(), false);
+            VMTextReader.read(new BufferedReader(new StringReader(String.join("\n", vmText.getLines()))), classNode.getName(), assembly);
+            linker.add(assembly);
+        }
+        addEntryPoint(linker, false);
+
+        return linker.write(asmFile);
+    }
+
+    private static int inProcess(List<ClassNode> classes, File asmFile) throws IOException {
+        HackProgramLinker linker = new HackProgramLinker(true);
+
+        for (ClassNode classNode : classes) {
+            HackAssemblyWriter assembly = new HackAssemblyWriter(classNode.getName(), true);
+            new VMCodeGenerator(assembly).generate(classNode);
+            linker.add(assembly);
+        }
+        addEntryPoint(linker, true);
+
+        return linker.write(asmFile);
+    }
+
+    // the linker will not write a program without Sys.init; corpora without their own get an empty one
+    private static void addEntryPoint(HackProgramLinker linker, boolean optimized) {
+        if (!linker.definesEntryPoint()) {
+            HackAssemblyWriter sys = new HackAssemblyWriter("Sys", optimized);
+            sys.writeFunction(HackProgramLinker.ENTRY_POINT, 0);
+            sys.writePush(VMSegment.CONSTANT, 0);
+            sys.writeReturn();
+            linker.add(sys);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.daemon.CompileDaemon;
+import me.bilousov.daemon.DaemonClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DaemonLatencyBenchmark {
+
+    private static final int WARM_UP_REQUESTS = 20;
+
+    public static void main(String[] args) throws Exception {
+        File jackFileOrDir = new File(args[0]).getAbsoluteFile();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String javaBinary = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+
+        List<Long> coldRuns = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            coldRuns.add(ProcessTiming.run(javaBinary, "-cp", classPath, "me.bilousov.Main", jackFileOrDir.getPath()));
+        }
+
+        Path socket = Files.createTempDirectory("jack-daemon").resolve("daemon.sock");
+        CompileDaemon daemon = CompileDaemon.bind(UnixDomainSocketAddress.of(socket));
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        server.start();
+
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        String[] rebuild = {"--clean-cache", jackFileOrDir.getPath()};
+        String[] incremental = {jackFileOrDir.getPath()};
+
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            DaemonClient.send(daemon.getAddress(), jackFileOrDir, rebuild, discard, discard);
+        }
+
+        List<Long> warmRebuilds = new ArrayList<>();
+        List<Long> warmIncremental = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            DaemonClient.send(daemon.getAddress(), jackFileOrDir, rebuild, discard, discard);
+            warmRebuilds.add(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            DaemonClient.send(daemon.getAddress(), jackFileOrDir, incremental, discard, discard);
+            warmIncremental.add(System.nanoTime() - start);
+        }
+
+        List<Long> clientProcessRuns = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            clientProcessRuns.add(ProcessTiming.run(javaBinary, "-cp", classPath, "me.bilousov.daemon.DaemonClient",
+                    "--socket", socket.toString(), "--clean-cache", jackFileOrDir.getPath()));
+        }
+
+        daemon.close();
+        server.join();
+        Files.deleteIfExists(socket.getParent());
+
+        ProcessTiming.report("cold java Main", coldRuns);
+        ProcessTiming.report("java DaemonClient", clientProcessRuns);
+        ProcessTiming.report("daemon, full rebuild", warmRebuilds);
+        ProcessTiming.report("daemon, unchanged", warmIncremental);
+    }
+}
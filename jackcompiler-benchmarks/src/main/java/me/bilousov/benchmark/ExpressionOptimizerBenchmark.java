@@ -0,0 +1,59 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.optimizer.OptimizingVMWriter;
+import me.bilousov.optimizer.PeepholeOptimizer;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.vm.VMCostModel;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.writer.InstructionListWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class ExpressionOptimizerBenchmark {
+
+    private static final int MAX_OPTIMIZATION_LEVEL = 2;
+
+    public static void main(String[] args) throws IOException {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+
+        long baselineCycles = 0;
+        for (int level = 0; level <= MAX_OPTIMIZATION_LEVEL; level++) {
+            long instructions = 0;
+            long cycles = 0;
+
+            for (File jackFile : jackFiles) {
+                List<VMInstruction> compiled = compile(jackFile, level);
+                instructions += compiled.size();
+                cycles += VMCostModel.estimateCycles(compiled);
+            }
+
+            if (level == 0) {
+                baselineCycles = cycles;
+            }
+
+            System.out.printf("-O%d: %,8d VM instructions, %,10d estimated cycles (%.1f%% of -O0)%n",
+                    level, instructions, cycles, 100.0 * cycles / baselineCycles);
+        }
+    }
+
+    private static List<VMInstruction> compile(File jackFile, int level) throws IOException {
+        InstructionListWriter instructions = new InstructionListWriter();
+        ClassNode classNode = new JackParser(new JackTokenizer(jackFile)).parseClass();
+
+        if (level == 0) {
+            new VMCodeGenerator(instructions).generate(classNode);
+        } else {
+            try (OptimizingVMWriter vmWriter = new OptimizingVMWriter(instructions, new PeepholeOptimizer(level))) {
+                new VMCodeGenerator(vmWriter).generate(classNode);
+            }
+        }
+
+        return instructions.getInstructions();
+    }
+}
@@ -0,0 +1,39 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.compiler.BatchCompiler;
+
+import java.io.File;
+import java.util.List;
+
+public class ParallelCompileBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int maxWorkers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            new BatchCompiler(maxWorkers).compile(jackFiles);
+        }
+
+        double singleWorkerRate = 0;
+        for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+            BatchCompiler batchCompiler = new BatchCompiler(workers);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                batchCompiler.compile(jackFiles);
+            }
+            long nanos = System.nanoTime() - start;
+
+            double filesPerSecond = (double) jackFiles.size() * rounds / (nanos / 1e9);
+            if (workers == 1) {
+                singleWorkerRate = filesPerSecond;
+            }
+
+            System.out.printf("%2d workers: %,10.0f files/s, speedup %.2fx%n", workers, filesPerSecond, filesPerSecond / singleWorkerRate);
+        }
+    }
+}
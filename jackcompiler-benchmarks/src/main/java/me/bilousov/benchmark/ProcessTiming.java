@@ -0,0 +1,29 @@
+package me.bilousov.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class ProcessTiming {
+
+    static long run(String... command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(Arrays.toString(command) + " exited with " + process.exitValue());
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    static void report(String label, List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+
+        System.out.printf("%-22s median %8.2f ms, min %8.2f ms, max %8.2f ms%n", label,
+                sorted.get(sorted.size() / 2) / 1e6, sorted.get(0) / 1e6, sorted.get(sorted.size() - 1) / 1e6);
+    }
+}
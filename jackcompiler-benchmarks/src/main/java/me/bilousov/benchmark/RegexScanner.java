@@ -0,0 +1,39 @@
+package me.bilousov.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RegexScanner {
+
+    private static final String tokenRegex = "\"/\\=|\\{|\\}|\\.|\\(|\\)|\\[|\\]|,|;|\\+|-|\\*|\\/|&|\\||<|>|=|~|\\\".+\\\"|\\w+|\\d\"gm";
+
+    public static List<String> tokenize(BufferedReader bufferedFileReader) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        String nextLine = bufferedFileReader.readLine();
+
+        while (nextLine != null) {
+            if(!lineIsComment(nextLine)) {
+                if(nextLine.contains("//")){
+                    nextLine = nextLine.split("//")[0];
+                }
+
+                Matcher m = Pattern.compile(tokenRegex).matcher(nextLine);
+                while (m.find()){
+                    tokens.add(m.group());
+                }
+            }
+
+            nextLine = bufferedFileReader.readLine();
+        }
+
+        return tokens;
+    }
+
+    private static boolean lineIsComment(String line){
+        return line.trim().startsWith("/") || line.trim().startsWith("*");
+    }
+}
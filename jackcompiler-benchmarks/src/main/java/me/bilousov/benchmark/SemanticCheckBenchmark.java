@@ -0,0 +1,72 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.checker.SemanticChecker;
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.parser.JackParser;
+import me.bilousov.program.ProgramIndex;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.writer.NullVMWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Times the semantic checker against VM code generation over the same parsed classes, on one thread,
+// to show what checking on every whole-program compile costs.
+public class SemanticCheckBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        ProgramIndex index = ProgramIndex.withJackOS();
+        List<ClassNode> classes = new ArrayList<>();
+        for (File jackFile : jackFiles) {
+            ClassNode classNode = new JackParser(new JackTokenizer(jackFile)).parseClass();
+            index.add(classNode);
+            classes.add(classNode);
+        }
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            checkAll(index, classes);
+            generateAll(classes);
+        }
+
+        long start = System.nanoTime();
+        int errors = 0;
+        for (int i = 0; i < rounds; i++) {
+            errors = checkAll(index, classes);
+        }
+        double checkMillis = (System.nanoTime() - start) / 1e6 / rounds;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            generateAll(classes);
+        }
+        double generateMillis = (System.nanoTime() - start) / 1e6 / rounds;
+
+        System.out.printf("check:    %.2f ms per program (%d classes, %d errors)%n", checkMillis, classes.size(), errors);
+        System.out.printf("generate: %.2f ms per program%n", generateMillis);
+        System.out.printf("checking costs %.0f%% of generation%n", 100 * checkMillis / generateMillis);
+    }
+
+    private static int checkAll(ProgramIndex index, List<ClassNode> classes) {
+        int errors = 0;
+        for (ClassNode classNode : classes) {
+            errors += new SemanticChecker(index).check(classNode).size();
+        }
+
+        return errors;
+    }
+
+    private static void generateAll(List<ClassNode> classes) {
+        for (ClassNode classNode : classes) {
+            new VMCodeGenerator(new NullVMWriter()).generate(classNode);
+        }
+    }
+}
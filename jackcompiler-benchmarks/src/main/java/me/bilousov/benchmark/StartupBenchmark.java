@@ -0,0 +1,56 @@
+package me.bilousov.benchmark;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StartupBenchmark {
+
+    private static final String JAR_FILE = "JackCompiler-1.0-SNAPSHOT.jar";
+    private static final String CDS_ARCHIVE = "JackCompiler.jsa";
+    private static final String NATIVE_EXECUTABLE = "jackc";
+
+    // args: <corpus dir> [rounds] [build dir, default jackcompiler/target]; compares every launcher that has been built
+    public static void main(String[] args) throws Exception {
+        String corpus = new File(args[0]).getAbsolutePath();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        File buildDir = new File(args.length > 2 ? args[2] : "jackcompiler/target");
+        String javaBinary = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        File jar = new File(buildDir, JAR_FILE);
+        File cdsArchive = new File(buildDir, CDS_ARCHIVE);
+        File nativeExecutable = new File(buildDir, NATIVE_EXECUTABLE);
+
+        if (!jar.isFile()) {
+            System.err.println("Missing " + jar.getPath() + ", run mvn package first");
+            System.exit(2);
+        }
+
+        measure("java -jar", rounds, javaBinary, "-jar", jar.getPath(), corpus);
+        measure("java -jar -Xshare:off", rounds, javaBinary, "-Xshare:off", "-jar", jar.getPath(), corpus);
+
+        if (cdsArchive.isFile()) {
+            measure("java -jar + AppCDS", rounds, javaBinary, "-XX:SharedArchiveFile=" + cdsArchive.getPath(), "-jar", jar.getPath(), corpus);
+        } else {
+            System.out.println("skipping AppCDS: build it with mvn -Pcds package");
+        }
+
+        if (nativeExecutable.canExecute()) {
+            measure("native image", rounds, nativeExecutable.getPath(), corpus);
+        } else {
+            System.out.println("skipping native image: build it with mvn -Pnative package");
+        }
+    }
+
+    private static void measure(String label, int rounds, String... command) throws Exception {
+        ProcessTiming.run(command);
+
+        List<Long> runs = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            runs.add(ProcessTiming.run(command));
+        }
+
+        ProcessTiming.report(label, runs);
+    }
+}
@@ -0,0 +1,81 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.vm.VMCostModel;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.writer.InstructionListWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class StringLiteralBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+
+        for (boolean intern : new boolean[]{false, true}) {
+            long instructions = 0;
+            long firstPassCycles = 0;
+            long repeatPassCycles = 0;
+
+            for (File jackFile : jackFiles) {
+                List<VMInstruction> compiled = compile(jackFile, intern);
+                instructions += compiled.size();
+                firstPassCycles += VMCostModel.estimateCycles(compiled);
+                repeatPassCycles += estimateRepeatCycles(compiled);
+            }
+
+            System.out.printf("%-15s %,8d VM instructions, %,10d estimated cycles on first pass, %,10d on each later pass%n",
+                    intern ? "interned:" : "new per use:", instructions, firstPassCycles, repeatPassCycles);
+        }
+    }
+
+    private static List<VMInstruction> compile(File jackFile, boolean intern) throws IOException {
+        InstructionListWriter instructions = new InstructionListWriter();
+        ClassNode classNode = new JackParser(new JackTokenizer(jackFile)).parseClass();
+
+        VMCodeGenerator generator = new VMCodeGenerator(instructions);
+        generator.setInternStrings(intern);
+        generator.generate(classNode);
+
+        return instructions.getInstructions();
+    }
+
+    // like VMCostModel.estimateCycles, but once every literal is built: the string builder functions
+    // never run again and each use site takes its if-goto straight past the builder call
+    private static long estimateRepeatCycles(List<VMInstruction> code) {
+        long cycles = 0;
+        boolean inStringBuilder = false;
+        String skipToLabel = null;
+
+        for (VMInstruction instruction : code) {
+            if (instruction.is(VMOpcode.FUNCTION)) {
+                inStringBuilder = instruction.getSymbol().contains(".string$");
+            }
+
+            if (inStringBuilder) {
+                continue;
+            }
+
+            if (skipToLabel != null) {
+                if (!instruction.is(VMOpcode.LABEL) || !instruction.getSymbol().equals(skipToLabel)) {
+                    continue;
+                }
+                skipToLabel = null;
+            }
+
+            cycles += VMCostModel.estimateCycles(instruction);
+            if (instruction.is(VMOpcode.IF_GOTO) && instruction.getSymbol().startsWith("STRING_")) {
+                skipToLabel = instruction.getSymbol();
+            }
+        }
+
+        return cycles;
+    }
+}
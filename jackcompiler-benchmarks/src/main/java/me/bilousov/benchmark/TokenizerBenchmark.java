@@ -0,0 +1,70 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.tokenizer.JackScanner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenizerBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        File jackFileOrDir = new File(args[0]);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> sources = new ArrayList<>();
+        File[] files = jackFileOrDir.isDirectory() ? jackFileOrDir.listFiles() : new File[]{jackFileOrDir};
+        for (File file : files) {
+            if (file.getName().endsWith(".jack")) {
+                sources.add(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            }
+        }
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            runRegex(sources);
+            runScanner(sources);
+        }
+
+        long regexTokens = 0;
+        long regexStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            regexTokens += runRegex(sources);
+        }
+        long regexNanos = System.nanoTime() - regexStart;
+
+        long scannerTokens = 0;
+        long scannerStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            scannerTokens += runScanner(sources);
+        }
+        long scannerNanos = System.nanoTime() - scannerStart;
+
+        System.out.printf("regex:   %,d tokens in %.1f ms, %,.0f tokens/s%n", regexTokens, regexNanos / 1e6, regexTokens / (regexNanos / 1e9));
+        System.out.printf("scanner: %,d tokens in %.1f ms, %,.0f tokens/s%n", scannerTokens, scannerNanos / 1e6, scannerTokens / (scannerNanos / 1e9));
+    }
+
+    private static long runRegex(List<String> sources) throws IOException {
+        long tokenCount = 0;
+        for (String source : sources) {
+            tokenCount += RegexScanner.tokenize(new BufferedReader(new StringReader(source))).size();
+        }
+
+        return tokenCount;
+    }
+
+    private static long runScanner(List<String> sources) {
+        long tokenCount = 0;
+        for (String source : sources) {
+            JackScanner scanner = new JackScanner(source.toCharArray());
+            while (scanner.next()) {
+                tokenCount++;
+            }
+        }
+
+        return tokenCount;
+    }
+}
@@ -0,0 +1,128 @@
+package me.bilousov.benchmark;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.vm.VMBinaryFormat;
+import me.bilousov.vm.VMBinaryReader;
+import me.bilousov.vm.VMCode;
+import me.bilousov.vm.VMTextReader;
+import me.bilousov.writer.BinaryVMWriter;
+import me.bilousov.writer.FileChannelVMWriter;
+import me.bilousov.writer.InstructionListWriter;
+import me.bilousov.writer.MemoryVMWriter;
+import me.bilousov.writer.NullVMWriter;
+import me.bilousov.writer.VMWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Compares keeping generated code as text lines, VMInstruction objects or a VMCode, then loading the
+// same program back from .vm text and from .vmb.
+public class VMFormatBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<File> jackFiles = BatchCompiler.findJackFiles(new File(args[0]));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<ClassNode> classes = new ArrayList<>();
+        for (File jackFile : jackFiles) {
+            classes.add(new JackParser(new JackTokenizer(jackFile)).parseClass());
+        }
+
+        emit("text lines  ", classes, MemoryVMWriter::new, rounds);
+        emit("instructions", classes, InstructionListWriter::new, rounds);
+        emit("VMCode      ", classes, VMCode::new, rounds);
+
+        File outputDir = Files.createTempDirectory("jack-vm-format").toFile();
+        try {
+            List<File> textFiles = new ArrayList<>();
+            List<File> binaryFiles = new ArrayList<>();
+            for (ClassNode classNode : classes) {
+                VMCode code = new VMCode();
+                new VMCodeGenerator(code).generate(classNode);
+
+                File textFile = new File(outputDir, classNode.getName() + ".vm");
+                try (VMWriter writer = new FileChannelVMWriter(textFile)) {
+                    code.replay(writer);
+                }
+                File binaryFile = new File(outputDir, classNode.getName() + VMBinaryFormat.FILE_EXTENSION);
+                try (VMWriter writer = new BinaryVMWriter(binaryFile)) {
+                    code.replay(writer);
+                }
+
+                textFiles.add(textFile);
+                binaryFiles.add(binaryFile);
+            }
+
+            load(".vm ", textFiles, rounds);
+            load(".vmb", binaryFiles, rounds);
+        } finally {
+            File[] files = outputDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+            Files.deleteIfExists(outputDir.toPath());
+        }
+    }
+
+    private static void emit(String label, List<ClassNode> classes, Supplier<VMWriter> sink, int rounds) {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            generateAll(classes, sink);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            generateAll(classes, sink);
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("generate into %s: %.2f ms per program%n", label, nanos / 1e6 / rounds);
+    }
+
+    private static void generateAll(List<ClassNode> classes, Supplier<VMWriter> sink) {
+        for (ClassNode classNode : classes) {
+            new VMCodeGenerator(sink.get()).generate(classNode);
+        }
+    }
+
+    private static void load(String label, List<File> files, int rounds) throws IOException {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            readAll(files);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            readAll(files);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+        }
+
+        System.out.printf("load %s: %,10d bytes, %.2f ms per program%n", label, bytes, nanos / 1e6 / rounds);
+    }
+
+    private static void readAll(List<File> files) throws IOException {
+        NullVMWriter sink = new NullVMWriter();
+        for (File file : files) {
+            if (VMBinaryFormat.isBinary(file)) {
+                VMBinaryReader.read(file, sink);
+            } else {
+                VMTextReader.read(file, sink);
+            }
+        }
+    }
+}
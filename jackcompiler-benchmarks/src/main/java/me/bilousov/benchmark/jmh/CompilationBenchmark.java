@@ -0,0 +1,65 @@
+package me.bilousov.benchmark.jmh;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.backend.XMLTreeGenerator;
+import me.bilousov.optimizer.OptimizingVMWriter;
+import me.bilousov.optimizer.PeepholeOptimizer;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.writer.NullVMWriter;
+import me.bilousov.writer.XMLTreeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompilationBenchmark {
+
+    private JackTokenizer tokenizer;
+    private ClassNode classNode;
+
+    @Setup
+    public void prepare(CorpusState corpus) {
+        tokenizer = new JackTokenizer(corpus.jackFile, corpus.content);
+        classNode = new JackParser(tokenizer).parseClass();
+    }
+
+    @Benchmark
+    public ClassNode parse() {
+        tokenizer.reset();
+        return new JackParser(tokenizer).parseClass();
+    }
+
+    @Benchmark
+    public void generate() {
+        new VMCodeGenerator(new NullVMWriter()).generate(classNode);
+    }
+
+    @Benchmark
+    public void generateOptimized() {
+        try (OptimizingVMWriter vmWriter = new OptimizingVMWriter(new NullVMWriter(), new PeepholeOptimizer(2))) {
+            new VMCodeGenerator(vmWriter).generate(classNode);
+        }
+    }
+
+    @Benchmark
+    public void parseTree() {
+        new XMLTreeGenerator(new XMLTreeWriter(Writer.nullWriter())).generate(classNode);
+    }
+}
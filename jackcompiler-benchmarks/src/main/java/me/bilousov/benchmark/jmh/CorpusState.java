@@ -0,0 +1,43 @@
+package me.bilousov.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"DEEP_EXPRESSIONS", "MANY_FIELDS", "LONG_STRINGS", "MANY_SUBROUTINES"})
+    public SyntheticCorpus.Shape shape;
+
+    public Path directory;
+    public File jackFile;
+    public byte[] content;
+
+    @Setup
+    public void createCorpus() throws IOException {
+        String className = SyntheticCorpus.className(shape);
+
+        directory = Files.createTempDirectory("jack-bench");
+        jackFile = directory.resolve(className + ".jack").toFile();
+        content = SyntheticCorpus.generate(shape, className, shape.getDefaultSize()).getBytes(StandardCharsets.UTF_8);
+        Files.write(jackFile.toPath(), content);
+    }
+
+    @TearDown
+    public void deleteCorpus() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
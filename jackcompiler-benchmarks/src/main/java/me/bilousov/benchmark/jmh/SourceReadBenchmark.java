@@ -0,0 +1,33 @@
+package me.bilousov.benchmark.jmh;
+
+import me.bilousov.tokenizer.SourceReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceReadBenchmark {
+
+    @Benchmark
+    public char[] readViaString(CorpusState corpus) throws IOException {
+        return new String(Files.readAllBytes(corpus.jackFile.toPath()), StandardCharsets.UTF_8).toCharArray();
+    }
+
+    @Benchmark
+    public char[] readViaSourceReader(CorpusState corpus) throws IOException {
+        return SourceReader.decode(SourceReader.read(corpus.jackFile));
+    }
+}
@@ -0,0 +1,179 @@
+package me.bilousov.benchmark.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class SyntheticCorpus {
+
+    public enum Shape {
+        DEEP_EXPRESSIONS(200),
+        MANY_FIELDS(2000),
+        LONG_STRINGS(200),
+        MANY_SUBROUTINES(5000);
+
+        private final int defaultSize;
+
+        Shape(int defaultSize) {
+            this.defaultSize = defaultSize;
+        }
+
+        public int getDefaultSize() {
+            return defaultSize;
+        }
+    }
+
+    private static final String LINE_SEPARATOR = "\n";
+    private static final int STRING_LITERAL_LENGTH = 1000;
+
+    public static void main(String[] args) throws IOException {
+        File outputDir = new File(args[0]);
+        int scale = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        Files.createDirectories(outputDir.toPath());
+        for (Shape shape : Shape.values()) {
+            String className = className(shape);
+            File jackFile = new File(outputDir, className + ".jack");
+
+            Files.write(jackFile.toPath(), generate(shape, className, shape.getDefaultSize() * scale).getBytes(StandardCharsets.UTF_8));
+            System.out.println("Generated " + jackFile.getPath());
+        }
+    }
+
+    public static String className(Shape shape) {
+        StringBuilder name = new StringBuilder();
+        for (String part : shape.name().split("_")) {
+            name.append(part.charAt(0)).append(part.substring(1).toLowerCase());
+        }
+
+        return name.toString();
+    }
+
+    public static String generate(Shape shape, String className, int size) {
+        switch (shape) {
+            case DEEP_EXPRESSIONS:
+                return deepExpressions(className, size);
+            case MANY_FIELDS:
+                return manyFields(className, size);
+            case LONG_STRINGS:
+                return longStrings(className, size);
+            case MANY_SUBROUTINES:
+                return manySubroutines(className, size);
+            default:
+                throw new IllegalArgumentException("Unknown corpus shape " + shape);
+        }
+    }
+
+    // one function per expression family, each nested `depth` parentheses deep
+    private static String deepExpressions(String className, int depth) {
+        StringBuilder source = new StringBuilder();
+        source.append("class ").append(className).append(" {").append(LINE_SEPARATOR);
+
+        source.append("    function int arithmetic(int a, int b) {").append(LINE_SEPARATOR);
+        source.append("        var int x;").append(LINE_SEPARATOR);
+        source.append("        let x = ");
+        for (int i = 0; i < depth; i++) {
+            source.append('(');
+        }
+        source.append('a');
+        for (int i = 0; i < depth; i++) {
+            source.append(i % 3 == 0 ? " + " : i % 3 == 1 ? " * " : " - ").append(i % 2 == 0 ? "b" : String.valueOf(i % 100)).append(')');
+        }
+        source.append(';').append(LINE_SEPARATOR);
+        source.append("        return x;").append(LINE_SEPARATOR);
+        source.append("    }").append(LINE_SEPARATOR);
+
+        source.append("    function boolean logic(int a, Array values) {").append(LINE_SEPARATOR);
+        source.append("        return ");
+        for (int i = 0; i < depth; i++) {
+            source.append("(~(values[a + ").append(i % 10).append("] < ");
+        }
+        source.append("a");
+        for (int i = 0; i < depth; i++) {
+            source.append(") & (a > ").append(i).append("))");
+        }
+        source.append(';').append(LINE_SEPARATOR);
+        source.append("    }").append(LINE_SEPARATOR);
+
+        source.append('}').append(LINE_SEPARATOR);
+        return source.toString();
+    }
+
+    // `count` fields, a constructor that initialises all of them and a method that sums them
+    private static String manyFields(String className, int count) {
+        StringBuilder source = new StringBuilder();
+        source.append("class ").append(className).append(" {").append(LINE_SEPARATOR);
+
+        for (int i = 0; i < count; i += 10) {
+            source.append("    field int ");
+            for (int j = i; j < Math.min(count, i + 10); j++) {
+                source.append(j == i ? "" : ", ").append('f').append(j);
+            }
+            source.append(';').append(LINE_SEPARATOR);
+        }
+
+        source.append("    constructor ").append(className).append(" new(int seed) {").append(LINE_SEPARATOR);
+        for (int i = 0; i < count; i++) {
+            source.append("        let f").append(i).append(" = seed + ").append(i % 1000).append(';').append(LINE_SEPARATOR);
+        }
+        source.append("        return this;").append(LINE_SEPARATOR);
+        source.append("    }").append(LINE_SEPARATOR);
+
+        source.append("    method int sum() {").append(LINE_SEPARATOR);
+        source.append("        var int total;").append(LINE_SEPARATOR);
+        for (int i = 0; i < count; i++) {
+            source.append("        let total = total + f").append(i).append(';').append(LINE_SEPARATOR);
+        }
+        source.append("        return total;").append(LINE_SEPARATOR);
+        source.append("    }").append(LINE_SEPARATOR);
+
+        source.append('}').append(LINE_SEPARATOR);
+        return source.toString();
+    }
+
+    // `count` string literals of STRING_LITERAL_LENGTH characters each
+    private static String longStrings(String className, int count) {
+        StringBuilder source = new StringBuilder();
+        source.append("class ").append(className).append(" {").append(LINE_SEPARATOR);
+        source.append("    function void print() {").append(LINE_SEPARATOR);
+
+        for (int i = 0; i < count; i++) {
+            source.append("        do Output.printString(\"");
+            for (int j = 0; j < STRING_LITERAL_LENGTH; j++) {
+                source.append((i + j) % 8 == 0 ? ' ' : (char) ('a' + (i + j) % 26));
+            }
+            source.append("\");").append(LINE_SEPARATOR);
+        }
+
+        source.append("        return;").append(LINE_SEPARATOR);
+        source.append("    }").append(LINE_SEPARATOR);
+        source.append('}').append(LINE_SEPARATOR);
+        return source.toString();
+    }
+
+    // `count` small functions, each with a loop, a branch and a call to its predecessor
+    private static String manySubroutines(String className, int count) {
+        StringBuilder source = new StringBuilder();
+        source.append("class ").append(className).append(" {").append(LINE_SEPARATOR);
+        source.append("    static int calls;").append(LINE_SEPARATOR);
+
+        for (int i = 0; i < count; i++) {
+            source.append("    function int s").append(i).append("(int n) {").append(LINE_SEPARATOR);
+            source.append("        var int i, r;").append(LINE_SEPARATOR);
+            source.append("        let calls = calls + 1;").append(LINE_SEPARATOR);
+            source.append("        while (i < n) {").append(LINE_SEPARATOR);
+            source.append("            if (i = ").append(i % 7).append(") { let r = r + i; } else { let r = r - 1; }").append(LINE_SEPARATOR);
+            source.append("            let i = i + 1;").append(LINE_SEPARATOR);
+            source.append("        }").append(LINE_SEPARATOR);
+            if (i > 0) {
+                source.append("        let r = r + ").append(className).append(".s").append(i - 1).append("(n - 1);").append(LINE_SEPARATOR);
+            }
+            source.append("        return r;").append(LINE_SEPARATOR);
+            source.append("    }").append(LINE_SEPARATOR);
+        }
+
+        source.append('}').append(LINE_SEPARATOR);
+        return source.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package me.bilousov.benchmark.jmh;
+
+import me.bilousov.tokenizer.JackTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerThroughputBenchmark {
+
+    @Benchmark
+    public void scan(CorpusState corpus, Blackhole blackhole) {
+        blackhole.consume(new JackTokenizer(corpus.jackFile, corpus.content));
+    }
+
+    @Benchmark
+    public void scanAndWalk(CorpusState corpus, Blackhole blackhole) {
+        JackTokenizer tokenizer = new JackTokenizer(corpus.jackFile, corpus.content);
+
+        while (tokenizer.hasMoreTokens()) {
+            tokenizer.advance();
+            blackhole.consume(tokenizer.tokenType());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package me.bilousov.benchmark.jmh;
+
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.parser.JackParser;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.writer.FileChannelVMWriter;
+import me.bilousov.writer.InstructionListWriter;
+import me.bilousov.writer.XMLWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WriterBenchmark {
+
+    private File vmFile;
+    private List<VMInstruction> instructions;
+
+    @Setup
+    public void prepare(CorpusState corpus) {
+        InstructionListWriter instructionList = new InstructionListWriter();
+        new VMCodeGenerator(instructionList).generate(new JackParser(new JackTokenizer(corpus.jackFile, corpus.content)).parseClass());
+
+        vmFile = XMLWriter.getOutputFile(corpus.jackFile);
+        instructions = instructionList.getInstructions();
+    }
+
+    @Benchmark
+    public void writeVM() throws IOException {
+        try (FileChannelVMWriter vmWriter = new FileChannelVMWriter(vmFile)) {
+            for (VMInstruction instruction : instructions) {
+                instruction.writeTo(vmWriter);
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeTokensXML(CorpusState corpus) throws IOException {
+        XMLWriter.writeXMLForTokenizer(new JackTokenizer(corpus.jackFile, corpus.content), corpus.jackFile);
+    }
+}
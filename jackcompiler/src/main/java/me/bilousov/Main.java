@@ -0,0 +1,221 @@
+package me.bilousov;
+
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.compiler.BuildCache;
+import me.bilousov.compiler.CompileMode;
+import me.bilousov.compiler.CompileResult;
+import me.bilousov.compiler.CompilerOptions;
+import me.bilousov.compiler.CompilerStats;
+import me.bilousov.compiler.DeadCodeReport;
+import me.bilousov.compiler.SourceWatcher;
+import me.bilousov.daemon.CompileDaemon;
+import me.bilousov.interpreter.VMInterpreter;
+import me.bilousov.interpreter.VMProgram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+public class Main {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--daemon")) {
+            CompileDaemon.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        int status = run(args, null, System.out, System.err, null);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    // workingDir resolves a relative source path (null means the process directory); warmCaches, when
+    // given, keeps one BuildCache per output directory across calls and turns caching on for every run
+    public static int run(String[] args, File workingDir, PrintStream out, PrintStream err, Map<File, BuildCache> warmCaches) throws IOException {
+        CompilerOptions options = new CompilerOptions();
+        boolean useCache = false;
+        boolean cleanCache = false;
+        boolean printStats = false;
+        boolean watch = false;
+        boolean runProgram = false;
+        File jackFileOrDir = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jobs":
+                case "-j":
+                    options.setWorkers(Integer.parseInt(args[++i]));
+                    break;
+                case "--cache":
+                    useCache = true;
+                    break;
+                case "--clean-cache":
+                    cleanCache = true;
+                    break;
+                case "--watch":
+                    watch = true;
+                    jackFileOrDir = resolve(workingDir, args[++i]);
+                    break;
+                case "--whole-program":
+                    options.setWholeProgram(true);
+                    break;
+                case "--inline":
+                    options.setWholeProgram(true);
+                    options.setInlineThreshold(Integer.parseInt(args[++i]));
+                    break;
+                case "--prune":
+                    options.setWholeProgram(true);
+                    options.setPruneUnreachable(true);
+                    break;
+                case "--check":
+                    options.setWholeProgram(true);
+                    options.setCheckOnly(true);
+                    break;
+                case "--intern-strings":
+                    options.setInternStrings(true);
+                    break;
+                case "--asm":
+                    options.setAssemble(true);
+                    break;
+                case "--run":
+                    runProgram = true;
+                    break;
+                case "--stats":
+                    printStats = true;
+                    break;
+                case "--mode":
+                    options.setModes(parseModes(args[++i]));
+                    break;
+                case "--optimize":
+                case "-O":
+                case "-O1":
+                    options.setOptimizationLevel(1);
+                    break;
+                case "-O0":
+                case "-O2":
+                    options.setOptimizationLevel(args[i].charAt(2) - '0');
+                    break;
+                default:
+                    jackFileOrDir = resolve(workingDir, args[i]);
+            }
+        }
+
+        if (jackFileOrDir == null) {
+            err.println("Usage: Main [--daemon [--socket <path>]] [--jobs <count>] [--cache] [--clean-cache] [--stats] [--whole-program] [--check] [--prune] [--inline <max instructions>] [--intern-strings] [--asm] [--run] [--mode vm,vmb,xml,tokens] [-O0 | -O1 | -O2] <file.jack | directory | --watch directory>");
+            return 2;
+        }
+
+        if (watch && (warmCaches != null || !jackFileOrDir.isDirectory())) {
+            err.println("--watch needs a directory and cannot be used through the compile daemon");
+            return 2;
+        }
+
+        File outputDir = jackFileOrDir.isDirectory() ? jackFileOrDir : jackFileOrDir.getAbsoluteFile().getParentFile();
+        if (cleanCache) {
+            BuildCache.invalidate(outputDir);
+            if (warmCaches != null) {
+                warmCaches.remove(outputDir);
+            }
+        }
+
+        BuildCache buildCache;
+        if (warmCaches != null) {
+            buildCache = warmCaches.get(outputDir);
+            if (buildCache == null) {
+                buildCache = BuildCache.load(outputDir);
+                warmCaches.put(outputDir, buildCache);
+            }
+            buildCache.resetCounters();
+        } else {
+            buildCache = useCache ? BuildCache.load(outputDir) : null;
+        }
+
+        BatchCompiler batchCompiler = new BatchCompiler(options, buildCache);
+        CompilerStats stats = printStats ? new CompilerStats() : null;
+        batchCompiler.setListener(stats);
+
+        long start = System.nanoTime();
+        List<CompileResult> results = batchCompiler.compile(BatchCompiler.findJackFiles(jackFileOrDir));
+
+        boolean failed = CompileResult.printErrors(results, err);
+        if (options.isCheckOnly()) {
+            out.printf("Checked %d classes in %.1f ms: %s%n", results.size(), (System.nanoTime() - start) / 1e6, failed ? "errors found" : "no errors");
+        }
+
+        if (options.getOptimizationLevel() > 0) {
+            long before = batchCompiler.getInstructionsBeforeOptimization();
+            long after = batchCompiler.getInstructionsAfterOptimization();
+            out.println("Optimizer: " + before + " -> " + after + " VM instructions (" + (before - after) + " saved)");
+        }
+
+        if (batchCompiler.getAssemblyReport() != null) {
+            batchCompiler.getAssemblyReport().printSummary(out, err);
+            failed |= !batchCompiler.getAssemblyReport().isSuccess();
+        }
+
+        if (batchCompiler.getInlineReport() != null) {
+            batchCompiler.getInlineReport().printReport(out);
+        }
+
+        DeadCodeReport deadCodeReport = batchCompiler.getDeadCodeReport();
+        if (deadCodeReport != null) {
+            deadCodeReport.printSummary(out);
+            if (deadCodeReport.isEntryPointFound()) {
+                File reportFile = new File(outputDir, DeadCodeReport.REPORT_FILE_NAME);
+                deadCodeReport.writeText(reportFile);
+                out.println("Dead code report: " + reportFile.getPath());
+            }
+        }
+
+        if (buildCache != null) {
+            // the cache is per directory, so a single-file compile keeps the entries of the other sources
+            buildCache.retainOnly(BatchCompiler.findJackFiles(outputDir));
+            buildCache.save();
+            out.println("Build cache: " + buildCache.getHits() + " hits, " + buildCache.getMisses() + " misses");
+        }
+
+        if (stats != null) {
+            stats.setWallNanos(System.nanoTime() - start);
+            stats.printTable(out);
+
+            File reportFile = new File(outputDir, CompilerStats.REPORT_FILE_NAME);
+            stats.writeJson(reportFile);
+            out.println("Stats report: " + reportFile.getPath());
+        }
+
+        if (runProgram && !failed) {
+            VMInterpreter interpreter = new VMInterpreter(VMProgram.load(VMProgram.findVMFiles(outputDir)), "");
+            failed = interpreter.runAndReport(VMInterpreter.DEFAULT_MAX_STEPS, out, err, printStats) != 0;
+        }
+
+        if (watch) {
+            try {
+                new SourceWatcher(batchCompiler, buildCache, jackFileOrDir, out, err).watch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return failed ? 1 : 0;
+    }
+
+    private static File resolve(File workingDir, String path) {
+        return workingDir != null ? workingDir.toPath().resolve(path).toFile() : new File(path);
+    }
+
+    private static Set<CompileMode> parseModes(String modeList) {
+        Set<CompileMode> modes = EnumSet.noneOf(CompileMode.class);
+        for (String mode : modeList.split(",")) {
+            modes.add(CompileMode.valueOf(mode.trim().toUpperCase()));
+        }
+
+        return modes;
+    }
+}
@@ -0,0 +1,25 @@
+package me.bilousov.ast;
+
+public class ArrayAccess extends ExpressionNode {
+
+    private final String name;
+    private final ExpressionNode index;
+
+    public ArrayAccess(String name, ExpressionNode index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExpressionNode getIndex() {
+        return index;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitArrayAccess(this);
+    }
+}
@@ -0,0 +1,34 @@
+package me.bilousov.ast;
+
+public interface AstVisitor<R> {
+
+    R visitClass(ClassNode node);
+
+    R visitSubroutine(SubroutineNode node);
+
+    R visitLet(LetStatement node);
+
+    R visitIf(IfStatement node);
+
+    R visitWhile(WhileStatement node);
+
+    R visitDo(DoStatement node);
+
+    R visitReturn(ReturnStatement node);
+
+    R visitBinary(BinaryExpression node);
+
+    R visitUnary(UnaryExpression node);
+
+    R visitIntegerConstant(IntegerConstant node);
+
+    R visitStringConstant(StringConstant node);
+
+    R visitKeywordConstant(KeywordConstant node);
+
+    R visitVariableReference(VariableReference node);
+
+    R visitArrayAccess(ArrayAccess node);
+
+    R visitSubroutineCall(SubroutineCall node);
+}
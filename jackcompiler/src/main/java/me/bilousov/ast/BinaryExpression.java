@@ -0,0 +1,31 @@
+package me.bilousov.ast;
+
+public class BinaryExpression extends ExpressionNode {
+
+    private final char operator;
+    private final ExpressionNode left;
+    private final ExpressionNode right;
+
+    public BinaryExpression(char operator, ExpressionNode left, ExpressionNode right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    public char getOperator() {
+        return operator;
+    }
+
+    public ExpressionNode getLeft() {
+        return left;
+    }
+
+    public ExpressionNode getRight() {
+        return right;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitBinary(this);
+    }
+}
@@ -0,0 +1,31 @@
+package me.bilousov.ast;
+
+public class ClassNode extends Node {
+
+    private final String name;
+    private final VarDecNode[] classVarDecs;
+    private final SubroutineNode[] subroutines;
+
+    public ClassNode(String name, VarDecNode[] classVarDecs, SubroutineNode[] subroutines) {
+        this.name = name;
+        this.classVarDecs = classVarDecs;
+        this.subroutines = subroutines;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public VarDecNode[] getClassVarDecs() {
+        return classVarDecs;
+    }
+
+    public SubroutineNode[] getSubroutines() {
+        return subroutines;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitClass(this);
+    }
+}
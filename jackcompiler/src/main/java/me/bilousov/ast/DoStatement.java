@@ -0,0 +1,19 @@
+package me.bilousov.ast;
+
+public class DoStatement extends StatementNode {
+
+    private final SubroutineCall call;
+
+    public DoStatement(SubroutineCall call) {
+        this.call = call;
+    }
+
+    public SubroutineCall getCall() {
+        return call;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitDo(this);
+    }
+}
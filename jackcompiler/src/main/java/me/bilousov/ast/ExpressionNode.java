@@ -0,0 +1,16 @@
+package me.bilousov.ast;
+
+public abstract class ExpressionNode extends Node {
+
+    // pairs of parentheses written around the expression; code generation ignores them, the parse
+    // tree XML writes them back
+    private int parentheses;
+
+    public int getParentheses() {
+        return parentheses;
+    }
+
+    public void parenthesize() {
+        parentheses++;
+    }
+}
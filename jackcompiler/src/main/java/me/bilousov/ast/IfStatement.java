@@ -0,0 +1,31 @@
+package me.bilousov.ast;
+
+public class IfStatement extends StatementNode {
+
+    private final ExpressionNode condition;
+    private final StatementNode[] thenStatements;
+    private final StatementNode[] elseStatements;
+
+    public IfStatement(ExpressionNode condition, StatementNode[] thenStatements, StatementNode[] elseStatements) {
+        this.condition = condition;
+        this.thenStatements = thenStatements;
+        this.elseStatements = elseStatements;
+    }
+
+    public ExpressionNode getCondition() {
+        return condition;
+    }
+
+    public StatementNode[] getThenStatements() {
+        return thenStatements;
+    }
+
+    public StatementNode[] getElseStatements() {
+        return elseStatements;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitIf(this);
+    }
+}
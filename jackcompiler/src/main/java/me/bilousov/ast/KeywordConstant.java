@@ -0,0 +1,21 @@
+package me.bilousov.ast;
+
+import me.bilousov.util.JackKeyword;
+
+public class KeywordConstant extends ExpressionNode {
+
+    private final JackKeyword keyword;
+
+    public KeywordConstant(JackKeyword keyword) {
+        this.keyword = keyword;
+    }
+
+    public JackKeyword getKeyword() {
+        return keyword;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitKeywordConstant(this);
+    }
+}
@@ -0,0 +1,31 @@
+package me.bilousov.ast;
+
+public class LetStatement extends StatementNode {
+
+    private final String varName;
+    private final ExpressionNode index;
+    private final ExpressionNode value;
+
+    public LetStatement(String varName, ExpressionNode index, ExpressionNode value) {
+        this.varName = varName;
+        this.index = index;
+        this.value = value;
+    }
+
+    public String getVarName() {
+        return varName;
+    }
+
+    public ExpressionNode getIndex() {
+        return index;
+    }
+
+    public ExpressionNode getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitLet(this);
+    }
+}
@@ -0,0 +1,6 @@
+package me.bilousov.ast;
+
+public abstract class Node extends Positioned {
+
+    public abstract <R> R accept(AstVisitor<R> visitor);
+}
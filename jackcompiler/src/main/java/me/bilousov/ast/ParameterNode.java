@@ -0,0 +1,20 @@
+package me.bilousov.ast;
+
+public class ParameterNode extends Positioned {
+
+    private final String type;
+    private final String name;
+
+    public ParameterNode(String type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
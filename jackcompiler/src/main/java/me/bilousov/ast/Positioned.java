@@ -0,0 +1,22 @@
+package me.bilousov.ast;
+
+// Anything the parser can point an error at.
+public abstract class Positioned {
+
+    // the position of the first token, set by the parser; 0 for nodes built by a later pass
+    private int line;
+    private int column;
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public void setPosition(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+}
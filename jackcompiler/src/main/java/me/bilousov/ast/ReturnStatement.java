@@ -0,0 +1,19 @@
+package me.bilousov.ast;
+
+public class ReturnStatement extends StatementNode {
+
+    private final ExpressionNode value;
+
+    public ReturnStatement(ExpressionNode value) {
+        this.value = value;
+    }
+
+    public ExpressionNode getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitReturn(this);
+    }
+}
@@ -0,0 +1,4 @@
+package me.bilousov.ast;
+
+public abstract class StatementNode extends Node {
+}
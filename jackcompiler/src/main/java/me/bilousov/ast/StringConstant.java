@@ -0,0 +1,19 @@
+package me.bilousov.ast;
+
+public class StringConstant extends ExpressionNode {
+
+    private final String value;
+
+    public StringConstant(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitStringConstant(this);
+    }
+}
@@ -0,0 +1,31 @@
+package me.bilousov.ast;
+
+public class SubroutineCall extends ExpressionNode {
+
+    private final String receiver;
+    private final String name;
+    private final ExpressionNode[] arguments;
+
+    public SubroutineCall(String receiver, String name, ExpressionNode[] arguments) {
+        this.receiver = receiver;
+        this.name = name;
+        this.arguments = arguments;
+    }
+
+    public String getReceiver() {
+        return receiver;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExpressionNode[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitSubroutineCall(this);
+    }
+}
@@ -0,0 +1,51 @@
+package me.bilousov.ast;
+
+import me.bilousov.util.JackKeyword;
+
+public class SubroutineNode extends Node {
+
+    private final JackKeyword kind;
+    private final String returnType;
+    private final String name;
+    private final ParameterNode[] parameters;
+    private final VarDecNode[] varDecs;
+    private final StatementNode[] statements;
+
+    public SubroutineNode(JackKeyword kind, String returnType, String name, ParameterNode[] parameters, VarDecNode[] varDecs, StatementNode[] statements) {
+        this.kind = kind;
+        this.returnType = returnType;
+        this.name = name;
+        this.parameters = parameters;
+        this.varDecs = varDecs;
+        this.statements = statements;
+    }
+
+    public JackKeyword getKind() {
+        return kind;
+    }
+
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ParameterNode[] getParameters() {
+        return parameters;
+    }
+
+    public VarDecNode[] getVarDecs() {
+        return varDecs;
+    }
+
+    public StatementNode[] getStatements() {
+        return statements;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitSubroutine(this);
+    }
+}
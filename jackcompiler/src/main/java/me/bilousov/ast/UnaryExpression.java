@@ -0,0 +1,25 @@
+package me.bilousov.ast;
+
+public class UnaryExpression extends ExpressionNode {
+
+    private final char operator;
+    private final ExpressionNode operand;
+
+    public UnaryExpression(char operator, ExpressionNode operand) {
+        this.operator = operator;
+        this.operand = operand;
+    }
+
+    public char getOperator() {
+        return operator;
+    }
+
+    public ExpressionNode getOperand() {
+        return operand;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitUnary(this);
+    }
+}
@@ -0,0 +1,28 @@
+package me.bilousov.ast;
+
+import me.bilousov.util.VariableKind;
+
+public class VarDecNode extends Positioned {
+
+    private final VariableKind kind;
+    private final String type;
+    private final String[] names;
+
+    public VarDecNode(VariableKind kind, String type, String[] names) {
+        this.kind = kind;
+        this.type = type;
+        this.names = names;
+    }
+
+    public VariableKind getKind() {
+        return kind;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+}
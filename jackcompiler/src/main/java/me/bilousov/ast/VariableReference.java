@@ -0,0 +1,19 @@
+package me.bilousov.ast;
+
+public class VariableReference extends ExpressionNode {
+
+    private final String name;
+
+    public VariableReference(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitVariableReference(this);
+    }
+}
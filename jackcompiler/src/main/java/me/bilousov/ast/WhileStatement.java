@@ -0,0 +1,25 @@
+package me.bilousov.ast;
+
+public class WhileStatement extends StatementNode {
+
+    private final ExpressionNode condition;
+    private final StatementNode[] statements;
+
+    public WhileStatement(ExpressionNode condition, StatementNode[] statements) {
+        this.condition = condition;
+        this.statements = statements;
+    }
+
+    public ExpressionNode getCondition() {
+        return condition;
+    }
+
+    public StatementNode[] getStatements() {
+        return statements;
+    }
+
+    @Override
+    public <R> R accept(AstVisitor<R> visitor) {
+        return visitor.visitWhile(this);
+    }
+}
@@ -0,0 +1,282 @@
+package me.bilousov.backend;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+import me.bilousov.writer.VMWriter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Translates one VM file's command stream into Hack assembly as it is written, so the compiler can go
+// from code generation to .asm without printing and re-parsing .vm text. In optimized mode calls and
+// returns jump to one shared sequence each (see HackProgramLinker) instead of repeating ~40 instructions
+// at every site, and pushes and pops use the shortest sequence for their segment and index. Without it
+// the output matches a straightforward translator, which is what the optimized code is measured against.
+public class HackAssemblyWriter implements VMWriter {
+
+    static final String CALL_ROUTINE = "$CALL";
+    static final String RETURN_ROUTINE = "$RETURN";
+
+    // popping into local/argument/this/that i steps A up i times while that is shorter than going through R13
+    private static final int MAX_STEPPED_POP_INDEX = 5;
+
+    private final String fileName;
+    private final boolean optimized;
+    private final StringBuilder assembly;
+    private final Set<String> definedFunctions;
+
+    private String currentFunction;
+    private int labelId;
+    private int instructionCount;
+
+    public HackAssemblyWriter(String fileName, boolean optimized) {
+        this.fileName = fileName;
+        this.optimized = optimized;
+        this.assembly = new StringBuilder();
+        this.definedFunctions = new LinkedHashSet<>();
+        this.currentFunction = fileName;
+    }
+
+    public String getAssembly() {
+        return assembly.toString();
+    }
+
+    public int getInstructionCount() {
+        return instructionCount;
+    }
+
+    public Set<String> getDefinedFunctions() {
+        return definedFunctions;
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        switch (segment) {
+            case CONSTANT:
+                if (optimized && index <= 1) {
+                    emit("@SP", "AM=M+1", "A=A-1", "M=" + index);
+                    return;
+                }
+                emit("@" + index, "D=A");
+                break;
+            case LOCAL:
+            case ARGUMENT:
+            case THIS:
+            case THAT:
+                if (optimized && index <= 1) {
+                    emit("@" + register(segment), index == 0 ? "A=M" : "A=M+1", "D=M");
+                } else {
+                    emit("@" + index, "D=A", "@" + register(segment), "A=D+M", "D=M");
+                }
+                break;
+            default:
+                emit("@" + directSymbol(segment, index), "D=M");
+        }
+
+        pushD();
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        switch (segment) {
+            case LOCAL:
+            case ARGUMENT:
+            case THIS:
+            case THAT:
+                if (optimized && index <= MAX_STEPPED_POP_INDEX) {
+                    emit("@SP", "AM=M-1", "D=M", "@" + register(segment), "A=M");
+                    for (int i = 0; i < index; i++) {
+                        emit("A=A+1");
+                    }
+                    emit("M=D");
+                } else {
+                    emit("@" + index, "D=A", "@" + register(segment), "D=D+M", "@R13", "M=D",
+                            "@SP", "AM=M-1", "D=M", "@R13", "A=M", "M=D");
+                }
+                break;
+            case CONSTANT:
+                throw new IllegalStateException("Cannot pop to the constant segment in " + currentFunction);
+            default:
+                emit("@SP", "AM=M-1", "D=M", "@" + directSymbol(segment, index), "M=D");
+        }
+    }
+
+    private void pushD() {
+        if (optimized) {
+            emit("@SP", "AM=M+1", "A=A-1", "M=D");
+        } else {
+            emit("@SP", "A=M", "M=D", "@SP", "M=M+1");
+        }
+    }
+
+    private static String register(VMSegment segment) {
+        switch (segment) {
+            case LOCAL:
+                return "LCL";
+            case ARGUMENT:
+                return "ARG";
+            case THIS:
+                return "THIS";
+            default:
+                return "THAT";
+        }
+    }
+
+    private String directSymbol(VMSegment segment, int index) {
+        switch (segment) {
+            case POINTER:
+                return index == 0 ? "THIS" : "THAT";
+            case TEMP:
+                return "R" + (5 + index);
+            default:
+                return fileName + "." + index;
+        }
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        switch (command) {
+            case ADD:
+                binary("M=D+M");
+                break;
+            case SUB:
+                binary("M=M-D");
+                break;
+            case AND:
+                binary("M=D&M");
+                break;
+            case OR:
+                binary("M=D|M");
+                break;
+            case NEG:
+                emit("@SP", "A=M-1", "M=-M");
+                break;
+            case NOT:
+                emit("@SP", "A=M-1", "M=!M");
+                break;
+            case EQ:
+                compare("JEQ");
+                break;
+            case GT:
+                compare("JGT");
+                break;
+            case LT:
+                compare("JLT");
+                break;
+            default:
+                throw new IllegalStateException("Not an arithmetic command: " + command);
+        }
+    }
+
+    private void binary(String operation) {
+        emit("@SP", "AM=M-1", "D=M", "A=A-1", operation);
+    }
+
+    // leaves true (-1) in x's slot, then overwrites it with false unless the jump skips that
+    private void compare(String jump) {
+        String done = currentFunction + "$cmp." + labelId++;
+
+        emit("@SP", "AM=M-1", "D=M", "A=A-1", "D=M-D", "M=-1", "@" + done, "D;" + jump, "@SP", "A=M-1", "M=0");
+        label(done);
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        label(currentFunction + "$" + label);
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        emit("@" + currentFunction + "$" + label, "0;JMP");
+    }
+
+    @Override
+    public void writeIf(String label) {
+        emit("@SP", "AM=M-1", "D=M", "@" + currentFunction + "$" + label, "D;JNE");
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        String returnLabel = currentFunction + "$ret." + labelId++;
+
+        if (optimized) {
+            emit("@" + returnLabel, "D=A", "@R15", "M=D", "@" + argsCount, "D=A", "@R14", "M=D", "@" + name, "D=A", "@" + CALL_ROUTINE, "0;JMP");
+        } else {
+            emit("@" + returnLabel, "D=A");
+            pushD();
+            for (String register : new String[]{"LCL", "ARG", "THIS", "THAT"}) {
+                emit("@" + register, "D=M");
+                pushD();
+            }
+            emit("@SP", "D=M", "@" + (argsCount + 5), "D=D-A", "@ARG", "M=D", "@SP", "D=M", "@LCL", "M=D", "@" + name, "0;JMP");
+        }
+
+        label(returnLabel);
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        currentFunction = name;
+        definedFunctions.add(name);
+        label(name);
+
+        if (optimized) {
+            if (localsCount > 0) {
+                emit("@SP", "A=M");
+                for (int i = 0; i < localsCount; i++) {
+                    emit("M=0", "A=A+1");
+                }
+                emit("D=A", "@SP", "M=D");
+            }
+        } else {
+            for (int i = 0; i < localsCount; i++) {
+                writePush(VMSegment.CONSTANT, 0);
+            }
+        }
+    }
+
+    @Override
+    public void writeReturn() {
+        if (optimized) {
+            emit("@" + RETURN_ROUTINE, "0;JMP");
+        } else {
+            returnSequence(this);
+        }
+    }
+
+    // frame = LCL; return address = *(frame - 5); *ARG = pop(); SP = ARG + 1; restore THAT, THIS, ARG, LCL
+    static void returnSequence(HackAssemblyWriter out) {
+        out.emit("@LCL", "D=M", "@R14", "M=D", "@5", "A=D-A", "D=M", "@R15", "M=D",
+                "@SP", "AM=M-1", "D=M", "@ARG", "A=M", "M=D", "@ARG", "D=M+1", "@SP", "M=D");
+        for (String register : new String[]{"THAT", "THIS", "ARG", "LCL"}) {
+            out.emit("@R14", "AM=M-1", "D=M", "@" + register, "M=D");
+        }
+        out.emit("@R15", "A=M", "0;JMP");
+    }
+
+    // expects the return address in R15, the argument count in R14 and the callee's address in D
+    static void callSequence(HackAssemblyWriter out) {
+        out.emit("@R13", "M=D", "@R15", "D=M");
+        out.pushD();
+        for (String register : new String[]{"LCL", "ARG", "THIS", "THAT"}) {
+            out.emit("@" + register, "D=M");
+            out.pushD();
+        }
+        out.emit("@SP", "D=M", "@LCL", "M=D", "@R14", "D=D-M", "@5", "D=D-A", "@ARG", "M=D", "@R13", "A=M", "0;JMP");
+    }
+
+    void emit(String... instructions) {
+        for (String instruction : instructions) {
+            assembly.append(instruction).append('\n');
+        }
+        instructionCount += instructions.length;
+    }
+
+    void label(String label) {
+        assembly.append('(').append(label).append(")\n");
+    }
+
+    @Override
+    public void close() {
+    }
+}
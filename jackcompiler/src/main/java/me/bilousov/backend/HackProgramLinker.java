@@ -0,0 +1,92 @@
+package me.bilousov.backend;
+
+import me.bilousov.vm.VMBinaryFormat;
+import me.bilousov.vm.VMBinaryReader;
+import me.bilousov.vm.VMTextReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Joins translated VM files into one Hack program: the bootstrap (SP = 256, call Sys.init), the shared
+// call and return sequences when optimizing, then every file's code in the order it was added.
+public class HackProgramLinker {
+
+    public static final String ENTRY_POINT = "Sys.init";
+    public static final String OUTPUT_FILE_EXTENSION = ".asm";
+
+    private static final int STACK_BASE = 256;
+
+    private final boolean optimized;
+    private final List<HackAssemblyWriter> parts;
+
+    public HackProgramLinker(boolean optimized) {
+        this.optimized = optimized;
+        this.parts = new ArrayList<>();
+    }
+
+    public void add(HackAssemblyWriter part) {
+        parts.add(part);
+    }
+
+    // for .vm or .vmb files that were not compiled in this run, such as the Jack OS or outputs the build cache kept
+    public HackAssemblyWriter translate(File vmFile) throws IOException {
+        String name = vmFile.getName();
+        HackAssemblyWriter part = new HackAssemblyWriter(name.substring(0, name.lastIndexOf('.')), optimized);
+        if (VMBinaryFormat.isBinary(vmFile)) {
+            VMBinaryReader.read(vmFile, part);
+        } else {
+            VMTextReader.read(vmFile, part);
+        }
+        add(part);
+
+        return part;
+    }
+
+    public boolean definesEntryPoint() {
+        for (HackAssemblyWriter part : parts) {
+            if (part.getDefinedFunctions().contains(ENTRY_POINT)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // returns the number of Hack instructions, which is the ROM size of the program; refuses to write a
+    // program without Sys.init, whose bootstrap the Hack assembler would send to whatever address its
+    // undefined label turns into
+    public int write(File asmFile) throws IOException {
+        if (!definesEntryPoint()) {
+            throw new IllegalStateException("No " + ENTRY_POINT + " in the program");
+        }
+
+        HackAssemblyWriter bootstrap = new HackAssemblyWriter("$bootstrap", optimized);
+        bootstrap.emit("@" + STACK_BASE, "D=A", "@SP", "M=D");
+        bootstrap.writeCall(ENTRY_POINT, 0);
+        bootstrap.label("$HALT");
+        bootstrap.emit("@$HALT", "0;JMP");
+
+        if (optimized) {
+            bootstrap.label(HackAssemblyWriter.CALL_ROUTINE);
+            HackAssemblyWriter.callSequence(bootstrap);
+            bootstrap.label(HackAssemblyWriter.RETURN_ROUTINE);
+            HackAssemblyWriter.returnSequence(bootstrap);
+        }
+
+        int instructions = bootstrap.getInstructionCount();
+        try (BufferedWriter writer = Files.newBufferedWriter(asmFile.toPath(), StandardCharsets.US_ASCII)) {
+            writer.write(bootstrap.getAssembly());
+            for (HackAssemblyWriter part : parts) {
+                writer.write(part.getAssembly());
+                instructions += part.getInstructionCount();
+            }
+        }
+
+        return instructions;
+    }
+}
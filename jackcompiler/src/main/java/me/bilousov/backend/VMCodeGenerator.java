@@ -0,0 +1,452 @@
+package me.bilousov.backend;
+
+import me.bilousov.ast.*;
+import me.bilousov.program.ProgramIndex;
+import me.bilousov.program.SubroutineSignature;
+import me.bilousov.util.CompilationException;
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.SymbolTable;
+import me.bilousov.util.Variable;
+import me.bilousov.util.VariableKind;
+import me.bilousov.util.VariableScope;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+import me.bilousov.writer.VMWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class VMCodeGenerator implements AstVisitor<Void> {
+
+    private static final Variable UNDEFINED_VARIABLE = new Variable("?", "int", VariableKind.LOCAL, VariableScope.SUBROUTINE, 0);
+
+    private final VMWriter vmWriter;
+    private final SymbolTable symbolTable;
+    private final ProgramIndex programIndex;
+    private final Map<String, Integer> stringSlots;
+    private final List<Diagnostic> diagnostics;
+
+    private String className;
+    private SubroutineNode subroutine;
+
+    private int whileLabelId = 0;
+    private int ifLabelId = 0;
+    private int stringLabelId = 0;
+    private boolean internStrings;
+
+    public VMCodeGenerator(VMWriter vmWriter) {
+        this(vmWriter, null);
+    }
+
+    // with a program index every call is resolved against the callee's signature; without one,
+    // unknown receivers are assumed to be class names, as when compiling a single class
+    public VMCodeGenerator(VMWriter vmWriter, ProgramIndex programIndex) {
+        this.vmWriter = vmWriter;
+        this.symbolTable = new SymbolTable();
+        this.programIndex = programIndex;
+        this.stringSlots = new LinkedHashMap<>();
+        this.diagnostics = new ArrayList<>();
+    }
+
+    // builds each distinct string literal once, on first use, into a static slot after the class's own
+    // statics. The code that builds a literal is emitted once per class, as a function of its own, so
+    // every use costs the same few instructions whatever the literal's length. Every evaluation shares
+    // one String, so code that mutates or disposes a literal must not be compiled this way
+    public void setInternStrings(boolean internStrings) {
+        this.internStrings = internStrings;
+    }
+
+    // a statement with an error is skipped and generation goes on, so every error in the class is
+    // reported; they are thrown together at the end, after which the generated code must be discarded
+    public void generate(ClassNode classNode) {
+        diagnostics.clear();
+        classNode.accept(this);
+
+        if (!diagnostics.isEmpty()) {
+            throw new CompilationException(diagnostics);
+        }
+    }
+
+    @Override
+    public Void visitClass(ClassNode node) {
+        className = node.getName();
+        stringSlots.clear();
+
+        for (VarDecNode varDec : node.getClassVarDecs()) {
+            define(varDec);
+        }
+
+        for (SubroutineNode subroutineNode : node.getSubroutines()) {
+            subroutineNode.accept(this);
+        }
+
+        generateStringBuilders();
+        return null;
+    }
+
+    @Override
+    public Void visitSubroutine(SubroutineNode node) {
+        subroutine = node;
+
+        symbolTable.startSubroutine();
+        if (node.getKind() == JackKeyword.METHOD) {
+            symbolTable.define("this", className, VariableKind.ARGUMENT);
+        }
+
+        for (ParameterNode parameter : node.getParameters()) {
+            symbolTable.define(parameter.getName(), parameter.getType(), VariableKind.ARGUMENT);
+        }
+
+        for (VarDecNode varDec : node.getVarDecs()) {
+            define(varDec);
+        }
+
+        vmWriter.writeFunction(className + "." + node.getName(), symbolTable.varCount(VariableKind.LOCAL));
+
+        if (node.getKind() == JackKeyword.CONSTRUCTOR) {
+            vmWriter.writePush(VMSegment.CONSTANT, symbolTable.varCount(VariableKind.FIELD));
+            vmWriter.writeCall("Memory.alloc", 1);
+            vmWriter.writePop(VMSegment.POINTER, 0);
+        } else if (node.getKind() == JackKeyword.METHOD) {
+            vmWriter.writePush(VMSegment.ARGUMENT, 0);
+            vmWriter.writePop(VMSegment.POINTER, 0);
+        }
+
+        generateStatements(node.getStatements());
+        return null;
+    }
+
+    @Override
+    public Void visitLet(LetStatement node) {
+        Variable variable = lookup(node, node.getVarName());
+
+        if (node.getIndex() != null) {
+            vmWriter.writePush(variable.getSegment(), variable.getVarOrderNumber());
+            node.getIndex().accept(this);
+            vmWriter.writeArithmetic(VMOpcode.ADD);
+
+            node.getValue().accept(this);
+            vmWriter.writePop(VMSegment.TEMP, 0);
+            vmWriter.writePop(VMSegment.POINTER, 1);
+            vmWriter.writePush(VMSegment.TEMP, 0);
+            vmWriter.writePop(VMSegment.THAT, 0);
+        } else {
+            node.getValue().accept(this);
+            vmWriter.writePop(variable.getSegment(), variable.getVarOrderNumber());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitIf(IfStatement node) {
+        String ifLabel = "IF_" + ifLabelId++;
+        String ifEndLabel = "IF_" + ifLabelId++;
+
+        node.getCondition().accept(this);
+        vmWriter.writeArithmetic(VMOpcode.NOT);
+        vmWriter.writeIf(ifLabel);
+
+        generateStatements(node.getThenStatements());
+        vmWriter.writeGoto(ifEndLabel);
+        vmWriter.writeLabel(ifLabel);
+
+        if (node.getElseStatements() != null) {
+            generateStatements(node.getElseStatements());
+        }
+
+        vmWriter.writeLabel(ifEndLabel);
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(WhileStatement node) {
+        String whileLabel = "WHILE_" + whileLabelId++;
+        String whileEndLabel = "WHILE_" + whileLabelId++;
+
+        vmWriter.writeLabel(whileLabel);
+        node.getCondition().accept(this);
+        vmWriter.writeArithmetic(VMOpcode.NOT);
+        vmWriter.writeIf(whileEndLabel);
+
+        generateStatements(node.getStatements());
+        vmWriter.writeGoto(whileLabel);
+        vmWriter.writeLabel(whileEndLabel);
+        return null;
+    }
+
+    @Override
+    public Void visitDo(DoStatement node) {
+        node.getCall().accept(this);
+        vmWriter.writePop(VMSegment.TEMP, 0);
+        return null;
+    }
+
+    @Override
+    public Void visitReturn(ReturnStatement node) {
+        if (node.getValue() != null) {
+            node.getValue().accept(this);
+        } else if (subroutine.getKind() == JackKeyword.CONSTRUCTOR) {
+            vmWriter.writePush(VMSegment.POINTER, 0);
+        } else {
+            vmWriter.writePush(VMSegment.CONSTANT, 0);
+        }
+
+        vmWriter.writeReturn();
+        return null;
+    }
+
+    @Override
+    public Void visitBinary(BinaryExpression node) {
+        node.getLeft().accept(this);
+        node.getRight().accept(this);
+
+        switch (node.getOperator()) {
+            case '+':
+                vmWriter.writeArithmetic(VMOpcode.ADD);
+                break;
+            case '-':
+                vmWriter.writeArithmetic(VMOpcode.SUB);
+                break;
+            case '=':
+                vmWriter.writeArithmetic(VMOpcode.EQ);
+                break;
+            case '>':
+                vmWriter.writeArithmetic(VMOpcode.GT);
+                break;
+            case '<':
+                vmWriter.writeArithmetic(VMOpcode.LT);
+                break;
+            case '|':
+                vmWriter.writeArithmetic(VMOpcode.OR);
+                break;
+            case '&':
+                vmWriter.writeArithmetic(VMOpcode.AND);
+                break;
+            case '*':
+                vmWriter.writeCall("Math.multiply", 2);
+                break;
+            case '/':
+                vmWriter.writeCall("Math.divide", 2);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operator " + node.getOperator());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(UnaryExpression node) {
+        node.getOperand().accept(this);
+        vmWriter.writeArithmetic(node.getOperator() == '-' ? VMOpcode.NEG : VMOpcode.NOT);
+        return null;
+    }
+
+    @Override
+    public Void visitIntegerConstant(IntegerConstant node) {
+        vmWriter.writePush(VMSegment.CONSTANT, node.getValue());
+        return null;
+    }
+
+    @Override
+    public Void visitStringConstant(StringConstant node) {
+        if (internStrings) {
+            generateInternedString(node.getValue());
+        } else {
+            generateNewString(node.getValue());
+        }
+
+        return null;
+    }
+
+    // static slots start out as 0 and a built String is a heap address, so a non-zero slot is ready to use
+    private void generateInternedString(String value) {
+        int slot = stringSlots.computeIfAbsent(value, literal -> symbolTable.varCount(VariableKind.STATIC) + stringSlots.size());
+        String readyLabel = "STRING_" + stringLabelId++;
+
+        vmWriter.writePush(VMSegment.STATIC, slot);
+        vmWriter.writeIf(readyLabel);
+        vmWriter.writeCall(stringBuilderName(slot), 0);
+        vmWriter.writePop(VMSegment.STATIC, slot);
+        vmWriter.writeLabel(readyLabel);
+        vmWriter.writePush(VMSegment.STATIC, slot);
+    }
+
+    private void generateStringBuilders() {
+        for (Map.Entry<String, Integer> literal : stringSlots.entrySet()) {
+            vmWriter.writeFunction(stringBuilderName(literal.getValue()), 0);
+            generateNewString(literal.getKey());
+            vmWriter.writeReturn();
+        }
+    }
+
+    // '$' cannot appear in a Jack identifier, so these names never clash with a subroutine of the class
+    private String stringBuilderName(int slot) {
+        return className + ".string$" + slot;
+    }
+
+    private void generateNewString(String value) {
+        vmWriter.writePush(VMSegment.CONSTANT, value.length());
+        vmWriter.writeCall("String.new", 1);
+
+        for (int i = 0; i < value.length(); i++) {
+            vmWriter.writePush(VMSegment.CONSTANT, value.charAt(i));
+            vmWriter.writeCall("String.appendChar", 2);
+        }
+    }
+
+    @Override
+    public Void visitKeywordConstant(KeywordConstant node) {
+        switch (node.getKeyword()) {
+            case TRUE:
+                vmWriter.writePush(VMSegment.CONSTANT, 0);
+                vmWriter.writeArithmetic(VMOpcode.NOT);
+                break;
+            case THIS:
+                vmWriter.writePush(VMSegment.POINTER, 0);
+                break;
+            default:
+                vmWriter.writePush(VMSegment.CONSTANT, 0);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitVariableReference(VariableReference node) {
+        Variable variable = lookup(node, node.getName());
+
+        vmWriter.writePush(variable.getSegment(), variable.getVarOrderNumber());
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAccess(ArrayAccess node) {
+        Variable variable = lookup(node, node.getName());
+
+        vmWriter.writePush(variable.getSegment(), variable.getVarOrderNumber());
+        node.getIndex().accept(this);
+        vmWriter.writeArithmetic(VMOpcode.ADD);
+        vmWriter.writePop(VMSegment.POINTER, 1);
+        vmWriter.writePush(VMSegment.THAT, 0);
+        return null;
+    }
+
+    @Override
+    public Void visitSubroutineCall(SubroutineCall node) {
+        if (programIndex != null) {
+            return generateResolvedCall(node);
+        }
+
+        String receiver = node.getReceiver();
+        int argsCount = node.getArguments().length;
+        String owner;
+
+        if (receiver == null) {
+            vmWriter.writePush(VMSegment.POINTER, 0);
+            argsCount++;
+            owner = className;
+        } else {
+            Variable variable = symbolTable.lookup(receiver);
+
+            if (variable != null) {
+                vmWriter.writePush(variable.getSegment(), variable.getVarOrderNumber());
+                argsCount++;
+                owner = variable.getType();
+            } else {
+                owner = receiver;
+            }
+        }
+
+        for (ExpressionNode argument : node.getArguments()) {
+            argument.accept(this);
+        }
+
+        vmWriter.writeCall(owner + "." + node.getName(), argsCount);
+        return null;
+    }
+
+    private Void generateResolvedCall(SubroutineCall node) {
+        String receiver = node.getReceiver();
+        Variable variable = receiver != null ? symbolTable.lookup(receiver) : null;
+        String owner = receiver == null ? className : variable != null ? variable.getType() : receiver;
+
+        if (!programIndex.hasClass(owner)) {
+            throw callError(node, receiver == null || variable != null ? "unknown class " + owner : "unknown class or variable " + receiver);
+        }
+
+        SubroutineSignature callee = programIndex.lookup(owner, node.getName());
+        if (callee == null) {
+            throw callError(node, "no subroutine " + node.getName() + " in class " + owner);
+        }
+
+        if (callee.getParameterCount() != node.getArguments().length) {
+            throw callError(node, callee.getQualifiedName() + " takes " + callee.getParameterCount() + " argument(s), got " + node.getArguments().length);
+        }
+
+        int argsCount = node.getArguments().length;
+        if (callee.isMethod()) {
+            if (receiver == null) {
+                if (subroutine.getKind() == JackKeyword.FUNCTION) {
+                    throw callError(node, "method " + callee.getQualifiedName() + " called from function without an object");
+                }
+                vmWriter.writePush(VMSegment.POINTER, 0);
+            } else if (variable != null) {
+                vmWriter.writePush(variable.getSegment(), variable.getVarOrderNumber());
+            } else {
+                throw callError(node, "method " + callee.getQualifiedName() + " called without an object");
+            }
+            argsCount++;
+        } else if (variable != null) {
+            throw callError(node, callee.getKind().getLexeme() + " " + callee.getQualifiedName() + " called on object " + receiver);
+        }
+
+        for (ExpressionNode argument : node.getArguments()) {
+            argument.accept(this);
+        }
+
+        vmWriter.writeCall(callee.getQualifiedName(), argsCount);
+        return null;
+    }
+
+    private CompilationException callError(SubroutineCall node, String problem) {
+        String callee = node.getReceiver() != null ? node.getReceiver() + "." + node.getName() : node.getName();
+
+        return error(node, "Invalid call " + callee + "() in " + className + "." + subroutine.getName() + ": " + problem);
+    }
+
+    private static CompilationException error(Node node, String message) {
+        return new CompilationException(new Diagnostic(node.getLine(), node.getColumn(), message));
+    }
+
+    private void generateStatements(StatementNode[] statements) {
+        for (StatementNode statement : statements) {
+            try {
+                statement.accept(this);
+            } catch (CompilationException e) {
+                diagnostics.addAll(e.getDiagnostics());
+            }
+        }
+    }
+
+    private void define(VarDecNode varDec) {
+        for (String name : varDec.getNames()) {
+            symbolTable.define(name, varDec.getType(), varDec.getKind());
+        }
+    }
+
+    // an undefined variable is reported and stands in as local 0, so the rest of the statement is still checked
+    private Variable lookup(Node node, String name) {
+        Variable variable = symbolTable.lookup(name);
+        if (variable == null) {
+            diagnostics.add(new Diagnostic(node.getLine(), node.getColumn(), "Undefined variable '" + name + "' in " + className + "." + subroutine.getName()));
+            return UNDEFINED_VARIABLE;
+        }
+
+        return variable;
+    }
+}
@@ -0,0 +1,323 @@
+package me.bilousov.backend;
+
+import me.bilousov.ast.*;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.TokenType;
+import me.bilousov.util.VariableKind;
+import me.bilousov.writer.XMLTreeWriter;
+
+// Writes a parsed class as the nand2tetris parse tree XML (<class>, <subroutineDec>, <statements>,
+// <expression>, <term>, ...), every token in source order. Jack has no operator precedence, so the
+// parser nests "a + b - c" to the left; a binary expression without parentheses of its own is written
+// back as one flat run of terms and operators.
+public class XMLTreeGenerator implements AstVisitor<Void> {
+
+    private final XMLTreeWriter xmlWriter;
+
+    public XMLTreeGenerator(XMLTreeWriter xmlWriter) {
+        this.xmlWriter = xmlWriter;
+    }
+
+    public void generate(ClassNode classNode) {
+        classNode.accept(this);
+    }
+
+    @Override
+    public Void visitClass(ClassNode node) {
+        open("class");
+        writeKeyword(JackKeyword.CLASS);
+        writeIdentifier(node.getName());
+        writeSymbol('{');
+
+        for (VarDecNode varDec : node.getClassVarDecs()) {
+            writeVarDec("classVarDec", varDec.getKind() == VariableKind.FIELD ? JackKeyword.FIELD : JackKeyword.STATIC, varDec);
+        }
+        for (SubroutineNode subroutine : node.getSubroutines()) {
+            subroutine.accept(this);
+        }
+
+        writeSymbol('}');
+        close("class");
+        return null;
+    }
+
+    @Override
+    public Void visitSubroutine(SubroutineNode node) {
+        open("subroutineDec");
+        writeKeyword(node.getKind());
+        writeType(node.getReturnType());
+        writeIdentifier(node.getName());
+        writeSymbol('(');
+
+        open("parameterList");
+        ParameterNode[] parameters = node.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                writeSymbol(',');
+            }
+            writeType(parameters[i].getType());
+            writeIdentifier(parameters[i].getName());
+        }
+        close("parameterList");
+        writeSymbol(')');
+
+        open("subroutineBody");
+        writeSymbol('{');
+        for (VarDecNode varDec : node.getVarDecs()) {
+            writeVarDec("varDec", JackKeyword.VAR, varDec);
+        }
+        writeStatements(node.getStatements());
+        writeSymbol('}');
+        close("subroutineBody");
+
+        close("subroutineDec");
+        return null;
+    }
+
+    @Override
+    public Void visitLet(LetStatement node) {
+        open("letStatement");
+        writeKeyword(JackKeyword.LET);
+        writeIdentifier(node.getVarName());
+
+        if (node.getIndex() != null) {
+            writeSymbol('[');
+            writeExpression(node.getIndex());
+            writeSymbol(']');
+        }
+
+        writeSymbol('=');
+        writeExpression(node.getValue());
+        writeSymbol(';');
+        close("letStatement");
+        return null;
+    }
+
+    @Override
+    public Void visitIf(IfStatement node) {
+        open("ifStatement");
+        writeKeyword(JackKeyword.IF);
+        writeCondition(node.getCondition());
+        writeBlock(node.getThenStatements());
+
+        if (node.getElseStatements() != null) {
+            writeKeyword(JackKeyword.ELSE);
+            writeBlock(node.getElseStatements());
+        }
+
+        close("ifStatement");
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(WhileStatement node) {
+        open("whileStatement");
+        writeKeyword(JackKeyword.WHILE);
+        writeCondition(node.getCondition());
+        writeBlock(node.getStatements());
+        close("whileStatement");
+        return null;
+    }
+
+    @Override
+    public Void visitDo(DoStatement node) {
+        open("doStatement");
+        writeKeyword(JackKeyword.DO);
+        node.getCall().accept(this);
+        writeSymbol(';');
+        close("doStatement");
+        return null;
+    }
+
+    @Override
+    public Void visitReturn(ReturnStatement node) {
+        open("returnStatement");
+        writeKeyword(JackKeyword.RETURN);
+        if (node.getValue() != null) {
+            writeExpression(node.getValue());
+        }
+        writeSymbol(';');
+        close("returnStatement");
+        return null;
+    }
+
+    // only reached for a binary expression inside a term, which the parser always parenthesizes
+    @Override
+    public Void visitBinary(BinaryExpression node) {
+        writeTerms(node, 0);
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(UnaryExpression node) {
+        writeSymbol(node.getOperator());
+        writeTerm(node.getOperand(), node.getOperand().getParentheses());
+        return null;
+    }
+
+    @Override
+    public Void visitIntegerConstant(IntegerConstant node) {
+        xmlWriter.writeToken(String.valueOf(node.getValue()), TokenType.INT_CONST.getXmlLabel());
+        return null;
+    }
+
+    @Override
+    public Void visitStringConstant(StringConstant node) {
+        xmlWriter.writeToken(escape(node.getValue()), TokenType.STRING_CONST.getXmlLabel());
+        return null;
+    }
+
+    @Override
+    public Void visitKeywordConstant(KeywordConstant node) {
+        writeKeyword(node.getKeyword());
+        return null;
+    }
+
+    @Override
+    public Void visitVariableReference(VariableReference node) {
+        writeIdentifier(node.getName());
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAccess(ArrayAccess node) {
+        writeIdentifier(node.getName());
+        writeSymbol('[');
+        writeExpression(node.getIndex());
+        writeSymbol(']');
+        return null;
+    }
+
+    @Override
+    public Void visitSubroutineCall(SubroutineCall node) {
+        if (node.getReceiver() != null) {
+            writeIdentifier(node.getReceiver());
+            writeSymbol('.');
+        }
+        writeIdentifier(node.getName());
+        writeSymbol('(');
+
+        open("expressionList");
+        ExpressionNode[] arguments = node.getArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            if (i > 0) {
+                writeSymbol(',');
+            }
+            writeExpression(arguments[i]);
+        }
+        close("expressionList");
+
+        writeSymbol(')');
+        return null;
+    }
+
+    private void writeVarDec(String tagName, JackKeyword kind, VarDecNode varDec) {
+        open(tagName);
+        writeKeyword(kind);
+        writeType(varDec.getType());
+
+        String[] names = varDec.getNames();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                writeSymbol(',');
+            }
+            writeIdentifier(names[i]);
+        }
+
+        writeSymbol(';');
+        close(tagName);
+    }
+
+    private void writeStatements(StatementNode[] statements) {
+        open("statements");
+        for (StatementNode statement : statements) {
+            statement.accept(this);
+        }
+        close("statements");
+    }
+
+    private void writeCondition(ExpressionNode condition) {
+        writeSymbol('(');
+        writeExpression(condition);
+        writeSymbol(')');
+    }
+
+    private void writeBlock(StatementNode[] statements) {
+        writeSymbol('{');
+        writeStatements(statements);
+        writeSymbol('}');
+    }
+
+    private void writeExpression(ExpressionNode expression) {
+        writeExpression(expression, expression.getParentheses());
+    }
+
+    // parentheses is how many of the expression's own pairs are still to be written
+    private void writeExpression(ExpressionNode expression, int parentheses) {
+        open("expression");
+        writeTerms(expression, parentheses);
+        close("expression");
+    }
+
+    private void writeTerms(ExpressionNode expression, int parentheses) {
+        if (parentheses == 0 && expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            writeTerms(binary.getLeft(), binary.getLeft().getParentheses());
+            writeSymbol(binary.getOperator());
+            writeTerm(binary.getRight(), binary.getRight().getParentheses());
+        } else {
+            writeTerm(expression, parentheses);
+        }
+    }
+
+    private void writeTerm(ExpressionNode expression, int parentheses) {
+        open("term");
+        if (parentheses > 0) {
+            writeSymbol('(');
+            writeExpression(expression, parentheses - 1);
+            writeSymbol(')');
+        } else {
+            expression.accept(this);
+        }
+        close("term");
+    }
+
+    private void writeType(String type) {
+        JackKeyword keyword = JackKeyword.fromChars(type.toCharArray(), 0, type.length());
+        if (keyword != null) {
+            writeKeyword(keyword);
+        } else {
+            writeIdentifier(type);
+        }
+    }
+
+    private void writeKeyword(JackKeyword keyword) {
+        xmlWriter.writeToken(keyword.getLexeme(), TokenType.KEYWORD.getXmlLabel());
+    }
+
+    private void writeIdentifier(String identifier) {
+        xmlWriter.writeToken(identifier, TokenType.IDENTIFIER.getXmlLabel());
+    }
+
+    private void writeSymbol(char symbol) {
+        xmlWriter.writeToken(escape(String.valueOf(symbol)), TokenType.SYMBOL.getXmlLabel());
+    }
+
+    private static String escape(String text) {
+        if (text.indexOf('<') < 0 && text.indexOf('>') < 0 && text.indexOf('&') < 0) {
+            return text;
+        }
+
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private void open(String tagName) {
+        xmlWriter.writeOpenTag(tagName);
+        xmlWriter.increaseIndentLevel();
+    }
+
+    private void close(String tagName) {
+        xmlWriter.decreaseIndentLevel();
+        xmlWriter.writeCloseTag(tagName);
+    }
+}
@@ -0,0 +1,423 @@
+package me.bilousov.checker;
+
+import me.bilousov.ast.*;
+import me.bilousov.program.ProgramIndex;
+import me.bilousov.program.SubroutineSignature;
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.SymbolTable;
+import me.bilousov.util.Variable;
+import me.bilousov.util.VariableKind;
+import me.bilousov.util.VariableScope;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Checks one parsed class against the program index without generating code: declarations, variable
+// and type names, calls (callee, argument count and types, method vs function), assignments, returns,
+// fields and 'this' used from functions, and subroutines that can run off their end. Each visit
+// returns the static type of an expression, or null when it is unknown.
+//
+// Jack's types are loose, so only mixes that are bugs in practice are reported: int, char and boolean
+// convert freely, Array converts to and from anything (it is the language's raw pointer), and null fits
+// every type. A primitive where an object is expected, an object of another class, or a void call used
+// as a value is an error. An instance is not thread-safe; use one per class, or one per worker.
+public class SemanticChecker implements AstVisitor<String> {
+
+    private static final String INT = "int";
+    private static final String CHAR = "char";
+    private static final String BOOLEAN = "boolean";
+    private static final String VOID = "void";
+    private static final String ARRAY = "Array";
+    private static final String STRING = "String";
+    private static final String NULL = "null";
+    private static final char INDEX = '[';
+
+    private final ProgramIndex programIndex;
+    private final SymbolTable symbolTable;
+    private final List<Diagnostic> diagnostics;
+
+    private String className;
+    private SubroutineNode subroutine;
+
+    public SemanticChecker(ProgramIndex programIndex) {
+        this.programIndex = programIndex;
+        this.symbolTable = new SymbolTable();
+        this.diagnostics = new ArrayList<>();
+    }
+
+    public List<Diagnostic> check(ClassNode classNode) {
+        diagnostics.clear();
+        classNode.accept(this);
+
+        return new ArrayList<>(diagnostics);
+    }
+
+    @Override
+    public String visitClass(ClassNode node) {
+        className = node.getName();
+        subroutine = null;
+
+        for (VarDecNode varDec : node.getClassVarDecs()) {
+            define(varDec, varDec.getType(), varDec.getNames(), varDec.getKind());
+        }
+
+        Set<String> subroutineNames = new HashSet<>();
+        for (SubroutineNode subroutineNode : node.getSubroutines()) {
+            if (!subroutineNames.add(subroutineNode.getName())) {
+                error(subroutineNode, "Subroutine " + className + "." + subroutineNode.getName() + " is declared twice");
+            }
+            subroutineNode.accept(this);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitSubroutine(SubroutineNode node) {
+        subroutine = node;
+
+        symbolTable.startSubroutine();
+        if (node.getKind() == JackKeyword.METHOD) {
+            symbolTable.define("this", className, VariableKind.ARGUMENT);
+        }
+
+        for (ParameterNode parameter : node.getParameters()) {
+            define(parameter, parameter.getType(), new String[]{parameter.getName()}, VariableKind.ARGUMENT);
+        }
+        for (VarDecNode varDec : node.getVarDecs()) {
+            define(varDec, varDec.getType(), varDec.getNames(), varDec.getKind());
+        }
+
+        if (node.getKind() == JackKeyword.CONSTRUCTOR && !node.getReturnType().equals(className)) {
+            error(node, "Constructor " + qualifiedName() + " must return " + className + ", not " + node.getReturnType());
+        } else if (!node.getReturnType().equals(VOID)) {
+            checkTypeName(node, node.getReturnType());
+        }
+
+        checkStatements(node.getStatements());
+
+        if (!alwaysReturns(node.getStatements())) {
+            error(node, qualifiedName() + " can reach its end without a return");
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitLet(LetStatement node) {
+        Variable variable = lookup(node, node.getVarName());
+
+        if (node.getIndex() != null) {
+            checkNumeric(node.getIndex(), INDEX);
+            value(node.getValue());
+        } else {
+            String type = value(node.getValue());
+            if (variable != null && !isAssignable(type, variable.getType())) {
+                error(node, "Cannot assign " + type + " to " + variable.getType() + " variable " + node.getVarName());
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitIf(IfStatement node) {
+        value(node.getCondition());
+        checkStatements(node.getThenStatements());
+
+        if (node.getElseStatements() != null) {
+            checkStatements(node.getElseStatements());
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitWhile(WhileStatement node) {
+        value(node.getCondition());
+        checkStatements(node.getStatements());
+
+        return null;
+    }
+
+    @Override
+    public String visitDo(DoStatement node) {
+        node.getCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public String visitReturn(ReturnStatement node) {
+        String returnType = subroutine.getReturnType();
+
+        if (node.getValue() == null) {
+            if (!returnType.equals(VOID) && subroutine.getKind() != JackKeyword.CONSTRUCTOR) {
+                error(node, qualifiedName() + " must return " + returnType);
+            }
+            return null;
+        }
+
+        String type = value(node.getValue());
+        if (returnType.equals(VOID)) {
+            error(node, "Void subroutine " + qualifiedName() + " cannot return a value");
+        } else if (!isAssignable(type, returnType)) {
+            error(node, qualifiedName() + " must return " + returnType + ", not " + type);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitBinary(BinaryExpression node) {
+        char operator = node.getOperator();
+
+        if (operator == '=') {
+            value(node.getLeft());
+            value(node.getRight());
+            return BOOLEAN;
+        }
+
+        String left = checkNumeric(node.getLeft(), operator);
+        String right = checkNumeric(node.getRight(), operator);
+
+        switch (operator) {
+            case '<':
+            case '>':
+                return BOOLEAN;
+            case '&':
+            case '|':
+                return BOOLEAN.equals(left) && BOOLEAN.equals(right) ? BOOLEAN : INT;
+            default:
+                return INT;
+        }
+    }
+
+    @Override
+    public String visitUnary(UnaryExpression node) {
+        String operand = checkNumeric(node.getOperand(), node.getOperator());
+
+        return node.getOperator() == '~' && BOOLEAN.equals(operand) ? BOOLEAN : INT;
+    }
+
+    @Override
+    public String visitIntegerConstant(IntegerConstant node) {
+        return INT;
+    }
+
+    @Override
+    public String visitStringConstant(StringConstant node) {
+        return STRING;
+    }
+
+    @Override
+    public String visitKeywordConstant(KeywordConstant node) {
+        switch (node.getKeyword()) {
+            case TRUE:
+            case FALSE:
+                return BOOLEAN;
+            case NULL:
+                return NULL;
+            default:
+                if (subroutine.getKind() == JackKeyword.FUNCTION) {
+                    error(node, "'this' cannot be used in function " + qualifiedName());
+                }
+                return className;
+        }
+    }
+
+    @Override
+    public String visitVariableReference(VariableReference node) {
+        Variable variable = lookup(node, node.getName());
+
+        return variable != null ? variable.getType() : null;
+    }
+
+    @Override
+    public String visitArrayAccess(ArrayAccess node) {
+        lookup(node, node.getName());
+        checkNumeric(node.getIndex(), INDEX);
+
+        // array elements are untyped
+        return null;
+    }
+
+    @Override
+    public String visitSubroutineCall(SubroutineCall node) {
+        String receiver = node.getReceiver();
+        Variable variable = receiver != null ? symbolTable.lookup(receiver) : null;
+        String owner = receiver == null ? className : variable != null ? variable.getType() : receiver;
+
+        if (variable != null) {
+            checkFieldAccess(node, variable);
+        }
+
+        SubroutineSignature callee = resolve(node, owner, variable);
+        ExpressionNode[] arguments = node.getArguments();
+
+        if (callee == null) {
+            for (ExpressionNode argument : arguments) {
+                value(argument);
+            }
+            return null;
+        }
+
+        if (callee.getParameterCount() != arguments.length) {
+            error(node, callee.getQualifiedName() + " takes " + callee.getParameterCount() + " argument(s), got " + arguments.length);
+        }
+
+        String[] parameterTypes = callee.getParameterTypes();
+        for (int i = 0; i < arguments.length; i++) {
+            String type = value(arguments[i]);
+            if (i < parameterTypes.length && !isAssignable(type, parameterTypes[i])) {
+                error(arguments[i], "Argument " + (i + 1) + " of " + callee.getQualifiedName() + " must be " + parameterTypes[i] + ", not " + type);
+            }
+        }
+
+        return callee.getReturnType();
+    }
+
+    // null (after reporting why) when the call cannot be resolved
+    private SubroutineSignature resolve(SubroutineCall node, String owner, Variable variable) {
+        if (isPrimitive(owner)) {
+            error(node, "Cannot call " + callName(node) + "(): " + node.getReceiver() + " is " + owner);
+            return null;
+        }
+
+        SubroutineSignature callee = programIndex.lookup(owner, node.getName());
+        if (callee == null) {
+            String reason = programIndex.hasClass(owner) ? "no subroutine " + node.getName() + " in class " + owner
+                    : node.getReceiver() == null || variable != null ? "unknown class " + owner
+                    : "unknown class or variable " + node.getReceiver();
+            error(node, "Cannot call " + callName(node) + "(): " + reason);
+            return null;
+        }
+
+        if (callee.isMethod()) {
+            if (node.getReceiver() == null && subroutine.getKind() == JackKeyword.FUNCTION) {
+                error(node, "Method " + callee.getQualifiedName() + " called from function " + qualifiedName() + " without an object");
+            } else if (node.getReceiver() != null && variable == null) {
+                error(node, "Method " + callee.getQualifiedName() + " called without an object");
+            }
+        } else if (variable != null) {
+            error(node, callee.getKind().getLexeme() + " " + callee.getQualifiedName() + " called on object " + node.getReceiver());
+        }
+
+        return callee;
+    }
+
+    private static String callName(SubroutineCall node) {
+        return (node.getReceiver() != null ? node.getReceiver() + "." : "") + node.getName();
+    }
+
+    private void checkStatements(StatementNode[] statements) {
+        for (StatementNode statement : statements) {
+            statement.accept(this);
+        }
+    }
+
+    // the type of an expression used as a value, which a void call does not have
+    private String value(ExpressionNode expression) {
+        String type = expression.accept(this);
+        if (VOID.equals(type)) {
+            error(expression, "A void subroutine call has no value");
+            return null;
+        }
+
+        return type;
+    }
+
+    // operator is the arithmetic or logical operator the value is an operand of, or INDEX
+    private String checkNumeric(ExpressionNode expression, char operator) {
+        String type = value(expression);
+        if (type != null && !isPrimitive(type) && !type.equals(ARRAY) && !type.equals(NULL)) {
+            String role = operator == INDEX ? "Array index" : "Operand of '" + operator + "'";
+            error(expression, role + " must be a number, not " + type);
+        }
+
+        return type;
+    }
+
+    private boolean isAssignable(String type, String target) {
+        if (type == null || target == null || type.equals(target) || type.equals(NULL)) {
+            return true;
+        }
+        if (type.equals(ARRAY) || target.equals(ARRAY)) {
+            return true;
+        }
+
+        return isPrimitive(type) && isPrimitive(target);
+    }
+
+    private static boolean isPrimitive(String type) {
+        return type.equals(INT) || type.equals(CHAR) || type.equals(BOOLEAN);
+    }
+
+    // a subroutine must end in a return on every path; "while (true)" never falls through
+    private static boolean alwaysReturns(StatementNode[] statements) {
+        if (statements.length == 0) {
+            return false;
+        }
+
+        StatementNode last = statements[statements.length - 1];
+        if (last instanceof ReturnStatement) {
+            return true;
+        }
+        if (last instanceof IfStatement) {
+            IfStatement ifStatement = (IfStatement) last;
+            return ifStatement.getElseStatements() != null
+                    && alwaysReturns(ifStatement.getThenStatements()) && alwaysReturns(ifStatement.getElseStatements());
+        }
+        if (last instanceof WhileStatement) {
+            ExpressionNode condition = ((WhileStatement) last).getCondition();
+            return condition instanceof KeywordConstant && ((KeywordConstant) condition).getKeyword() == JackKeyword.TRUE;
+        }
+
+        return false;
+    }
+
+    private Variable lookup(Node node, String name) {
+        Variable variable = symbolTable.lookup(name);
+        if (variable == null) {
+            error(node, "Undefined variable '" + name + "' in " + qualifiedName());
+            return null;
+        }
+
+        checkFieldAccess(node, variable);
+        return variable;
+    }
+
+    private void checkFieldAccess(Node node, Variable variable) {
+        if (variable.getKind() == VariableKind.FIELD && subroutine.getKind() == JackKeyword.FUNCTION) {
+            error(node, "Field " + variable.getName() + " cannot be used in function " + qualifiedName());
+        }
+    }
+
+    private void define(Positioned owner, String type, String[] names, VariableKind kind) {
+        checkTypeName(owner, type);
+
+        for (String name : names) {
+            if (symbolTable.isDefined(name, kind.getScope())) {
+                String scope = kind.getScope() == VariableScope.CLASS ? "class " + className : qualifiedName();
+                error(owner, "Variable " + name + " is declared twice in " + scope);
+            }
+            symbolTable.define(name, type, kind);
+        }
+    }
+
+    private void checkTypeName(Positioned owner, String type) {
+        if (!isPrimitive(type) && !programIndex.hasClass(type)) {
+            error(owner, "Unknown type " + type);
+        }
+    }
+
+    private String qualifiedName() {
+        return className + "." + subroutine.getName();
+    }
+
+    private void error(Positioned node, String message) {
+        diagnostics.add(new Diagnostic(node.getLine(), node.getColumn(), message));
+    }
+}
@@ -0,0 +1,54 @@
+package me.bilousov.compiler;
+
+import java.io.File;
+import java.io.PrintStream;
+
+public class AssemblyReport {
+
+    private final File assemblyFile;
+    private final int instructionCount;
+    private final int translatedInProcess;
+    private final int readFromDisk;
+    private final long nanos;
+    private final String problem;
+
+    AssemblyReport(File assemblyFile, int instructionCount, int translatedInProcess, int readFromDisk, long nanos) {
+        this.assemblyFile = assemblyFile;
+        this.instructionCount = instructionCount;
+        this.translatedInProcess = translatedInProcess;
+        this.readFromDisk = readFromDisk;
+        this.nanos = nanos;
+        this.problem = null;
+    }
+
+    AssemblyReport(File assemblyFile, String problem) {
+        this.assemblyFile = assemblyFile;
+        this.instructionCount = 0;
+        this.translatedInProcess = 0;
+        this.readFromDisk = 0;
+        this.nanos = 0;
+        this.problem = problem;
+    }
+
+    public boolean isSuccess() {
+        return problem == null;
+    }
+
+    public File getAssemblyFile() {
+        return assemblyFile;
+    }
+
+    public int getInstructionCount() {
+        return instructionCount;
+    }
+
+    public void printSummary(PrintStream out, PrintStream err) {
+        if (problem != null) {
+            err.println("Assembly: " + assemblyFile.getPath() + " not written: " + problem);
+            return;
+        }
+
+        out.printf("Assembly: %s, %d Hack instructions (%d classes translated in process, %d VM files read from disk, linked in %.1f ms)%n",
+                assemblyFile.getPath(), instructionCount, translatedInProcess, readFromDisk, nanos / 1e6);
+    }
+}
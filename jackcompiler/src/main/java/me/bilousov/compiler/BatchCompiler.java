@@ -0,0 +1,672 @@
+package me.bilousov.compiler;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.backend.HackAssemblyWriter;
+import me.bilousov.backend.HackProgramLinker;
+import me.bilousov.backend.VMCodeGenerator;
+import me.bilousov.backend.XMLTreeGenerator;
+import me.bilousov.checker.SemanticChecker;
+import me.bilousov.optimizer.InlineReport;
+import me.bilousov.optimizer.Inliner;
+import me.bilousov.optimizer.OptimizingVMWriter;
+import me.bilousov.optimizer.PeepholeOptimizer;
+import me.bilousov.parser.JackParser;
+import me.bilousov.program.CallGraph;
+import me.bilousov.program.ProgramIndex;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.tokenizer.SourceReader;
+import me.bilousov.util.CompilationException;
+import me.bilousov.util.Diagnostic;
+import me.bilousov.vm.VMBinaryFormat;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.writer.BinaryVMWriter;
+import me.bilousov.writer.CountingVMWriter;
+import me.bilousov.writer.FileChannelVMWriter;
+import me.bilousov.writer.FunctionFilterVMWriter;
+import me.bilousov.writer.InstructionListWriter;
+import me.bilousov.writer.TeeVMWriter;
+import me.bilousov.writer.VMWriter;
+import me.bilousov.writer.XMLTreeWriter;
+import me.bilousov.writer.XMLWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class BatchCompiler {
+
+    private static final String INPUT_FILE_EXTENSION = ".jack";
+    private static final String MAIN_FUNCTION = "Main.main";
+
+    // the Jack OS Sys.init calls these before Main.main, so a program without its own Sys.init keeps them
+    private static final List<String> OS_INIT_FUNCTIONS = List.of("Memory.init", "Math.init", "Screen.init", "Output.init", "Keyboard.init");
+
+    private final CompilerOptions options;
+    private final int workers;
+    private final BuildCache buildCache;
+    private final Set<CompileMode> modes;
+    private final LongAdder instructionsBeforeOptimization;
+    private final LongAdder instructionsAfterOptimization;
+
+    private CompilerListener listener;
+    private ProgramIndex programIndex;
+    private Map<File, ClassNode> parsedClasses;
+    private Map<File, String> contentHashes;
+    private Map<File, FileStats> programStats;
+    private Map<File, List<Diagnostic>> semanticErrors;
+    private Map<File, List<VMInstruction>> generatedCode;
+    private Set<String> liveFunctions;
+    private DeadCodeReport deadCodeReport;
+    private InlineReport inlineReport;
+    private Map<File, HackAssemblyWriter> assembledClasses;
+    private AssemblyReport assemblyReport;
+    private String cacheKey;
+
+    public BatchCompiler(int workers) {
+        this(optionsWithWorkers(workers), null);
+    }
+
+    public BatchCompiler(CompilerOptions options, BuildCache buildCache) {
+        this.options = options;
+        this.workers = options.getWorkers();
+        this.buildCache = buildCache;
+        this.modes = options.getModes();
+        this.instructionsBeforeOptimization = new LongAdder();
+        this.instructionsAfterOptimization = new LongAdder();
+        this.cacheKey = options.getCacheKey();
+    }
+
+    private static CompilerOptions optionsWithWorkers(int workers) {
+        CompilerOptions options = new CompilerOptions();
+        options.setWorkers(workers);
+
+        return options;
+    }
+
+    public void setListener(CompilerListener listener) {
+        this.listener = listener;
+    }
+
+    public static List<File> findJackFiles(File jackFileOrDir) {
+        if (!jackFileOrDir.isDirectory()) {
+            return List.of(jackFileOrDir);
+        }
+
+        File[] files = jackFileOrDir.listFiles((dir, name) -> name.endsWith(INPUT_FILE_EXTENSION));
+        if (files == null) {
+            return List.of();
+        }
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        return Arrays.asList(files);
+    }
+
+    // in whole-program mode jackFiles must be the complete program: every class is parsed and indexed
+    // first, then checked against that index, and only classes without errors are compiled
+    public List<CompileResult> compile(List<File> jackFiles) {
+        if (options.isWholeProgram()) {
+            // the passes over the whole program time each file into these, and the compile pass reports them
+            programStats = listener != null ? new ConcurrentHashMap<>() : null;
+            indexProgram(jackFiles);
+            checkProgram(jackFiles);
+
+            if (options.isCheckOnly()) {
+                try {
+                    return runAll(jackFiles, this::checkFile);
+                } finally {
+                    parsedClasses = null;
+                    contentHashes = null;
+                    semanticErrors = null;
+                    programStats = null;
+                }
+            }
+
+            // inlining and pruning both work on the generated code of the whole program, which the
+            // compile pass then replays instead of generating each class again
+            if (options.getInlineThreshold() > 0 || options.isPruneUnreachable()) {
+                generateProgram(jackFiles);
+            }
+            if (options.getInlineThreshold() > 0) {
+                inlineCalls(jackFiles);
+            }
+            if (options.isPruneUnreachable()) {
+                findLiveFunctions();
+            }
+        }
+
+        assembledClasses = options.isAssemble() ? new ConcurrentHashMap<>() : null;
+        try {
+            List<CompileResult> results = runAll(jackFiles, this::compileFile);
+            if (options.isAssemble() && !jackFiles.isEmpty()) {
+                assemblyReport = linkProgram(jackFiles.get(0).getAbsoluteFile().getParentFile(), results);
+            }
+
+            return results;
+        } finally {
+            parsedClasses = null;
+            contentHashes = null;
+            semanticErrors = null;
+            generatedCode = null;
+            programStats = null;
+            assembledClasses = null;
+        }
+    }
+
+    // links every .vm or .vmb file in the directory into <directory>.asm: classes compiled in this run come
+    // straight from their in-process translation, anything else (the Jack OS, cached classes) is read back,
+    // from .vmb when a class has both
+    private AssemblyReport linkProgram(File directory, List<CompileResult> results) {
+        File assemblyFile = new File(directory, directory.getName() + HackProgramLinker.OUTPUT_FILE_EXTENSION);
+        for (CompileResult result : results) {
+            if (!result.isSuccess()) {
+                return new AssemblyReport(assemblyFile, "some classes failed to compile");
+            }
+        }
+
+        Map<String, HackAssemblyWriter> translated = new HashMap<>();
+        for (Map.Entry<File, HackAssemblyWriter> assembled : assembledClasses.entrySet()) {
+            translated.put(className(assembled.getKey()), assembled.getValue());
+        }
+
+        long start = System.nanoTime();
+        HackProgramLinker linker = new HackProgramLinker(true);
+        int readFromDisk = 0;
+
+        try {
+            File[] vmFiles = directory.listFiles((dir, name) -> name.endsWith(CompileMode.VM.getOutputExtension())
+                    || name.endsWith(CompileMode.VMB.getOutputExtension()));
+            Map<String, File> onDisk = new TreeMap<>();
+            for (File vmFile : vmFiles) {
+                onDisk.merge(className(vmFile), vmFile, (first, second) -> VMBinaryFormat.isBinary(first) ? first : second);
+            }
+
+            for (Map.Entry<String, File> vmFile : onDisk.entrySet()) {
+                HackAssemblyWriter part = translated.get(vmFile.getKey());
+                if (part != null) {
+                    linker.add(part);
+                } else {
+                    linker.translate(vmFile.getValue());
+                    readFromDisk++;
+                }
+            }
+
+            if (!linker.definesEntryPoint()) {
+                // a copy left from an earlier link would no longer match the program
+                Files.deleteIfExists(assemblyFile.toPath());
+                return new AssemblyReport(assemblyFile, "no " + HackProgramLinker.ENTRY_POINT
+                        + " in the program; add the Jack OS .vm files next to the sources");
+            }
+
+            int instructions = linker.write(assemblyFile);
+            return new AssemblyReport(assemblyFile, instructions, translated.size(), readFromDisk, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            return new AssemblyReport(assemblyFile, e.toString());
+        }
+    }
+
+    private static String className(File file) {
+        String name = file.getName();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    private void indexProgram(List<File> jackFiles) {
+        ProgramIndex index = ProgramIndex.withJackOS();
+        Map<File, ClassNode> parsed = new ConcurrentHashMap<>();
+        Map<File, String> hashes = new ConcurrentHashMap<>();
+
+        runAll(jackFiles, file -> {
+            FileStats stats = statsFor(file);
+            try {
+                long start = startPhase(stats);
+                ByteBuffer content = SourceReader.read(file);
+                endPhase(stats, CompilePhase.READ, start);
+
+                start = startPhase(stats);
+                JackTokenizer tokenizer = new JackTokenizer(file, content);
+                endPhase(stats, CompilePhase.TOKENIZE, start);
+                if (stats != null) {
+                    stats.setTokens(tokenizer.tokenCount());
+                }
+
+                start = startPhase(stats);
+                ClassNode classNode = new JackParser(tokenizer).parseClass();
+                endPhase(stats, CompilePhase.PARSE, start);
+                index.add(classNode);
+                parsed.put(file, classNode);
+                if (buildCache != null) {
+                    hashes.put(file, BuildCache.hash(content, ""));
+                }
+            } catch (IOException | RuntimeException | StackOverflowError e) {
+                // the compile pass parses the file again and reports the error against it
+            }
+            return null;
+        });
+
+        programIndex = index;
+        parsedClasses = parsed;
+        contentHashes = hashes;
+        cacheKey = options.getCacheKey() + ",program=" + BuildCache.hash(index.fingerprint().getBytes(StandardCharsets.UTF_8), "");
+    }
+
+    // one checker per class, so classes are checked in parallel against the shared, read-only index
+    private void checkProgram(List<File> jackFiles) {
+        Map<File, List<Diagnostic>> errors = new ConcurrentHashMap<>();
+
+        runAll(jackFiles, file -> {
+            ClassNode classNode = parsedClasses.get(file);
+            if (classNode != null) {
+                FileStats stats = statsFor(file);
+                long start = startPhase(stats);
+                List<Diagnostic> found = new SemanticChecker(programIndex).check(classNode);
+                endPhase(stats, CompilePhase.CHECK, start);
+                if (!found.isEmpty()) {
+                    errors.put(file, found);
+                }
+            }
+            return null;
+        });
+
+        semanticErrors = errors;
+    }
+
+    private CompileResult checkFile(File jackFile) {
+        FileStats stats = statsFor(jackFile);
+        return reportStats(stats, checkFile(jackFile, stats));
+    }
+
+    private CompileResult checkFile(File jackFile, FileStats stats) {
+        if (!parsedClasses.containsKey(jackFile)) {
+            // indexing skipped the file because it does not parse; parse it again for the syntax errors
+            try {
+                long start = startPhase(stats);
+                new JackParser(new JackTokenizer(jackFile)).parseClass();
+                endPhase(stats, CompilePhase.PARSE, start);
+            } catch (IOException | RuntimeException e) {
+                return CompileResult.failure(jackFile, e);
+            } catch (StackOverflowError e) {
+                return CompileResult.failure(jackFile, new IllegalStateException("Nesting is too deep to compile", e));
+            }
+        }
+
+        List<Diagnostic> errors = semanticErrors.get(jackFile);
+        return errors != null ? CompileResult.failure(jackFile, new CompilationException(errors)) : CompileResult.success(jackFile);
+    }
+
+    private void generateProgram(List<File> jackFiles) {
+        Map<File, List<VMInstruction>> generated = new ConcurrentHashMap<>();
+
+        runAll(jackFiles, file -> {
+            ClassNode classNode = parsedClasses.get(file);
+            if (classNode == null) {
+                return null;
+            }
+
+            FileStats stats = statsFor(file);
+            InstructionListWriter instructions = new InstructionListWriter();
+            try {
+                long start = startPhase(stats);
+                newCodeGenerator(instructions).generate(classNode);
+                endPhase(stats, CompilePhase.GENERATE, start);
+            } catch (RuntimeException | StackOverflowError e) {
+                // the compile pass generates the class again and reports the error against it
+                return null;
+            }
+
+            generated.put(file, instructions.getInstructions());
+            return null;
+        });
+
+        generatedCode = generated;
+    }
+
+    private void inlineCalls(List<File> jackFiles) {
+        Inliner inliner = new Inliner(options.getInlineThreshold());
+        for (List<VMInstruction> classCode : generatedCode.values()) {
+            inliner.addCandidates(classCode);
+        }
+
+        runAll(jackFiles, file -> {
+            List<VMInstruction> classCode = generatedCode.get(file);
+            if (classCode != null) {
+                FileStats stats = statsFor(file);
+                long start = startPhase(stats);
+                generatedCode.put(file, inliner.inline(classCode));
+                endPhase(stats, CompilePhase.GENERATE, start);
+            }
+            return null;
+        });
+
+        inlineReport = inliner.getReport();
+        cacheKey += ",inlined=" + BuildCache.hash(inliner.fingerprint().getBytes(StandardCharsets.UTF_8), "");
+    }
+
+    // walks the calls in the generated code from the program's own Sys.init, which the bootstrap calls, or
+    // from Main.main when the Jack OS provides Sys.init; the compile pass drops each function the walk never reached
+    private void findLiveFunctions() {
+        CallGraph callGraph = new CallGraph();
+        for (List<VMInstruction> classCode : generatedCode.values()) {
+            callGraph.addFunctions(classCode);
+        }
+
+        String entryPoint = callGraph.contains(HackProgramLinker.ENTRY_POINT) ? HackProgramLinker.ENTRY_POINT : MAIN_FUNCTION;
+        List<String> roots = new ArrayList<>();
+        roots.add(entryPoint);
+        if (entryPoint.equals(MAIN_FUNCTION)) {
+            roots.addAll(OS_INIT_FUNCTIONS);
+        }
+
+        Set<String> live = callGraph.reachableFrom(roots);
+        deadCodeReport = new DeadCodeReport(entryPoint, callGraph, live);
+        if (!deadCodeReport.isEntryPointFound()) {
+            liveFunctions = null;
+            return;
+        }
+
+        liveFunctions = live;
+        cacheKey += ",live=" + BuildCache.hash(String.join(";", new TreeSet<>(live)).getBytes(StandardCharsets.UTF_8), "");
+    }
+
+    private <T> List<T> runAll(List<File> jackFiles, Function<File, T> task) {
+        if (workers == 1 || jackFiles.size() < 2) {
+            List<T> results = new ArrayList<>();
+            for (File file : jackFiles) {
+                results.add(task.apply(file));
+            }
+
+            return results;
+        }
+
+        List<Callable<T>> tasks = new ArrayList<>();
+        for (File file : jackFiles) {
+            tasks.add(() -> task.apply(file));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(workers, jackFiles.size()));
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Compilation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Compilation worker failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public boolean isWholeProgram() {
+        return options.isWholeProgram();
+    }
+
+    // null unless the last compile ran with pruning in whole-program mode
+    public DeadCodeReport getDeadCodeReport() {
+        return deadCodeReport;
+    }
+
+    // null unless the last compile linked a Hack program
+    public AssemblyReport getAssemblyReport() {
+        return assemblyReport;
+    }
+
+    // null unless the last compile ran with inlining in whole-program mode
+    public InlineReport getInlineReport() {
+        return inlineReport;
+    }
+
+    public CompileResult compileFile(File jackFile) {
+        FileStats stats = statsFor(jackFile);
+        return reportStats(stats, compileFile(jackFile, stats));
+    }
+
+    // null without a listener; in whole-program mode the stats already hold the time of the earlier passes
+    private FileStats statsFor(File jackFile) {
+        if (listener == null) {
+            return null;
+        }
+
+        return programStats != null ? programStats.computeIfAbsent(jackFile, FileStats::new) : new FileStats(jackFile);
+    }
+
+    private CompileResult reportStats(FileStats stats, CompileResult result) {
+        if (stats != null) {
+            stats.setSuccess(result.isSuccess());
+            stats.setCached(result.isCached());
+            listener.fileCompiled(stats);
+        }
+
+        return result;
+    }
+
+    public void removeOutputs(File jackFile) throws IOException {
+        for (CompileMode mode : modes) {
+            Files.deleteIfExists(XMLWriter.getOutputFile(jackFile, mode.getOutputExtension()).toPath());
+        }
+
+        if (buildCache != null) {
+            buildCache.forget(jackFile);
+        }
+    }
+
+    private CompileResult compileFile(File jackFile, FileStats stats) {
+        List<File> outputFiles = new ArrayList<>();
+        for (CompileMode mode : modes) {
+            outputFiles.add(XMLWriter.getOutputFile(jackFile, mode.getOutputExtension()));
+        }
+
+        try {
+            // in whole-program mode the index pass has already read, tokenized and parsed the class; only the
+            // token XML needs the tokens again
+            ClassNode indexedClass = parsedClasses != null && !modes.contains(CompileMode.TOKENS) ? parsedClasses.get(jackFile) : null;
+            ByteBuffer content = null;
+            if (indexedClass == null) {
+                long start = startPhase(stats);
+                content = SourceReader.read(jackFile);
+                endPhase(stats, CompilePhase.READ, start);
+            }
+            String sourceHash = null;
+
+            if (buildCache != null) {
+                sourceHash = indexedClass != null
+                        ? BuildCache.hash(contentHashes.get(jackFile).getBytes(StandardCharsets.UTF_8), cacheKey)
+                        : BuildCache.hash(content, cacheKey);
+                if (buildCache.isUpToDate(jackFile, sourceHash, outputFiles)) {
+                    return CompileResult.cached(jackFile);
+                }
+                buildCache.forget(jackFile);
+            }
+
+            try {
+                if (indexedClass != null) {
+                    compileClass(jackFile, indexedClass, stats);
+                } else {
+                    compileContent(jackFile, content, stats);
+                }
+            } catch (IOException | RuntimeException | StackOverflowError e) {
+                for (File outputFile : outputFiles) {
+                    Files.deleteIfExists(outputFile.toPath());
+                }
+                throw e;
+            }
+
+            if (buildCache != null) {
+                buildCache.record(jackFile, sourceHash);
+            }
+
+            if (stats != null) {
+                long bytesWritten = 0;
+                for (File outputFile : outputFiles) {
+                    bytesWritten += outputFile.length();
+                }
+                stats.setBytesWritten(bytesWritten);
+            }
+
+            return CompileResult.success(jackFile);
+        } catch (IOException | RuntimeException e) {
+            return CompileResult.failure(jackFile, e);
+        } catch (StackOverflowError e) {
+            return CompileResult.failure(jackFile, new IllegalStateException("Nesting is too deep to compile", e));
+        }
+    }
+
+    private void compileContent(File jackFile, ByteBuffer content, FileStats stats) throws IOException {
+        long start = startPhase(stats);
+        JackTokenizer tokenizer = new JackTokenizer(jackFile, content);
+        endPhase(stats, CompilePhase.TOKENIZE, start);
+
+        if (stats != null) {
+            stats.setTokens(tokenizer.tokenCount());
+        }
+
+        if (modes.contains(CompileMode.TOKENS)) {
+            start = startPhase(stats);
+            XMLWriter.writeXMLForTokenizer(tokenizer, jackFile);
+            tokenizer.reset();
+            endPhase(stats, CompilePhase.TOKENS_XML, start);
+        }
+
+        boolean writesVM = modes.contains(CompileMode.VM) || modes.contains(CompileMode.VMB);
+        List<VMInstruction> generated = writesVM && generatedCode != null ? generatedCode.get(jackFile) : null;
+        ClassNode classNode = parsedClasses != null ? parsedClasses.get(jackFile) : null;
+
+        if (classNode == null && (modes.contains(CompileMode.XML) || writesVM && generated == null)) {
+            start = startPhase(stats);
+            classNode = new JackParser(tokenizer).parseClass();
+            tokenizer.reset();
+            endPhase(stats, CompilePhase.PARSE, start);
+        } else if (!tokenizer.getDiagnostics().isEmpty()) {
+            throw new CompilationException(tokenizer.getDiagnostics());
+        }
+
+        compileClass(jackFile, classNode, stats);
+    }
+
+    // classNode is null when only the replayed whole-program code is needed
+    private void compileClass(File jackFile, ClassNode classNode, FileStats stats) throws IOException {
+        List<Diagnostic> semanticProblems = semanticErrors != null ? semanticErrors.get(jackFile) : null;
+        if (semanticProblems != null) {
+            throw new CompilationException(semanticProblems);
+        }
+
+        if (modes.contains(CompileMode.VM) || modes.contains(CompileMode.VMB)) {
+            generateVM(jackFile, classNode, generatedCode != null ? generatedCode.get(jackFile) : null, stats);
+        }
+
+        if (modes.contains(CompileMode.XML)) {
+            long start = startPhase(stats);
+            try (XMLTreeWriter xmlWriter = new XMLTreeWriter(XMLWriter.getOutputFile(jackFile, CompileMode.XML.getOutputExtension()))) {
+                new XMLTreeGenerator(xmlWriter).generate(classNode);
+            }
+            endPhase(stats, CompilePhase.PARSE_TREE_XML, start);
+        }
+    }
+
+    private void generateVM(File jackFile, ClassNode classNode, List<VMInstruction> generated, FileStats stats) throws IOException {
+        long start = startPhase(stats);
+        PeepholeOptimizer optimizer = options.getOptimizationLevel() > 0 ? new PeepholeOptimizer(options.getOptimizationLevel()) : null;
+        VMWriter outputWriter = newOutputWriter(jackFile);
+        if (assembledClasses != null) {
+            HackAssemblyWriter assemblyWriter = new HackAssemblyWriter(className(jackFile), true);
+            assembledClasses.put(jackFile, assemblyWriter);
+            outputWriter = new TeeVMWriter(outputWriter, assemblyWriter);
+        }
+        CountingVMWriter counter = stats != null ? new CountingVMWriter(outputWriter) : null;
+        if (counter != null) {
+            outputWriter = counter;
+        }
+
+        VMWriter vmWriter = optimizer != null ? new OptimizingVMWriter(outputWriter, optimizer) : outputWriter;
+        if (liveFunctions != null) {
+            vmWriter = new FunctionFilterVMWriter(vmWriter, liveFunctions);
+        }
+
+        try (VMWriter writer = vmWriter) {
+            if (generated != null) {
+                for (VMInstruction instruction : generated) {
+                    instruction.writeTo(writer);
+                }
+            } else {
+                newCodeGenerator(writer).generate(classNode);
+            }
+        }
+        endPhase(stats, CompilePhase.GENERATE, start);
+
+        if (counter != null) {
+            stats.setVmInstructions(counter.getInstructionCount());
+            stats.setSubroutineInstructions(counter.getFunctionInstructions());
+        }
+
+        if (optimizer != null) {
+            instructionsBeforeOptimization.add(optimizer.getInstructionsBefore());
+            instructionsAfterOptimization.add(optimizer.getInstructionsAfter());
+        }
+    }
+
+    // .vm text, .vmb binary, or both from the same command stream
+    private VMWriter newOutputWriter(File jackFile) throws IOException {
+        VMWriter textWriter = modes.contains(CompileMode.VM)
+                ? new FileChannelVMWriter(XMLWriter.getOutputFile(jackFile, CompileMode.VM.getOutputExtension())) : null;
+        if (!modes.contains(CompileMode.VMB)) {
+            return textWriter;
+        }
+
+        VMWriter binaryWriter;
+        try {
+            binaryWriter = new BinaryVMWriter(XMLWriter.getOutputFile(jackFile, CompileMode.VMB.getOutputExtension()));
+        } catch (IOException e) {
+            if (textWriter != null) {
+                textWriter.close();
+            }
+            throw e;
+        }
+
+        return textWriter != null ? new TeeVMWriter(textWriter, binaryWriter) : binaryWriter;
+    }
+
+    private VMCodeGenerator newCodeGenerator(VMWriter vmWriter) {
+        VMCodeGenerator generator = new VMCodeGenerator(vmWriter, programIndex);
+        generator.setInternStrings(options.isInternStrings());
+
+        return generator;
+    }
+
+    private static long startPhase(FileStats stats) {
+        return stats != null ? System.nanoTime() : 0;
+    }
+
+    private static void endPhase(FileStats stats, CompilePhase phase, long start) {
+        if (stats != null) {
+            stats.addPhaseNanos(phase, System.nanoTime() - start);
+        }
+    }
+
+    public long getInstructionsBeforeOptimization() {
+        return instructionsBeforeOptimization.sum();
+    }
+
+    public long getInstructionsAfterOptimization() {
+        return instructionsAfterOptimization.sum();
+    }
+}
@@ -0,0 +1,204 @@
+package me.bilousov.compiler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class BuildCache {
+
+    public static final String INDEX_FILE_NAME = ".jackcache";
+
+    private static final String VERSION_PREFIX = "version ";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Path indexFile;
+    private final Map<String, String> sourceHashes;
+    private final AtomicInteger hits;
+    private final AtomicInteger misses;
+
+    private BuildCache(Path indexFile) {
+        this.indexFile = indexFile;
+        this.sourceHashes = new ConcurrentHashMap<>();
+        this.hits = new AtomicInteger();
+        this.misses = new AtomicInteger();
+    }
+
+    public static BuildCache load(File outputDir) throws IOException {
+        BuildCache cache = new BuildCache(outputDir.toPath().resolve(INDEX_FILE_NAME));
+        if (!Files.exists(cache.indexFile)) {
+            return cache;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(cache.indexFile, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(VERSION_PREFIX + compilerVersion())) {
+                return cache;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    cache.sourceHashes.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        }
+
+        return cache;
+    }
+
+    public static void invalidate(File outputDir) throws IOException {
+        Files.deleteIfExists(outputDir.toPath().resolve(INDEX_FILE_NAME));
+    }
+
+    public boolean isUpToDate(File sourceFile, String sourceHash, List<File> outputFiles) {
+        boolean upToDate = sourceHash.equals(sourceHashes.get(sourceFile.getName()))
+                && outputFiles.stream().allMatch(File::exists);
+        if (upToDate) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
+        return upToDate;
+    }
+
+    public void record(File sourceFile, String sourceHash) {
+        sourceHashes.put(sourceFile.getName(), sourceHash);
+    }
+
+    public void forget(File sourceFile) {
+        sourceHashes.remove(sourceFile.getName());
+    }
+
+    // drops entries for sources that are no longer there, so the index does not keep every file ever compiled
+    public void retainOnly(Collection<File> sourceFiles) {
+        Set<String> names = new HashSet<>();
+        for (File sourceFile : sourceFiles) {
+            names.add(sourceFile.getName());
+        }
+
+        sourceHashes.keySet().retainAll(names);
+    }
+
+    public void save() throws IOException {
+        Path tempFile = indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write(VERSION_PREFIX + compilerVersion());
+            writer.newLine();
+
+            for (Map.Entry<String, String> entry : new TreeMap<>(sourceHashes).entrySet()) {
+                writer.write(entry.getValue() + " " + entry.getKey());
+                writer.newLine();
+            }
+        }
+
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void resetCounters() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public static String hash(byte[] content, String options) {
+        return hash(ByteBuffer.wrap(content), options);
+    }
+
+    public static String hash(ByteBuffer content, String options) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(compilerVersion().getBytes(StandardCharsets.UTF_8));
+            digest.update(options.getBytes(StandardCharsets.UTF_8));
+            digest.update(content.duplicate());
+
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // identifies the build of the compiler itself, so a new build compiles again everything an older one cached
+    public static String compilerVersion() {
+        return CompilerBuild.VERSION;
+    }
+
+    private static String toHex(byte[] hashBytes) {
+        char[] hex = new char[hashBytes.length * 2];
+        for (int i = 0; i < hashBytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(hashBytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[hashBytes[i] & 0xF];
+        }
+
+        return new String(hex);
+    }
+
+    // hashed once, on first use: the compiler's jar, its class files when it runs from a classes directory,
+    // or the native executable; a build that cannot be identified gets a new version each run and never hits
+    private static final class CompilerBuild {
+
+        private static final String VERSION = identify();
+
+        private static String identify() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                Path location = codeLocation();
+
+                if (Files.isDirectory(location)) {
+                    List<Path> files;
+                    try (Stream<Path> walk = Files.walk(location)) {
+                        files = walk.filter(Files::isRegularFile).sorted().toList();
+                    }
+                    for (Path file : files) {
+                        digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(location));
+                }
+
+                return toHex(digest.digest());
+            } catch (IOException | URISyntaxException | RuntimeException | NoSuchAlgorithmException e) {
+                return "unidentified-" + UUID.randomUUID();
+            }
+        }
+
+        private static Path codeLocation() throws URISyntaxException {
+            CodeSource codeSource = BuildCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null && "file".equals(codeSource.getLocation().getProtocol())) {
+                return Path.of(codeSource.getLocation().toURI());
+            }
+
+            return Path.of(ProcessHandle.current().info().command().orElseThrow());
+        }
+    }
+}
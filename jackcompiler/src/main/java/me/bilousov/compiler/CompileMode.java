@@ -0,0 +1,15 @@
+package me.bilousov.compiler;
+
+public enum CompileMode {
+    VM(".vm"), VMB(".vmb"), XML(".xml"), TOKENS("T.xml");
+
+    private final String outputExtension;
+
+    public String getOutputExtension() {
+        return this.outputExtension;
+    }
+
+    CompileMode(String outputExtension) {
+        this.outputExtension = outputExtension;
+    }
+}
@@ -0,0 +1,21 @@
+package me.bilousov.compiler;
+
+public enum CompilePhase {
+    READ("read"),
+    TOKENIZE("tokenize"),
+    TOKENS_XML("tokens xml"),
+    PARSE_TREE_XML("tree xml"),
+    PARSE("parse"),
+    CHECK("check"),
+    GENERATE("generate");
+
+    private final String label;
+
+    CompilePhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,93 @@
+package me.bilousov.compiler;
+
+import me.bilousov.util.CompilationException;
+import me.bilousov.util.Diagnostic;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompileResult {
+
+    private final File sourceFile;
+    private final Exception error;
+    private final boolean cached;
+
+    private CompileResult(File sourceFile, Exception error, boolean cached) {
+        this.sourceFile = sourceFile;
+        this.error = error;
+        this.cached = cached;
+    }
+
+    public static CompileResult success(File sourceFile) {
+        return new CompileResult(sourceFile, null, false);
+    }
+
+    public static CompileResult cached(File sourceFile) {
+        return new CompileResult(sourceFile, null, true);
+    }
+
+    public static CompileResult failure(File sourceFile, Exception error) {
+        return new CompileResult(sourceFile, error, false);
+    }
+
+    public File getSourceFile() {
+        return sourceFile;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    // one line per problem, file:line:column: message where the position is known
+    public List<String> getErrorMessages() {
+        List<String> messages = new ArrayList<>();
+        if (error instanceof CompilationException) {
+            for (Diagnostic diagnostic : ((CompilationException) error).getDiagnostics()) {
+                messages.add(diagnostic.format(sourceFile));
+            }
+        } else if (error != null) {
+            messages.add(sourceFile.getPath() + ": " + error);
+        }
+
+        return messages;
+    }
+
+    // prints every error of every failed file, then a count; returns whether anything failed
+    public static boolean printErrors(List<CompileResult> results, PrintStream err) {
+        int errors = 0;
+        int failedFiles = 0;
+        for (CompileResult result : results) {
+            List<String> messages = result.getErrorMessages();
+            for (String message : messages) {
+                err.println(message);
+            }
+            errors += messages.size();
+            failedFiles += result.isSuccess() ? 0 : 1;
+        }
+
+        if (failedFiles > 0) {
+            err.println(errors + (errors == 1 ? " error" : " errors") + " in " + failedFiles + " of " + results.size() + " files");
+        }
+
+        return failedFiles > 0;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        if (!isSuccess()) {
+            return sourceFile.getPath() + ": " + error;
+        }
+
+        return sourceFile.getPath() + (cached ? ": up to date" : ": ok");
+    }
+}
@@ -0,0 +1,8 @@
+package me.bilousov.compiler;
+
+@FunctionalInterface
+public interface CompilerListener {
+
+    // called once per source file, from the worker thread that compiled it
+    void fileCompiled(FileStats stats);
+}
@@ -0,0 +1,98 @@
+package me.bilousov.compiler;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public class CompilerOptions {
+
+    private int workers = 1;
+    private Set<CompileMode> modes = EnumSet.of(CompileMode.VM);
+    private int optimizationLevel;
+    private boolean wholeProgram;
+    private boolean pruneUnreachable;
+    private int inlineThreshold;
+    private boolean internStrings;
+    private boolean assemble;
+    private boolean checkOnly;
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    public Set<CompileMode> getModes() {
+        return modes;
+    }
+
+    public void setModes(Set<CompileMode> modes) {
+        this.modes = EnumSet.copyOf(modes);
+    }
+
+    public int getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    public void setOptimizationLevel(int optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+
+    public boolean isWholeProgram() {
+        return wholeProgram;
+    }
+
+    public void setWholeProgram(boolean wholeProgram) {
+        this.wholeProgram = wholeProgram;
+    }
+
+    public boolean isPruneUnreachable() {
+        return pruneUnreachable;
+    }
+
+    // only takes effect in whole-program mode, where the whole call graph is known
+    public void setPruneUnreachable(boolean pruneUnreachable) {
+        this.pruneUnreachable = pruneUnreachable;
+    }
+
+    public int getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    // largest callee body, in VM instructions, that gets inlined; 0 turns inlining off. Only takes effect in whole-program mode
+    public void setInlineThreshold(int inlineThreshold) {
+        this.inlineThreshold = Math.max(0, inlineThreshold);
+    }
+
+    public boolean isInternStrings() {
+        return internStrings;
+    }
+
+    public void setInternStrings(boolean internStrings) {
+        this.internStrings = internStrings;
+    }
+
+    public boolean isAssemble() {
+        return assemble;
+    }
+
+    // also translates the program to one Hack .asm file; the .vm outputs are written as before
+    public void setAssemble(boolean assemble) {
+        this.assemble = assemble;
+    }
+
+    public boolean isCheckOnly() {
+        return checkOnly;
+    }
+
+    // runs the semantic checker and writes nothing; only takes effect in whole-program mode
+    public void setCheckOnly(boolean checkOnly) {
+        this.checkOnly = checkOnly;
+    }
+
+    public String getCacheKey() {
+        return "modes=" + modes + ",optimization=" + optimizationLevel + ",wholeProgram=" + wholeProgram
+                + ",prune=" + pruneUnreachable + ",inline=" + inlineThreshold + ",internStrings=" + internStrings;
+    }
+}
@@ -0,0 +1,161 @@
+package me.bilousov.compiler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class CompilerStats implements CompilerListener {
+
+    public static final String REPORT_FILE_NAME = "jack-stats.json";
+
+    private static final int LARGEST_SUBROUTINES_SHOWN = 10;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final ConcurrentLinkedQueue<FileStats> files;
+    private long wallNanos;
+
+    public CompilerStats() {
+        this.files = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void fileCompiled(FileStats stats) {
+        files.add(stats);
+    }
+
+    public List<FileStats> getFiles() {
+        List<FileStats> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing(stats -> stats.getSourceFile().getPath()));
+
+        return sorted;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    public void printTable(PrintStream out) {
+        List<FileStats> sorted = getFiles();
+        CompilePhase[] phases = CompilePhase.values();
+
+        out.printf("%-24s", "file");
+        for (CompilePhase phase : phases) {
+            out.printf(" %10s", phase.getLabel());
+        }
+        out.printf(" %10s %8s %9s %10s%n", "total ms", "tokens", "vm lines", "bytes");
+
+        long[] phaseTotals = new long[phases.length];
+        long tokens = 0;
+        long vmInstructions = 0;
+        long bytesWritten = 0;
+
+        for (FileStats stats : sorted) {
+            out.printf("%-24s", stats.getSourceFile().getName() + (stats.isCached() ? " (cached)" : stats.isSuccess() ? "" : " (failed)"));
+            for (CompilePhase phase : phases) {
+                out.printf(" %10.2f", millis(stats.getPhaseNanos(phase)));
+                phaseTotals[phase.ordinal()] += stats.getPhaseNanos(phase);
+            }
+            out.printf(" %10.2f %8d %9d %10d%n", millis(stats.getTotalNanos()), stats.getTokens(), stats.getVmInstructions(), stats.getBytesWritten());
+
+            tokens += stats.getTokens();
+            vmInstructions += stats.getVmInstructions();
+            bytesWritten += stats.getBytesWritten();
+        }
+
+        long total = 0;
+        out.printf("%-24s", "total (" + sorted.size() + " files)");
+        for (long phaseTotal : phaseTotals) {
+            out.printf(" %10.2f", millis(phaseTotal));
+            total += phaseTotal;
+        }
+        out.printf(" %10.2f %8d %9d %10d%n", millis(total), tokens, vmInstructions, bytesWritten);
+        out.printf("wall time: %.2f ms%n", millis(wallNanos));
+
+        List<Map.Entry<String, Integer>> subroutines = new ArrayList<>();
+        for (FileStats stats : sorted) {
+            subroutines.addAll(stats.getSubroutineInstructions().entrySet());
+        }
+
+        if (!subroutines.isEmpty()) {
+            subroutines.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            out.println("largest subroutines (vm instructions):");
+            for (Map.Entry<String, Integer> subroutine : subroutines.subList(0, Math.min(LARGEST_SUBROUTINES_SHOWN, subroutines.size()))) {
+                out.printf("  %-40s %8d%n", subroutine.getKey(), subroutine.getValue());
+            }
+        }
+    }
+
+    public void writeJson(File reportFile) throws IOException {
+        CompilePhase[] phases = CompilePhase.values();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{" + LINE_SEPARATOR);
+            writer.write("  \"wallNanos\": " + wallNanos + "," + LINE_SEPARATOR);
+            writer.write("  \"files\": [");
+
+            String fileSeparator = LINE_SEPARATOR;
+            for (FileStats stats : getFiles()) {
+                writer.write(fileSeparator);
+                writer.write("    {" + LINE_SEPARATOR);
+                writer.write("      \"file\": " + quote(stats.getSourceFile().getPath()) + "," + LINE_SEPARATOR);
+                writer.write("      \"success\": " + stats.isSuccess() + "," + LINE_SEPARATOR);
+                writer.write("      \"cached\": " + stats.isCached() + "," + LINE_SEPARATOR);
+                writer.write("      \"phaseNanos\": {");
+                for (CompilePhase phase : phases) {
+                    writer.write((phase.ordinal() == 0 ? "" : ", ") + quote(phase.name().toLowerCase()) + ": " + stats.getPhaseNanos(phase));
+                }
+                writer.write("}," + LINE_SEPARATOR);
+                writer.write("      \"totalNanos\": " + stats.getTotalNanos() + "," + LINE_SEPARATOR);
+                writer.write("      \"tokens\": " + stats.getTokens() + "," + LINE_SEPARATOR);
+                writer.write("      \"vmInstructions\": " + stats.getVmInstructions() + "," + LINE_SEPARATOR);
+                writer.write("      \"bytesWritten\": " + stats.getBytesWritten() + "," + LINE_SEPARATOR);
+                writer.write("      \"subroutines\": {");
+
+                String subroutineSeparator = "";
+                for (Map.Entry<String, Integer> subroutine : stats.getSubroutineInstructions().entrySet()) {
+                    writer.write(subroutineSeparator + quote(subroutine.getKey()) + ": " + subroutine.getValue());
+                    subroutineSeparator = ", ";
+                }
+                writer.write("}" + LINE_SEPARATOR);
+                writer.write("    }");
+                fileSeparator = "," + LINE_SEPARATOR;
+            }
+
+            writer.write(LINE_SEPARATOR + "  ]" + LINE_SEPARATOR);
+            writer.write("}" + LINE_SEPARATOR);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                quoted.append('\\').append(ch);
+            } else if (ch < ' ') {
+                quoted.append(String.format("\\u%04x", (int) ch));
+            } else {
+                quoted.append(ch);
+            }
+        }
+
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,88 @@
+package me.bilousov.compiler;
+
+import me.bilousov.program.CallGraph;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class DeadCodeReport {
+
+    public static final String REPORT_FILE_NAME = "jack-dead-code.txt";
+
+    private final String entryPoint;
+    private final boolean entryPointFound;
+    private final int functionCount;
+    private final long instructionCount;
+    private final Map<String, Integer> removedFunctions;
+
+    private long removedInstructions;
+
+    public DeadCodeReport(String entryPoint, CallGraph callGraph, Set<String> liveFunctions) {
+        this.entryPoint = entryPoint;
+        this.entryPointFound = callGraph.contains(entryPoint);
+        this.functionCount = callGraph.getFunctions().size();
+        this.removedFunctions = new TreeMap<>();
+
+        long instructions = 0;
+        for (String function : callGraph.getFunctions()) {
+            int size = callGraph.getFunctionSize(function);
+            instructions += size;
+
+            if (entryPointFound && !liveFunctions.contains(function)) {
+                removedFunctions.put(function, size);
+                removedInstructions += size;
+            }
+        }
+        this.instructionCount = instructions;
+    }
+
+    public boolean isEntryPointFound() {
+        return entryPointFound;
+    }
+
+    public int getFunctionCount() {
+        return functionCount;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public Map<String, Integer> getRemovedFunctions() {
+        return removedFunctions;
+    }
+
+    public long getRemovedInstructions() {
+        return removedInstructions;
+    }
+
+    public void printSummary(PrintStream out) {
+        if (!entryPointFound) {
+            out.println("Dead code: no " + entryPoint + " in the program, nothing removed");
+            return;
+        }
+
+        out.printf("Dead code: removed %d of %d subroutines, %d of %d VM instructions (%.1f%%)%n",
+                removedFunctions.size(), functionCount, removedInstructions, instructionCount,
+                instructionCount > 0 ? 100.0 * removedInstructions / instructionCount : 0.0);
+    }
+
+    public void writeText(File reportFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# subroutines unreachable from " + entryPoint + " (vm instructions removed)");
+            writer.newLine();
+
+            for (Map.Entry<String, Integer> function : removedFunctions.entrySet()) {
+                writer.write(function.getKey() + " " + function.getValue());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package me.bilousov.compiler;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+public class FileStats {
+
+    private final File sourceFile;
+    private final long[] phaseNanos;
+
+    private boolean success;
+    private boolean cached;
+    private int tokens;
+    private long vmInstructions;
+    private long bytesWritten;
+    private Map<String, Integer> subroutineInstructions;
+
+    public FileStats(File sourceFile) {
+        this.sourceFile = sourceFile;
+        this.phaseNanos = new long[CompilePhase.values().length];
+        this.subroutineInstructions = Collections.emptyMap();
+    }
+
+    public File getSourceFile() {
+        return sourceFile;
+    }
+
+    public long getPhaseNanos(CompilePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public void addPhaseNanos(CompilePhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+
+        return total;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public int getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(int tokens) {
+        this.tokens = tokens;
+    }
+
+    public long getVmInstructions() {
+        return vmInstructions;
+    }
+
+    public void setVmInstructions(long vmInstructions) {
+        this.vmInstructions = vmInstructions;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public Map<String, Integer> getSubroutineInstructions() {
+        return subroutineInstructions;
+    }
+
+    public void setSubroutineInstructions(Map<String, Integer> subroutineInstructions) {
+        this.subroutineInstructions = subroutineInstructions;
+    }
+}
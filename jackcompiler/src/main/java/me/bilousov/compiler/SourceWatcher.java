@@ -0,0 +1,127 @@
+package me.bilousov.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+public class SourceWatcher {
+
+    public static final long DEBOUNCE_MILLIS = 100;
+
+    private static final String INPUT_FILE_EXTENSION = ".jack";
+
+    private final BatchCompiler batchCompiler;
+    private final BuildCache buildCache;
+    private final File directory;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public SourceWatcher(BatchCompiler batchCompiler, BuildCache buildCache, File directory, PrintStream out, PrintStream err) {
+        this.batchCompiler = batchCompiler;
+        this.buildCache = buildCache;
+        this.directory = directory;
+        this.out = out;
+        this.err = err;
+    }
+
+    // blocks until the thread is interrupted or the directory goes away
+    public void watch() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            out.println("Watching " + directory.getPath() + " for changes");
+
+            while (true) {
+                Set<String> changedNames = new TreeSet<>();
+                WatchKey key = watchService.take();
+                boolean overflow = drainEvents(key, changedNames);
+
+                // an editor save is often several events (truncate, write, rename), so wait until
+                // the directory has been quiet for DEBOUNCE_MILLIS before compiling anything
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= drainEvents(key, changedNames);
+                }
+
+                if (!directory.isDirectory()) {
+                    err.println("Stopped watching " + directory.getPath() + ": directory is no longer accessible");
+                    return;
+                }
+
+                List<File> changed = new ArrayList<>();
+                List<File> deleted = new ArrayList<>();
+                for (String name : changedNames) {
+                    File file = new File(directory, name);
+                    (file.isFile() ? changed : deleted).add(file);
+                }
+
+                // in whole-program mode a changed signature can break any caller, so every class is recompiled
+                if (overflow || (batchCompiler.isWholeProgram() && !changedNames.isEmpty())) {
+                    changed = BatchCompiler.findJackFiles(directory);
+                }
+
+                recompile(changed, deleted);
+            }
+        }
+    }
+
+    private static boolean drainEvents(WatchKey key, Set<String> changedNames) {
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+
+            String name = ((Path) event.context()).toString();
+            if (name.endsWith(INPUT_FILE_EXTENSION)) {
+                changedNames.add(name);
+            }
+        }
+
+        key.reset();
+        return overflow;
+    }
+
+    private void recompile(List<File> changed, List<File> deleted) throws IOException {
+        for (File file : deleted) {
+            batchCompiler.removeOutputs(file);
+            out.println("Removed outputs of " + file.getName());
+        }
+
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<CompileResult> results = batchCompiler.compile(changed);
+        long nanos = System.nanoTime() - start;
+
+        List<String> names = new ArrayList<>();
+        for (CompileResult result : results) {
+            names.add(result.getSourceFile().getName());
+        }
+        CompileResult.printErrors(results, err);
+
+        if (buildCache != null) {
+            buildCache.save();
+        }
+
+        out.printf("Recompiled %s in %.1f ms%n", String.join(", ", names), nanos / 1e6);
+
+        if (batchCompiler.getDeadCodeReport() != null) {
+            batchCompiler.getDeadCodeReport().printSummary(out);
+        }
+    }
+}
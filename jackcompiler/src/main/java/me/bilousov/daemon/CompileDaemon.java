@@ -0,0 +1,209 @@
+package me.bilousov.daemon;
+
+import me.bilousov.Main;
+import me.bilousov.compiler.BuildCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CompileDaemon implements Closeable {
+
+    private static final long REQUEST_TIMEOUT_SECONDS = 10;
+
+    private final UnixDomainSocketAddress address;
+    private final ServerSocketChannel server;
+    private final Map<File, BuildCache> warmCaches;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService deadlines;
+
+    private volatile boolean running;
+
+    private CompileDaemon(UnixDomainSocketAddress address, ServerSocketChannel server) {
+        this.address = address;
+        this.server = server;
+        this.warmCaches = new HashMap<>();
+        this.connections = Executors.newCachedThreadPool(CompileDaemon::newDaemonThread);
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(CompileDaemon::newDaemonThread);
+        this.running = true;
+    }
+
+    private static Thread newDaemonThread(Runnable task) {
+        Thread thread = new Thread(task, "jack-compile-daemon");
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        UnixDomainSocketAddress address = DaemonProtocol.takeAddress(arguments);
+        if (!arguments.isEmpty()) {
+            System.err.println("Usage: Main --daemon [--socket <path>]");
+            System.exit(2);
+        }
+
+        CompileDaemon bound;
+        try {
+            bound = bind(address);
+        } catch (IOException e) {
+            System.err.println("Cannot start the compile daemon: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        try (CompileDaemon daemon = bound) {
+            Runtime.getRuntime().addShutdownHook(new Thread(daemon::close));
+            System.out.println("Compile daemon listening on " + address);
+            daemon.serve();
+        }
+    }
+
+    public static CompileDaemon bind(UnixDomainSocketAddress address) throws IOException {
+        return new CompileDaemon(address, DaemonProtocol.bind(address));
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    // each connection is read on its own thread and has REQUEST_TIMEOUT_SECONDS to send its request, so a
+    // client that never does cannot hold up the others; the compiles themselves still run one at a time:
+    // each batch already compiles in parallel, and serialising them keeps two builds from racing on the
+    // same output directory
+    public void serve() throws IOException {
+        while (running) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+
+            try {
+                connections.execute(() -> serveClient(client));
+            } catch (RejectedExecutionException e) {
+                client.close();
+                return;
+            }
+        }
+    }
+
+    private void serveClient(SocketChannel client) {
+        try (client) {
+            handle(client);
+        } catch (IOException e) {
+            // the client went away or missed the request deadline; there is nobody to reply to
+        }
+    }
+
+    private void handle(SocketChannel client) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8));
+
+        String workingDir;
+        String argumentLine;
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> closeQuietly(client), REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            workingDir = reader.readLine();
+            argumentLine = reader.readLine();
+        } finally {
+            deadline.cancel(false);
+        }
+
+        if (workingDir == null || argumentLine == null) {
+            return;
+        }
+
+        String[] args = DaemonProtocol.splitArguments(argumentLine);
+        if (args.length == 1 && args[0].equals(DaemonProtocol.SHUTDOWN_COMMAND)) {
+            writeLine(writer, DaemonProtocol.EXIT_PREFIX + 0);
+            writer.flush();
+            close();
+            return;
+        }
+
+        ByteArrayOutputStream outBuffer = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBuffer = new ByteArrayOutputStream();
+        int status;
+
+        try (PrintStream out = new PrintStream(outBuffer, true, StandardCharsets.UTF_8);
+             PrintStream err = new PrintStream(errBuffer, true, StandardCharsets.UTF_8)) {
+            try {
+                synchronized (warmCaches) {
+                    status = Main.run(args, new File(workingDir), out, err, warmCaches);
+                }
+            } catch (IOException | RuntimeException e) {
+                err.println("Compile daemon failed: " + e);
+                status = 1;
+            }
+        }
+
+        writeLines(writer, DaemonProtocol.OUT_PREFIX, outBuffer);
+        writeLines(writer, DaemonProtocol.ERR_PREFIX, errBuffer);
+        writeLine(writer, DaemonProtocol.EXIT_PREFIX + status);
+        writer.flush();
+    }
+
+    private static void closeQuietly(SocketChannel client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    private static void writeLines(BufferedWriter writer, String prefix, ByteArrayOutputStream buffer) throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+
+        for (String line : buffer.toString(StandardCharsets.UTF_8).split("\\R")) {
+            writeLine(writer, prefix + line);
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        connections.shutdown();
+        deadlines.shutdownNow();
+
+        try {
+            server.close();
+            Files.deleteIfExists(address.getPath());
+        } catch (IOException e) {
+            System.err.println("Could not close compile daemon: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package me.bilousov.daemon;
+
+import me.bilousov.Main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DaemonClient {
+
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        SocketAddress address = DaemonProtocol.takeAddress(arguments);
+        String[] compilerArgs = arguments.toArray(new String[0]);
+        File workingDir = new File("").getAbsoluteFile();
+
+        SocketChannel channel;
+        try {
+            channel = DaemonProtocol.connect(address);
+        } catch (IOException e) {
+            channel = null;
+        }
+
+        int status;
+        if (channel != null) {
+            status = send(channel, workingDir, compilerArgs, System.out, System.err);
+        } else if (compilerArgs.length == 1 && compilerArgs[0].equals(DaemonProtocol.SHUTDOWN_COMMAND)) {
+            System.err.println("No compile daemon at " + address);
+            status = 1;
+        } else {
+            System.err.println("No compile daemon at " + address + ", compiling in-process");
+            status = Main.run(compilerArgs, workingDir, System.out, System.err, null);
+        }
+
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    public static int send(SocketAddress address, File workingDir, String[] args, PrintStream out, PrintStream err) throws IOException {
+        return send(DaemonProtocol.connect(address), workingDir, args, out, err);
+    }
+
+    private static int send(SocketChannel connection, File workingDir, String[] args, PrintStream out, PrintStream err) throws IOException {
+        try (SocketChannel channel = connection) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            writer.write(workingDir.getAbsolutePath());
+            writer.write('\n');
+            writer.write(DaemonProtocol.joinArguments(args));
+            writer.write('\n');
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(DaemonProtocol.OUT_PREFIX)) {
+                    out.println(line.substring(DaemonProtocol.OUT_PREFIX.length()));
+                } else if (line.startsWith(DaemonProtocol.ERR_PREFIX)) {
+                    err.println(line.substring(DaemonProtocol.ERR_PREFIX.length()));
+                } else if (line.startsWith(DaemonProtocol.EXIT_PREFIX)) {
+                    return Integer.parseInt(line.substring(DaemonProtocol.EXIT_PREFIX.length()));
+                }
+            }
+        }
+
+        throw new IOException("Compile daemon closed the connection without a status");
+    }
+}
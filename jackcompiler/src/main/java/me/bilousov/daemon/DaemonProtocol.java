@@ -0,0 +1,144 @@
+package me.bilousov.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.List;
+import java.util.Set;
+
+// A request is two lines: the client's working directory, then the compiler arguments joined by tabs.
+// The reply is any number of "out <line>" / "err <line>" lines followed by a single "exit <status>" line.
+// A request can name any directory and write outputs there, so the daemon only listens on a Unix domain
+// socket that only its owner can connect to; there is no TCP mode. The socket always lives in a directory
+// that only its owner can enter, so nobody else can reach it, not even between bind() and the chmod.
+public class DaemonProtocol {
+
+    public static final String SHUTDOWN_COMMAND = "--shutdown";
+    public static final String OUT_PREFIX = "out ";
+    public static final String ERR_PREFIX = "err ";
+    public static final String EXIT_PREFIX = "exit ";
+    public static final char ARGUMENT_SEPARATOR = '\t';
+
+    private static final String SOCKET_OPTION = "--socket";
+
+    private static final String SOCKET_FILE_NAME = "daemon.sock";
+    private static final String PRIVATE_DIRECTORY = "rwx------";
+
+    // $XDG_RUNTIME_DIR/jackcompiler/daemon.sock, or jackcompiler-<user>/daemon.sock in the temp directory
+    public static UnixDomainSocketAddress defaultAddress() {
+        String runtimeDir = System.getenv("XDG_RUNTIME_DIR");
+        File socketDir = runtimeDir != null && !runtimeDir.isEmpty()
+                ? new File(runtimeDir, "jackcompiler")
+                : new File(System.getProperty("java.io.tmpdir"), "jackcompiler-" + System.getProperty("user.name"));
+
+        return UnixDomainSocketAddress.of(new File(socketDir, SOCKET_FILE_NAME).toPath());
+    }
+
+    // removes --socket <path> from args and returns the address it selects
+    public static UnixDomainSocketAddress takeAddress(List<String> args) {
+        UnixDomainSocketAddress address = defaultAddress();
+
+        for (int i = 0; i < args.size() - 1; i++) {
+            if (args.get(i).equals(SOCKET_OPTION)) {
+                address = UnixDomainSocketAddress.of(args.get(i + 1));
+                args.subList(i, i + 2).clear();
+                i--;
+            }
+        }
+
+        return address;
+    }
+
+    // the socket file is made owner-only (rw-------) where the file system has POSIX permissions:
+    // connecting to a Unix domain socket needs write access to it. A socket file left behind by a daemon
+    // that is gone is replaced; one that a running daemon still answers on is not.
+    public static ServerSocketChannel bind(UnixDomainSocketAddress address) throws IOException {
+        Path socketFile = address.getPath().toAbsolutePath();
+        ensurePrivateDirectory(socketFile.getParent());
+
+        if (Files.exists(socketFile, LinkOption.NOFOLLOW_LINKS)) {
+            if (isAnswering(address)) {
+                throw new IOException("A compile daemon is already listening on " + socketFile);
+            }
+            Files.delete(socketFile);
+        }
+
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(address);
+        try {
+            if (socketFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(socketFile, PosixFilePermissions.fromString("rw-------"));
+            }
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+
+        return server;
+    }
+
+    private static boolean isAnswering(UnixDomainSocketAddress address) throws IOException {
+        try {
+            connect(address).close();
+            return true;
+        } catch (ConnectException e) {
+            return false;
+        }
+    }
+
+    // creates the directory owner-only (rwx------), or checks that an existing one is a real directory,
+    // owned by this user and closed to everyone else
+    private static void ensurePrivateDirectory(Path directory) throws IOException {
+        boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(directory.getParent());
+            if (posix) {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(PRIVATE_DIRECTORY)));
+            } else {
+                Files.createDirectory(directory);
+            }
+            return;
+        }
+
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException(directory + " is not a directory");
+        }
+        if (!posix) {
+            return;
+        }
+
+        UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+        if (!Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(user)) {
+            throw new IOException(directory + " belongs to another user; choose a socket with --socket <path>");
+        }
+
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS);
+        if (!PosixFilePermissions.fromString(PRIVATE_DIRECTORY).containsAll(permissions)) {
+            throw new IOException(directory + " is open to other users (" + PosixFilePermissions.toString(permissions)
+                    + "); the daemon socket needs a directory with rwx------");
+        }
+    }
+
+    public static SocketChannel connect(SocketAddress address) throws IOException {
+        return SocketChannel.open(address);
+    }
+
+    public static String joinArguments(String[] args) {
+        return String.join(String.valueOf(ARGUMENT_SEPARATOR), args);
+    }
+
+    public static String[] splitArguments(String argumentLine) {
+        return argumentLine.isEmpty() ? new String[0] : argumentLine.split(String.valueOf(ARGUMENT_SEPARATOR));
+    }
+}
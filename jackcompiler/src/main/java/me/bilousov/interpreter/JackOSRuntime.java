@@ -0,0 +1,350 @@
+package me.bilousov.interpreter;
+
+import me.bilousov.program.JackOS;
+import me.bilousov.program.SubroutineSignature;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Headless Java implementations of the Jack OS routines. Math, String, Array, Memory and the text side
+// of Output and Keyboard behave like the reference OS (including its Sys.error codes); Screen calls are
+// accepted and ignored, and keyboard input comes from a fixed string instead of a key matrix.
+class JackOSRuntime {
+
+    static final int HEAP_BASE = 2048;
+    static final int HEAP_LIMIT = 16384;
+
+    private static final List<SubroutineSignature> routines = JackOS.getSignatures();
+    private static final String[] routineNames = new String[routines.size()];
+
+    static {
+        for (int i = 0; i < routineNames.length; i++) {
+            routineNames[i] = routines.get(i).getQualifiedName();
+        }
+    }
+
+    private static final char NEW_LINE = 128;
+    private static final char BACKSPACE = 129;
+    private static final char DOUBLE_QUOTE = '"';
+
+    private final int[] ram;
+    private final StringBuilder output;
+    private final String keyboardInput;
+    private final TreeMap<Integer, Integer> freeBlocks;
+    private final Map<Integer, Integer> allocatedBlocks;
+
+    private int heapTop = HEAP_BASE;
+    private int inputPosition;
+
+    JackOSRuntime(int[] ram, String keyboardInput) {
+        this.ram = ram;
+        this.output = new StringBuilder();
+        this.keyboardInput = keyboardInput;
+        this.freeBlocks = new TreeMap<>();
+        this.allocatedBlocks = new HashMap<>();
+    }
+
+    static int routineId(String qualifiedName) {
+        for (int i = 0; i < routineNames.length; i++) {
+            if (routineNames[i].equals(qualifiedName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    static int routineCount() {
+        return routineNames.length;
+    }
+
+    static String routineName(int routine) {
+        return routineNames[routine];
+    }
+
+    // the VM passes a method's object as an extra first argument
+    static int argumentCount(int routine) {
+        SubroutineSignature signature = routines.get(routine);
+
+        return signature.getParameterCount() + (signature.isMethod() ? 1 : 0);
+    }
+
+    String getOutput() {
+        return output.toString();
+    }
+
+    // arguments are ram[args], ram[args + 1], ...; the result is what the routine leaves on the stack
+    int invoke(int routine, int args) {
+        switch (routineNames[routine]) {
+            case "Math.abs":
+                return (short) Math.abs(ram[args]);
+            case "Math.multiply":
+                return (short) (ram[args] * ram[args + 1]);
+            case "Math.divide":
+                if (ram[args + 1] == 0) {
+                    throw new Halt(3);
+                }
+                return (short) (ram[args] / ram[args + 1]);
+            case "Math.min":
+                return Math.min(ram[args], ram[args + 1]);
+            case "Math.max":
+                return Math.max(ram[args], ram[args + 1]);
+            case "Math.sqrt":
+                if (ram[args] < 0) {
+                    throw new Halt(4);
+                }
+                return (int) Math.sqrt(ram[args]);
+            case "String.new":
+                return newString(ram[args]);
+            case "String.dispose":
+            case "Array.dispose":
+            case "Memory.deAlloc":
+                deAlloc(ram[args]);
+                return 0;
+            case "String.length":
+                return ram[ram[args] + 1];
+            case "String.charAt":
+                return ram[charAddress(ram[args], ram[args + 1], 15)];
+            case "String.setCharAt":
+                ram[charAddress(ram[args], ram[args + 1], 16)] = ram[args + 2];
+                return 0;
+            case "String.appendChar":
+                appendChar(ram[args], ram[args + 1]);
+                return ram[args];
+            case "String.eraseLastChar":
+                if (ram[ram[args] + 1] == 0) {
+                    throw new Halt(18);
+                }
+                ram[ram[args] + 1]--;
+                return 0;
+            case "String.intValue":
+                return intValue(ram[args]);
+            case "String.setInt":
+                setInt(ram[args], ram[args + 1]);
+                return 0;
+            case "String.backSpace":
+                return BACKSPACE;
+            case "String.doubleQuote":
+                return DOUBLE_QUOTE;
+            case "String.newLine":
+                return NEW_LINE;
+            case "Array.new":
+                if (ram[args] <= 0) {
+                    throw new Halt(2);
+                }
+                return alloc(ram[args]);
+            case "Memory.alloc":
+                return alloc(ram[args]);
+            case "Memory.peek":
+                return ram[ram[args]];
+            case "Memory.poke":
+                ram[ram[args]] = ram[args + 1];
+                return 0;
+            case "Output.printChar":
+                printChar(ram[args]);
+                return 0;
+            case "Output.printString":
+                printString(ram[args]);
+                return 0;
+            case "Output.printInt":
+                output.append(ram[args]);
+                return 0;
+            case "Output.println":
+                output.append('\n');
+                return 0;
+            case "Output.backSpace":
+                printChar(BACKSPACE);
+                return 0;
+            case "Output.moveCursor":
+                if (ram[args] < 0 || ram[args] > 22 || ram[args + 1] < 0 || ram[args + 1] > 63) {
+                    throw new Halt(20);
+                }
+                return 0;
+            case "Keyboard.keyPressed":
+                return 0;
+            case "Keyboard.readChar":
+                return readChar();
+            case "Keyboard.readLine":
+                return readLine(ram[args]);
+            case "Keyboard.readInt":
+                return intValue(readLine(ram[args]));
+            case "Sys.halt":
+                throw new Halt(0);
+            case "Sys.error":
+                throw new Halt(ram[args]);
+            default:
+                // the init routines, Screen drawing and Sys.wait have nothing to do headless
+                return 0;
+        }
+    }
+
+    private int alloc(int size) {
+        if (size <= 0) {
+            throw new Halt(5);
+        }
+
+        for (Map.Entry<Integer, Integer> block : freeBlocks.entrySet()) {
+            int address = block.getKey();
+            int blockSize = block.getValue();
+            if (blockSize >= size) {
+                freeBlocks.remove(address);
+                if (blockSize > size) {
+                    freeBlocks.put(address + size, blockSize - size);
+                }
+                allocatedBlocks.put(address, size);
+                return address;
+            }
+        }
+
+        if (heapTop + size > HEAP_LIMIT) {
+            throw new Halt(6);
+        }
+
+        int address = heapTop;
+        heapTop += size;
+        allocatedBlocks.put(address, size);
+        return address;
+    }
+
+    private void deAlloc(int address) {
+        Integer size = allocatedBlocks.remove(address);
+        if (size == null) {
+            return;
+        }
+
+        Map.Entry<Integer, Integer> after = freeBlocks.ceilingEntry(address);
+        if (after != null && after.getKey() == address + size) {
+            size += freeBlocks.remove(after.getKey());
+        }
+
+        Map.Entry<Integer, Integer> before = freeBlocks.floorEntry(address);
+        if (before != null && before.getKey() + before.getValue() == address) {
+            freeBlocks.put(before.getKey(), before.getValue() + size);
+        } else {
+            freeBlocks.put(address, size);
+        }
+    }
+
+    // a String is [maximum length, length, characters...]
+    private int newString(int maxLength) {
+        if (maxLength < 0) {
+            throw new Halt(14);
+        }
+
+        int string = alloc(maxLength + 2);
+        ram[string] = maxLength;
+        ram[string + 1] = 0;
+        return string;
+    }
+
+    private int charAddress(int string, int index, int errorCode) {
+        if (index < 0 || index >= ram[string + 1]) {
+            throw new Halt(errorCode);
+        }
+
+        return string + 2 + index;
+    }
+
+    private void appendChar(int string, int ch) {
+        if (ram[string + 1] == ram[string]) {
+            throw new Halt(17);
+        }
+
+        ram[string + 2 + ram[string + 1]] = ch;
+        ram[string + 1]++;
+    }
+
+    private int intValue(int string) {
+        int length = ram[string + 1];
+        boolean negative = length > 0 && ram[string + 2] == '-';
+        int value = 0;
+
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            int ch = ram[string + 2 + i];
+            if (ch < '0' || ch > '9') {
+                break;
+            }
+            value = (short) (value * 10 + ch - '0');
+        }
+
+        return negative ? (short) -value : value;
+    }
+
+    private void setInt(int string, int value) {
+        String digits = Integer.toString(value);
+        if (digits.length() > ram[string]) {
+            throw new Halt(19);
+        }
+
+        for (int i = 0; i < digits.length(); i++) {
+            ram[string + 2 + i] = digits.charAt(i);
+        }
+        ram[string + 1] = digits.length();
+    }
+
+    private void printChar(int ch) {
+        if (ch == NEW_LINE) {
+            output.append('\n');
+        } else if (ch == BACKSPACE) {
+            if (output.length() > 0 && output.charAt(output.length() - 1) != '\n') {
+                output.setLength(output.length() - 1);
+            }
+        } else {
+            output.append((char) ch);
+        }
+    }
+
+    private void printString(int string) {
+        for (int i = 0; i < ram[string + 1]; i++) {
+            printChar(ram[string + 2 + i]);
+        }
+    }
+
+    private int readChar() {
+        if (inputPosition >= keyboardInput.length()) {
+            throw new IllegalStateException("Program reads past the end of the keyboard input");
+        }
+
+        char ch = keyboardInput.charAt(inputPosition++);
+        int key = ch == '\n' ? NEW_LINE : ch;
+        printChar(key);
+        return key;
+    }
+
+    private int readLine(int prompt) {
+        printString(prompt);
+
+        StringBuilder line = new StringBuilder();
+        int key;
+        while ((key = readChar()) != NEW_LINE) {
+            if (key == BACKSPACE) {
+                line.setLength(Math.max(0, line.length() - 1));
+            } else {
+                line.append((char) key);
+            }
+        }
+
+        int string = newString(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            appendChar(string, line.charAt(i));
+        }
+
+        return string;
+    }
+
+    // Sys.halt and Sys.error end the program from inside an OS routine; a stackless control-flow signal
+    // caught by VMInterpreter, never serialized
+    static final class Halt extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        final int errorCode;
+
+        Halt(int errorCode) {
+            super("Sys.error(" + errorCode + ")", null, false, false);
+            this.errorCode = errorCode;
+        }
+    }
+}
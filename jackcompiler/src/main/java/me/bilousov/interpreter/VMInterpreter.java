@@ -0,0 +1,370 @@
+package me.bilousov.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static me.bilousov.interpreter.VMProgram.*;
+
+// Runs a VMProgram on a 32K-word Hack RAM with the standard memory map (SP/LCL/ARG/THIS/THAT at 0-4,
+// temp at 5, statics from 16, stack from 256, heap from 2048) and profiles every function as it goes.
+// The counters are charged per executed instruction, so a run doubles as a performance oracle for
+// changes to the generated code.
+public class VMInterpreter {
+
+    public static final long DEFAULT_MAX_STEPS = 200_000_000L;
+
+    private static final int RAM_SIZE = 32768;
+    private static final int STACK_BASE = 256;
+    private static final int STACK_LIMIT = JackOSRuntime.HEAP_BASE;
+    private static final int END_OF_PROGRAM = -1;
+    private static final int PROFILE_ROWS = 15;
+
+    private final VMProgram program;
+    private final int[] ram;
+    private final JackOSRuntime os;
+    private final long[] calls;
+    private final long[] instructions;
+    private final long[] cycles;
+    private final long[] osCalls;
+
+    private long steps;
+
+    public VMInterpreter(VMProgram program, String keyboardInput) {
+        this.program = program;
+        this.ram = new int[RAM_SIZE];
+        this.os = new JackOSRuntime(ram, keyboardInput);
+        this.calls = new long[program.functionCount()];
+        this.instructions = new long[program.functionCount()];
+        this.cycles = new long[program.functionCount()];
+        this.osCalls = new long[JackOSRuntime.routineCount()];
+    }
+
+    public static void main(String[] args) throws IOException {
+        File vmFileOrDir = null;
+        String input = "";
+        long maxSteps = DEFAULT_MAX_STEPS;
+        File expectedOutput = null;
+        boolean profile = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input":
+                    input = args[++i].replace("\\n", "\n");
+                    break;
+                case "--max-steps":
+                    maxSteps = Long.parseLong(args[++i]);
+                    break;
+                case "--expect":
+                    expectedOutput = new File(args[++i]);
+                    break;
+                case "--profile":
+                    profile = true;
+                    break;
+                default:
+                    vmFileOrDir = new File(args[i]);
+            }
+        }
+
+        if (vmFileOrDir == null) {
+            System.err.println("Usage: VMInterpreter [--input <keyboard text>] [--max-steps <count>] [--expect <output file>] [--profile] <file.vm | directory>");
+            System.exit(2);
+        }
+
+        VMInterpreter interpreter = new VMInterpreter(VMProgram.load(VMProgram.findVMFiles(vmFileOrDir)), input);
+        int status = interpreter.runAndReport(maxSteps, System.out, System.err, profile);
+
+        if (expectedOutput != null) {
+            String expected = new String(Files.readAllBytes(expectedOutput.toPath()), StandardCharsets.UTF_8);
+            if (!expected.equals(interpreter.getOutput())) {
+                System.err.println("Output differs from " + expectedOutput.getPath());
+                status = 1;
+            } else {
+                System.out.println("Output matches " + expectedOutput.getPath());
+            }
+        }
+
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    // prints what the program printed, then how it ended; returns 0 unless it failed or called Sys.error
+    public int runAndReport(long maxSteps, PrintStream out, PrintStream err, boolean profile) {
+        int status = 0;
+        long start = System.nanoTime();
+
+        try {
+            int errorCode = run(maxSteps);
+            if (errorCode != 0) {
+                err.println("Program stopped with Sys.error(" + errorCode + ")");
+                status = 1;
+            }
+        } catch (IllegalStateException e) {
+            err.println("Program failed: " + e.getMessage());
+            status = 1;
+        }
+
+        long nanos = System.nanoTime() - start;
+        out.print(getOutput());
+        if (!getOutput().isEmpty() && !getOutput().endsWith("\n")) {
+            out.println();
+        }
+        out.printf("Executed %,d VM instructions, about %,d Hack cycles, in %.1f ms%n", steps, totalCycles(), nanos / 1e6);
+
+        if (profile) {
+            printProfile(out);
+        }
+
+        return status;
+    }
+
+    // returns 0 when Main.main (or the program's own Sys.init) returns or Sys.halt is called, otherwise
+    // the Sys.error code; throws IllegalStateException for faults the real VM would not survive either
+    public int run(long maxSteps) {
+        int entry = program.findFunction("Sys.init");
+        if (entry < 0) {
+            entry = program.findFunction("Main.main");
+        }
+        if (entry < 0) {
+            throw new IllegalStateException("The program has neither Sys.init nor Main.main");
+        }
+
+        ram[SP] = STACK_BASE;
+        push(END_OF_PROGRAM);
+        push(0);
+        push(0);
+        push(0);
+        push(0);
+        ram[ARG] = ram[SP] - 5;
+        ram[LCL] = ram[SP];
+
+        int pc = program.functionEntries[entry];
+        try {
+            execute(pc, maxSteps);
+            return 0;
+        } catch (JackOSRuntime.Halt halt) {
+            return halt.errorCode;
+        }
+    }
+
+    private void push(int value) {
+        ram[ram[SP]++] = value;
+    }
+
+    private void execute(int startPc, long maxSteps) {
+        final int[] ops = program.ops;
+        final int[] operandA = program.operandA;
+        final int[] operandB = program.operandB;
+        final int[] costs = program.cycles;
+        final int[] owners = program.owners;
+        final int[] ram = this.ram;
+        int pc = startPc;
+
+        try {
+            while (true) {
+                if (steps == maxSteps) {
+                    throw new IllegalStateException("Step limit of " + maxSteps + " reached in " + program.functionName(owners[pc]));
+                }
+                steps++;
+
+                int owner = owners[pc];
+                instructions[owner]++;
+                cycles[owner] += costs[pc];
+
+                int sp = ram[SP];
+                switch (ops[pc]) {
+                    case PUSH_CONSTANT:
+                        ram[sp] = operandA[pc];
+                        ram[SP] = sp + 1;
+                        pc++;
+                        break;
+                    case PUSH_DIRECT:
+                        ram[sp] = ram[operandA[pc]];
+                        ram[SP] = sp + 1;
+                        pc++;
+                        break;
+                    case PUSH_INDIRECT:
+                        ram[sp] = ram[ram[operandA[pc]] + operandB[pc]];
+                        ram[SP] = sp + 1;
+                        pc++;
+                        break;
+                    case POP_DIRECT:
+                        ram[operandA[pc]] = ram[sp - 1];
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case POP_INDIRECT:
+                        ram[ram[operandA[pc]] + operandB[pc]] = ram[sp - 1];
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case ADD:
+                        ram[sp - 2] = (short) (ram[sp - 2] + ram[sp - 1]);
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case SUB:
+                        ram[sp - 2] = (short) (ram[sp - 2] - ram[sp - 1]);
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case NEG:
+                        ram[sp - 1] = (short) -ram[sp - 1];
+                        pc++;
+                        break;
+                    case EQ:
+                        ram[sp - 2] = ram[sp - 2] == ram[sp - 1] ? -1 : 0;
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case GT:
+                        ram[sp - 2] = ram[sp - 2] > ram[sp - 1] ? -1 : 0;
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case LT:
+                        ram[sp - 2] = ram[sp - 2] < ram[sp - 1] ? -1 : 0;
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case AND:
+                        ram[sp - 2] = ram[sp - 2] & ram[sp - 1];
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case OR:
+                        ram[sp - 2] = ram[sp - 2] | ram[sp - 1];
+                        ram[SP] = sp - 1;
+                        pc++;
+                        break;
+                    case NOT:
+                        ram[sp - 1] = ~ram[sp - 1];
+                        pc++;
+                        break;
+                    case GOTO:
+                        pc = operandA[pc];
+                        break;
+                    case IF_GOTO:
+                        ram[SP] = sp - 1;
+                        pc = ram[sp - 1] != 0 ? operandA[pc] : pc + 1;
+                        break;
+                    case FUNCTION:
+                        calls[owner]++;
+                        for (int i = operandA[pc]; i > 0; i--) {
+                            ram[sp++] = 0;
+                        }
+                        ram[SP] = sp;
+                        checkStack(sp, owner);
+                        pc++;
+                        break;
+                    case CALL:
+                        ram[sp] = pc + 1;
+                        ram[sp + 1] = ram[LCL];
+                        ram[sp + 2] = ram[ARG];
+                        ram[sp + 3] = ram[THIS];
+                        ram[sp + 4] = ram[THAT];
+                        ram[ARG] = sp - operandB[pc];
+                        ram[LCL] = sp + 5;
+                        ram[SP] = sp + 5;
+                        checkStack(sp + 5, owner);
+                        pc = operandA[pc];
+                        break;
+                    case CALL_OS:
+                        osCalls[operandA[pc]]++;
+                        int args = sp - operandB[pc];
+                        ram[args] = os.invoke(operandA[pc], args);
+                        ram[SP] = args + 1;
+                        pc++;
+                        break;
+                    default:
+                        int frame = ram[LCL];
+                        int returnAddress = ram[frame - 5];
+                        int argument = ram[ARG];
+                        ram[argument] = ram[sp - 1];
+                        ram[SP] = argument + 1;
+                        ram[THAT] = ram[frame - 1];
+                        ram[THIS] = ram[frame - 2];
+                        ram[ARG] = ram[frame - 3];
+                        ram[LCL] = ram[frame - 4];
+                        if (returnAddress == END_OF_PROGRAM) {
+                            return;
+                        }
+                        pc = returnAddress;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Memory access out of range in " + program.functionName(owners[pc]), e);
+        }
+    }
+
+    private void checkStack(int sp, int owner) {
+        if (sp >= STACK_LIMIT) {
+            throw new IllegalStateException("Stack overflow in " + program.functionName(owner));
+        }
+    }
+
+    public String getOutput() {
+        return os.getOutput();
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long totalCycles() {
+        long total = 0;
+        for (long functionCycles : cycles) {
+            total += functionCycles;
+        }
+
+        return total;
+    }
+
+    public long getCalls(String function) {
+        int index = program.findFunction(function);
+
+        return index >= 0 ? calls[index] : 0;
+    }
+
+    public long getInstructions(String function) {
+        int index = program.findFunction(function);
+
+        return index >= 0 ? instructions[index] : 0;
+    }
+
+    public void printProfile(PrintStream out) {
+        List<Integer> functions = new ArrayList<>();
+        for (int function = 0; function < program.functionCount(); function++) {
+            if (calls[function] > 0) {
+                functions.add(function);
+            }
+        }
+        functions.sort(Comparator.comparingLong((Integer function) -> cycles[function]).reversed());
+
+        long total = Math.max(1, totalCycles());
+        out.printf("%-40s %12s %14s %14s %7s%n", "function", "calls", "vm instrs", "est. cycles", "cycles");
+        for (int function : functions.subList(0, Math.min(PROFILE_ROWS, functions.size()))) {
+            out.printf("%-40s %,12d %,14d %,14d %6.1f%%%n", program.functionName(function), calls[function],
+                    instructions[function], cycles[function], 100.0 * cycles[function] / total);
+        }
+        if (functions.size() > PROFILE_ROWS) {
+            out.println("(" + (functions.size() - PROFILE_ROWS) + " more functions ran)");
+        }
+
+        StringBuilder osSummary = new StringBuilder();
+        for (int routine = 0; routine < osCalls.length; routine++) {
+            if (osCalls[routine] > 0) {
+                osSummary.append(osSummary.length() == 0 ? "" : ", ").append(JackOSRuntime.routineName(routine)).append(" x").append(osCalls[routine]);
+            }
+        }
+        if (osSummary.length() > 0) {
+            out.println("OS calls: " + osSummary);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package me.bilousov.interpreter;
+
+import me.bilousov.vm.VMBinaryFormat;
+import me.bilousov.vm.VMBinaryReader;
+import me.bilousov.vm.VMCostModel;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+import me.bilousov.vm.VMTextReader;
+import me.bilousov.writer.VMWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// A set of .vm files decoded into parallel int arrays. Segment accesses are resolved at load time to
+// either an absolute RAM address (static, temp, pointer) or a base register plus offset (local,
+// argument, this, that); labels and calls are resolved to instruction indexes or OS routine ids.
+public class VMProgram {
+
+    static final int PUSH_CONSTANT = 0;
+    static final int PUSH_DIRECT = 1;
+    static final int PUSH_INDIRECT = 2;
+    static final int POP_DIRECT = 3;
+    static final int POP_INDIRECT = 4;
+    static final int ADD = 5;
+    static final int SUB = 6;
+    static final int NEG = 7;
+    static final int EQ = 8;
+    static final int GT = 9;
+    static final int LT = 10;
+    static final int AND = 11;
+    static final int OR = 12;
+    static final int NOT = 13;
+    static final int GOTO = 14;
+    static final int IF_GOTO = 15;
+    static final int FUNCTION = 16;
+    static final int CALL = 17;
+    static final int CALL_OS = 18;
+    static final int RETURN = 19;
+
+    static final int SP = 0;
+    static final int LCL = 1;
+    static final int ARG = 2;
+    static final int THIS = 3;
+    static final int THAT = 4;
+    static final int TEMP_BASE = 5;
+    static final int STATIC_BASE = 16;
+    static final int STATIC_LIMIT = 256;
+
+    private static final String INPUT_FILE_EXTENSION = ".vm";
+
+    int[] ops;
+    int[] operandA;
+    int[] operandB;
+    int[] cycles;
+    int[] owners;
+    int size;
+
+    String[] functionNames;
+    int[] functionEntries;
+
+    private VMProgram() {
+        this.ops = new int[256];
+        this.operandA = new int[ops.length];
+        this.operandB = new int[ops.length];
+        this.cycles = new int[ops.length];
+        this.owners = new int[ops.length];
+    }
+
+    // every .vm and .vmb file in a directory; a class compiled to both is loaded from its .vmb
+    public static List<File> findVMFiles(File vmFileOrDir) {
+        if (!vmFileOrDir.isDirectory()) {
+            return List.of(vmFileOrDir);
+        }
+
+        File[] files = vmFileOrDir.listFiles((dir, name) -> name.endsWith(INPUT_FILE_EXTENSION) || name.endsWith(VMBinaryFormat.FILE_EXTENSION));
+        if (files == null) {
+            return List.of();
+        }
+
+        Map<String, File> classes = new TreeMap<>();
+        for (File file : files) {
+            String name = file.getName();
+            classes.merge(name.substring(0, name.lastIndexOf('.')), file, (first, second) -> VMBinaryFormat.isBinary(first) ? first : second);
+        }
+
+        return new ArrayList<>(classes.values());
+    }
+
+    public static VMProgram load(List<File> vmFiles) throws IOException {
+        VMProgram program = new VMProgram();
+        Loader loader = program.new Loader();
+
+        for (File vmFile : vmFiles) {
+            loader.startFile(vmFile.getName());
+            if (VMBinaryFormat.isBinary(vmFile)) {
+                VMBinaryReader.read(vmFile, loader);
+            } else {
+                VMTextReader.read(vmFile, loader);
+            }
+            loader.endFile();
+        }
+
+        loader.resolveCalls();
+        return program;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int functionCount() {
+        return functionNames.length;
+    }
+
+    public String functionName(int function) {
+        return functionNames[function];
+    }
+
+    public int findFunction(String name) {
+        for (int function = 0; function < functionNames.length; function++) {
+            if (functionNames[function].equals(name)) {
+                return function;
+            }
+        }
+
+        return -1;
+    }
+
+    private int add(int op, int a, int b, VMInstruction source, int owner) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            operandA = Arrays.copyOf(operandA, capacity);
+            operandB = Arrays.copyOf(operandB, capacity);
+            cycles = Arrays.copyOf(cycles, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+
+        ops[size] = op;
+        operandA[size] = a;
+        operandB[size] = b;
+        cycles[size] = VMCostModel.estimateCycles(source);
+        owners[size] = owner;
+        return size++;
+    }
+
+    private class Loader implements VMWriter {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> entries = new ArrayList<>();
+        private final Map<String, Integer> functionIndexes = new HashMap<>();
+        private final Map<String, Integer> labels = new HashMap<>();
+        private final List<Integer> jumps = new ArrayList<>();
+        private final List<String> jumpLabels = new ArrayList<>();
+        private final List<Integer> calls = new ArrayList<>();
+        private final List<String> callNames = new ArrayList<>();
+
+        private String fileName;
+        private int staticBase = STATIC_BASE;
+        private int staticCount;
+        private int function = -1;
+
+        void startFile(String fileName) {
+            this.fileName = fileName;
+            this.staticCount = 0;
+        }
+
+        void endFile() {
+            resolveJumps();
+            staticBase += staticCount;
+            function = -1;
+        }
+
+        @Override
+        public void writePush(VMSegment segment, int index) {
+            VMInstruction source = VMInstruction.push(segment, index);
+
+            switch (segment) {
+                case CONSTANT:
+                    add(PUSH_CONSTANT, index, 0, source, owner());
+                    break;
+                case LOCAL:
+                case ARGUMENT:
+                case THIS:
+                case THAT:
+                    add(PUSH_INDIRECT, register(segment), index, source, owner());
+                    break;
+                default:
+                    add(PUSH_DIRECT, address(segment, index), 0, source, owner());
+            }
+        }
+
+        @Override
+        public void writePop(VMSegment segment, int index) {
+            VMInstruction source = VMInstruction.pop(segment, index);
+
+            switch (segment) {
+                case CONSTANT:
+                    throw new IllegalStateException("Cannot pop to the constant segment in " + fileName);
+                case LOCAL:
+                case ARGUMENT:
+                case THIS:
+                case THAT:
+                    add(POP_INDIRECT, register(segment), index, source, owner());
+                    break;
+                default:
+                    add(POP_DIRECT, address(segment, index), 0, source, owner());
+            }
+        }
+
+        private int register(VMSegment segment) {
+            switch (segment) {
+                case LOCAL:
+                    return LCL;
+                case ARGUMENT:
+                    return ARG;
+                case THIS:
+                    return THIS;
+                default:
+                    return THAT;
+            }
+        }
+
+        private int address(VMSegment segment, int index) {
+            switch (segment) {
+                case POINTER:
+                    checkIndex(segment, index, 2);
+                    return THIS + index;
+                case TEMP:
+                    checkIndex(segment, index, 8);
+                    return TEMP_BASE + index;
+                default:
+                    staticCount = Math.max(staticCount, index + 1);
+                    if (staticBase + staticCount > STATIC_LIMIT) {
+                        throw new IllegalStateException("Static segment overflow in " + fileName);
+                    }
+                    return staticBase + index;
+            }
+        }
+
+        private void checkIndex(VMSegment segment, int index, int limit) {
+            if (index < 0 || index >= limit) {
+                throw new IllegalStateException(segment.getName() + " " + index + " is out of range in " + fileName);
+            }
+        }
+
+        @Override
+        public void writeArithmetic(VMOpcode command) {
+            add(ADD + command.ordinal() - VMOpcode.ADD.ordinal(), 0, 0, VMInstruction.arithmetic(command), owner());
+        }
+
+        @Override
+        public void writeLabel(String label) {
+            labels.put(label, size);
+        }
+
+        @Override
+        public void writeGoto(String label) {
+            jumps.add(add(GOTO, 0, 0, VMInstruction.gotoLabel(label), owner()));
+            jumpLabels.add(label);
+        }
+
+        @Override
+        public void writeIf(String label) {
+            jumps.add(add(IF_GOTO, 0, 0, VMInstruction.ifGoto(label), owner()));
+            jumpLabels.add(label);
+        }
+
+        @Override
+        public void writeCall(String name, int argsCount) {
+            calls.add(add(CALL, 0, argsCount, VMInstruction.call(name, argsCount), owner()));
+            callNames.add(name);
+        }
+
+        @Override
+        public void writeFunction(String name, int localsCount) {
+            resolveJumps();
+            if (functionIndexes.containsKey(name)) {
+                throw new IllegalStateException("Function " + name + " is defined twice, again in " + fileName);
+            }
+
+            function = names.size();
+            functionIndexes.put(name, function);
+            names.add(name);
+            entries.add(add(FUNCTION, localsCount, 0, VMInstruction.function(name, localsCount), function));
+        }
+
+        @Override
+        public void writeReturn() {
+            add(RETURN, 0, 0, VMInstruction.ret(), owner());
+        }
+
+        private int owner() {
+            if (function < 0) {
+                throw new IllegalStateException("Command outside of a function in " + fileName);
+            }
+
+            return function;
+        }
+
+        // labels are scoped to the function they appear in
+        private void resolveJumps() {
+            for (int i = 0; i < jumps.size(); i++) {
+                Integer target = labels.get(jumpLabels.get(i));
+                if (target == null) {
+                    throw new IllegalStateException("Unknown label " + jumpLabels.get(i) + " in " + functionAt(jumps.get(i)));
+                }
+                operandA[jumps.get(i)] = target;
+            }
+
+            jumps.clear();
+            jumpLabels.clear();
+            labels.clear();
+        }
+
+        // a program may bring its own version of an OS class; only calls it does not define go to the built-in OS
+        void resolveCalls() {
+            for (int i = 0; i < calls.size(); i++) {
+                int pc = calls.get(i);
+                String name = callNames.get(i);
+                Integer function = functionIndexes.get(name);
+
+                if (function != null) {
+                    operandA[pc] = entries.get(function);
+                    continue;
+                }
+
+                int routine = JackOSRuntime.routineId(name);
+                if (routine < 0) {
+                    throw new IllegalStateException("Call to unknown function " + name + " in " + functionAt(pc));
+                }
+                if (JackOSRuntime.argumentCount(routine) != operandB[pc]) {
+                    throw new IllegalStateException("Call to " + name + " with " + operandB[pc] + " argument(s) in " + functionAt(pc));
+                }
+
+                ops[pc] = CALL_OS;
+                operandA[pc] = routine;
+            }
+
+            functionNames = names.toArray(new String[0]);
+            functionEntries = new int[entries.size()];
+            for (int i = 0; i < functionEntries.length; i++) {
+                functionEntries[i] = entries.get(i);
+            }
+        }
+
+        private String functionAt(int pc) {
+            return names.get(owners[pc]);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpressionOptimizer {
+
+    public static final int MAX_STRENGTH_REDUCED_MULTIPLIER = 16;
+
+    private static final int MAX_CONSTANT = 32767;
+    private static final String MULTIPLY = "Math.multiply";
+    private static final String DIVIDE = "Math.divide";
+
+    static final List<PeepholeRule> rules = List.of(
+            ExpressionOptimizer::foldConstantExpression,
+            ExpressionOptimizer::reassociateConstants,
+            ExpressionOptimizer::removeDoubleNegation,
+            ExpressionOptimizer::moveConstantMultiplierRight,
+            ExpressionOptimizer::reduceMultiplyToAddChain
+    );
+
+    // push constant a, push constant b, add|sub|and|or|call Math.multiply 2|call Math.divide 2  ->  push constant r [, neg]
+    private static boolean foldConstantExpression(List<VMInstruction> code, int index) {
+        if (index + 2 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 1).isPush(VMSegment.CONSTANT)) {
+            return false;
+        }
+
+        int left = code.get(index).getOperand();
+        int right = code.get(index + 1).getOperand();
+        VMInstruction operation = code.get(index + 2);
+        int result;
+
+        if (operation.is(VMOpcode.ADD)) {
+            result = left + right;
+        } else if (operation.is(VMOpcode.SUB)) {
+            result = left - right;
+        } else if (operation.is(VMOpcode.AND)) {
+            result = left & right;
+        } else if (operation.is(VMOpcode.OR)) {
+            result = left | right;
+        } else if (operation.isCall(MULTIPLY, 2)) {
+            result = (short) (left * right);
+        } else if (operation.isCall(DIVIDE, 2) && right != 0) {
+            result = left / right;
+        } else {
+            return false;
+        }
+
+        PeepholeOptimizer.replace(code, index, 3, pushConstant((short) result).toArray(new VMInstruction[0]));
+        return true;
+    }
+
+    // push constant a, add, push constant b, add  ->  push constant (a + b), add  (same for sub)
+    private static boolean reassociateConstants(List<VMInstruction> code, int index) {
+        if (index + 3 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 2).isPush(VMSegment.CONSTANT)) {
+            return false;
+        }
+
+        VMOpcode first = code.get(index + 1).getOpcode();
+        VMOpcode second = code.get(index + 3).getOpcode();
+        if (first != second || (first != VMOpcode.ADD && first != VMOpcode.SUB)) {
+            return false;
+        }
+
+        int sum = code.get(index).getOperand() + code.get(index + 2).getOperand();
+        if (sum > MAX_CONSTANT) {
+            return false;
+        }
+
+        PeepholeOptimizer.replace(code, index, 4, VMInstruction.push(VMSegment.CONSTANT, sum), code.get(index + 1));
+        return true;
+    }
+
+    // neg, neg  ->  (nothing)
+    private static boolean removeDoubleNegation(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).is(VMOpcode.NEG) || !code.get(index + 1).is(VMOpcode.NEG)) {
+            return false;
+        }
+
+        PeepholeOptimizer.replace(code, index, 2);
+        return true;
+    }
+
+    // push constant c, push x, call Math.multiply 2  ->  push x, push constant c, call Math.multiply 2
+    private static boolean moveConstantMultiplierRight(List<VMInstruction> code, int index) {
+        if (index + 2 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 2).isCall(MULTIPLY, 2)) {
+            return false;
+        }
+
+        VMInstruction other = code.get(index + 1);
+        if (!other.is(VMOpcode.PUSH) || other.isPush(VMSegment.CONSTANT) || !isStrengthReducible(code.get(index).getOperand())) {
+            return false;
+        }
+
+        PeepholeOptimizer.replace(code, index, 2, other, code.get(index));
+        return true;
+    }
+
+    // push constant c, call Math.multiply 2  ->  shift-and-add chain over temp 1 / temp 2
+    private static boolean reduceMultiplyToAddChain(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 1).isCall(MULTIPLY, 2)) {
+            return false;
+        }
+
+        int multiplier = code.get(index).getOperand();
+        if (!isStrengthReducible(multiplier)) {
+            return false;
+        }
+
+        PeepholeOptimizer.replace(code, index, 2, multiplyChain(multiplier).toArray(new VMInstruction[0]));
+        return true;
+    }
+
+    private static boolean isStrengthReducible(int multiplier) {
+        return multiplier == 0 || (multiplier >= 2 && multiplier <= MAX_STRENGTH_REDUCED_MULTIPLIER);
+    }
+
+    static List<VMInstruction> multiplyChain(int multiplier) {
+        List<VMInstruction> chain = new ArrayList<>();
+        chain.add(VMInstruction.pop(VMSegment.TEMP, 1));
+
+        if (multiplier == 0) {
+            chain.add(VMInstruction.push(VMSegment.CONSTANT, 0));
+            return chain;
+        }
+
+        chain.add(VMInstruction.push(VMSegment.TEMP, 1));
+        boolean accumulatorIsOperand = true;
+
+        for (int bit = Integer.highestOneBit(multiplier) >> 1; bit > 0; bit >>= 1) {
+            if (accumulatorIsOperand) {
+                chain.add(VMInstruction.push(VMSegment.TEMP, 1));
+            } else {
+                chain.add(VMInstruction.pop(VMSegment.TEMP, 2));
+                chain.add(VMInstruction.push(VMSegment.TEMP, 2));
+                chain.add(VMInstruction.push(VMSegment.TEMP, 2));
+            }
+            chain.add(VMInstruction.arithmetic(VMOpcode.ADD));
+            accumulatorIsOperand = false;
+
+            if ((multiplier & bit) != 0) {
+                chain.add(VMInstruction.push(VMSegment.TEMP, 1));
+                chain.add(VMInstruction.arithmetic(VMOpcode.ADD));
+            }
+        }
+
+        return chain;
+    }
+
+    private static List<VMInstruction> pushConstant(int value) {
+        if (value >= 0) {
+            return List.of(VMInstruction.push(VMSegment.CONSTANT, value));
+        }
+
+        if (value == Short.MIN_VALUE) {
+            return List.of(VMInstruction.push(VMSegment.CONSTANT, MAX_CONSTANT), VMInstruction.arithmetic(VMOpcode.NOT));
+        }
+
+        return List.of(VMInstruction.push(VMSegment.CONSTANT, -value), VMInstruction.arithmetic(VMOpcode.NEG));
+    }
+}
@@ -0,0 +1,46 @@
+package me.bilousov.optimizer;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class InlineReport {
+
+    private final Map<String, long[]> sites;
+
+    public InlineReport() {
+        this.sites = new TreeMap<>();
+    }
+
+    // cycles is the estimated saving of one execution of the call site
+    public synchronized void record(String caller, String callee, long cycles) {
+        long[] site = sites.computeIfAbsent(caller + " -> " + callee, key -> new long[2]);
+        site[0]++;
+        site[1] += cycles;
+    }
+
+    public synchronized long getInlinedCalls() {
+        long calls = 0;
+        for (long[] site : sites.values()) {
+            calls += site[0];
+        }
+
+        return calls;
+    }
+
+    public synchronized long getCyclesSaved() {
+        long cycles = 0;
+        for (long[] site : sites.values()) {
+            cycles += site[1];
+        }
+
+        return cycles;
+    }
+
+    public synchronized void printReport(PrintStream out) {
+        out.println("Inliner: inlined " + getInlinedCalls() + " call sites, about " + getCyclesSaved() + " Hack cycles saved per pass over them");
+        for (Map.Entry<String, long[]> site : sites.entrySet()) {
+            out.printf("  %-50s %4d x %8d cycles%n", site.getKey(), site.getValue()[0], site.getValue()[1] / site.getValue()[0]);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMCostModel;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Replaces calls to small leaf functions (no calls of their own, so never recursive) with the callee's
+// body. The callee's arguments and locals move to temp 3..7, which generated code never touches: temp 0
+// is only live inside a let or do statement and temp 1/2 only inside a strength-reduced multiply, neither
+// of which can span a call. A callee that sets pointer 0 gets the caller's this saved and restored around
+// it; pointer 1 is always set right before it is read, so it needs no saving.
+public class Inliner {
+
+    private static final int FIRST_SCRATCH_TEMP = 3;
+    private static final int SCRATCH_TEMPS = 5;
+
+    private final int maxInstructions;
+    private final Map<String, List<VMInstruction>> candidates;
+    private final InlineReport report;
+
+    public Inliner(int maxInstructions) {
+        this.maxInstructions = maxInstructions;
+        this.candidates = new ConcurrentHashMap<>();
+        this.report = new InlineReport();
+    }
+
+    // safe to call from several workers at once, one class's instructions per call
+    public void addCandidates(List<VMInstruction> classCode) {
+        int start = 0;
+        while (start < classCode.size()) {
+            int end = nextFunction(classCode, start + 1);
+            List<VMInstruction> function = classCode.subList(start, end);
+
+            if (isCandidate(function)) {
+                candidates.put(function.get(0).getSymbol(), List.copyOf(function));
+            }
+            start = end;
+        }
+    }
+
+    private boolean isCandidate(List<VMInstruction> function) {
+        if (!function.get(0).is(VMOpcode.FUNCTION) || function.size() - 1 > maxInstructions) {
+            return false;
+        }
+
+        for (VMInstruction instruction : function) {
+            if (instruction.is(VMOpcode.CALL) || (instruction.getSegment() == VMSegment.TEMP && instruction.getOperand() >= FIRST_SCRATCH_TEMP)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // stable text of every candidate body; inlined code changes whenever one of them does
+    public String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Map.Entry<String, List<VMInstruction>> candidate : new TreeMap<>(candidates).entrySet()) {
+            fingerprint.append(candidate.getValue()).append(';');
+        }
+
+        return fingerprint.toString();
+    }
+
+    public List<VMInstruction> inline(List<VMInstruction> classCode) {
+        List<VMInstruction> result = new ArrayList<>(classCode.size());
+        String caller = null;
+        int siteId = 0;
+
+        for (VMInstruction instruction : classCode) {
+            if (instruction.is(VMOpcode.FUNCTION)) {
+                caller = instruction.getSymbol();
+            }
+
+            List<VMInstruction> callee = instruction.is(VMOpcode.CALL) ? candidates.get(instruction.getSymbol()) : null;
+            if (callee == null || caller == null || !fits(caller, callee, instruction.getOperand())) {
+                result.add(instruction);
+                continue;
+            }
+
+            int siteStart = result.size();
+            expand(callee, instruction.getOperand(), "INLINE_" + siteId++ + "_", result);
+
+            long cycles = VMCostModel.estimateCycles(instruction) + VMCostModel.estimateCycles(callee)
+                    - VMCostModel.estimateCycles(result.subList(siteStart, result.size()));
+            report.record(caller, instruction.getSymbol(), cycles);
+        }
+
+        return result;
+    }
+
+    private static boolean fits(String caller, List<VMInstruction> callee, int argsCount) {
+        int localsCount = callee.get(0).getOperand();
+        boolean savesThis = setsThis(callee);
+        if (argsCount + localsCount + (savesThis ? 1 : 0) > SCRATCH_TEMPS) {
+            return false;
+        }
+
+        // static i names a slot of the class the code is compiled in, so static access only inlines within a class
+        boolean sameClass = className(caller).equals(className(callee.get(0).getSymbol()));
+        for (VMInstruction instruction : callee) {
+            VMSegment segment = instruction.getSegment();
+            if ((segment == VMSegment.STATIC && !sameClass) || (segment == VMSegment.ARGUMENT && instruction.getOperand() >= argsCount)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void expand(List<VMInstruction> callee, int argsCount, String labelPrefix, List<VMInstruction> out) {
+        int localsCount = callee.get(0).getOperand();
+        int savedThis = setsThis(callee) ? FIRST_SCRATCH_TEMP + argsCount + localsCount : -1;
+        String endLabel = labelPrefix + "END";
+        boolean endUsed = false;
+
+        for (int i = argsCount - 1; i >= 0; i--) {
+            out.add(VMInstruction.pop(VMSegment.TEMP, FIRST_SCRATCH_TEMP + i));
+        }
+        if (savedThis >= 0) {
+            out.add(VMInstruction.push(VMSegment.POINTER, 0));
+            out.add(VMInstruction.pop(VMSegment.TEMP, savedThis));
+        }
+        for (int i = 0; i < localsCount; i++) {
+            out.add(VMInstruction.push(VMSegment.CONSTANT, 0));
+            out.add(VMInstruction.pop(VMSegment.TEMP, FIRST_SCRATCH_TEMP + argsCount + i));
+        }
+
+        for (int index = 1; index < callee.size(); index++) {
+            VMInstruction instruction = callee.get(index);
+
+            switch (instruction.getOpcode()) {
+                case PUSH:
+                case POP:
+                    out.add(remap(instruction, argsCount));
+                    break;
+                case LABEL:
+                    out.add(VMInstruction.label(labelPrefix + instruction.getSymbol()));
+                    break;
+                case GOTO:
+                    out.add(VMInstruction.gotoLabel(labelPrefix + instruction.getSymbol()));
+                    break;
+                case IF_GOTO:
+                    out.add(VMInstruction.ifGoto(labelPrefix + instruction.getSymbol()));
+                    break;
+                case RETURN:
+                    // the return value is already on top of the stack, where the caller expects it
+                    if (index < callee.size() - 1) {
+                        out.add(VMInstruction.gotoLabel(endLabel));
+                        endUsed = true;
+                    }
+                    break;
+                default:
+                    out.add(instruction);
+            }
+        }
+
+        if (endUsed) {
+            out.add(VMInstruction.label(endLabel));
+        }
+        if (savedThis >= 0) {
+            out.add(VMInstruction.push(VMSegment.TEMP, savedThis));
+            out.add(VMInstruction.pop(VMSegment.POINTER, 0));
+        }
+    }
+
+    private static VMInstruction remap(VMInstruction instruction, int argsCount) {
+        int slot;
+        if (instruction.getSegment() == VMSegment.ARGUMENT) {
+            slot = FIRST_SCRATCH_TEMP + instruction.getOperand();
+        } else if (instruction.getSegment() == VMSegment.LOCAL) {
+            slot = FIRST_SCRATCH_TEMP + argsCount + instruction.getOperand();
+        } else {
+            return instruction;
+        }
+
+        return instruction.is(VMOpcode.PUSH) ? VMInstruction.push(VMSegment.TEMP, slot) : VMInstruction.pop(VMSegment.TEMP, slot);
+    }
+
+    private static boolean setsThis(List<VMInstruction> callee) {
+        for (VMInstruction instruction : callee) {
+            if (instruction.isPop(VMSegment.POINTER, 0)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int nextFunction(List<VMInstruction> code, int from) {
+        int index = from;
+        while (index < code.size() && !code.get(index).is(VMOpcode.FUNCTION)) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private static String className(String functionName) {
+        return functionName.substring(0, functionName.indexOf('.'));
+    }
+
+    public InlineReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,88 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+import me.bilousov.writer.VMWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OptimizingVMWriter implements VMWriter {
+
+    private final VMWriter delegate;
+    private final PeepholeOptimizer optimizer;
+    private final List<VMInstruction> currentFunction;
+
+    public OptimizingVMWriter(VMWriter delegate, PeepholeOptimizer optimizer) {
+        this.delegate = delegate;
+        this.optimizer = optimizer;
+        this.currentFunction = new ArrayList<>();
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        currentFunction.add(VMInstruction.push(segment, index));
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        currentFunction.add(VMInstruction.pop(segment, index));
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        currentFunction.add(VMInstruction.arithmetic(command));
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        currentFunction.add(VMInstruction.label(label));
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        currentFunction.add(VMInstruction.gotoLabel(label));
+    }
+
+    @Override
+    public void writeIf(String label) {
+        currentFunction.add(VMInstruction.ifGoto(label));
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        currentFunction.add(VMInstruction.call(name, argsCount));
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        flushFunction();
+        currentFunction.add(VMInstruction.function(name, localsCount));
+    }
+
+    @Override
+    public void writeReturn() {
+        currentFunction.add(VMInstruction.ret());
+    }
+
+    private void flushFunction() {
+        if (currentFunction.isEmpty()) {
+            return;
+        }
+
+        for (VMInstruction instruction : optimizer.optimize(currentFunction)) {
+            instruction.writeTo(delegate);
+        }
+        currentFunction.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flushFunction();
+        } finally {
+            delegate.close();
+        }
+    }
+}
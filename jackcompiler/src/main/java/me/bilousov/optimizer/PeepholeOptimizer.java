@@ -0,0 +1,297 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PeepholeOptimizer {
+
+    private static final int MAX_CONSTANT = 32767;
+
+    private static final List<PeepholeRule> peepholeRules = List.of(
+            PeepholeOptimizer::foldConstantArithmetic,
+            PeepholeOptimizer::foldConstantComparison,
+            PeepholeOptimizer::removeDoubleNot,
+            PeepholeOptimizer::removeIdentityArithmetic,
+            PeepholeOptimizer::foldConstantCondition,
+            PeepholeOptimizer::removeGotoToNextLabel,
+            PeepholeOptimizer::removeSelfAssignment,
+            PeepholeOptimizer::removeArrayStoreTempShuffle
+    );
+
+    private final List<PeepholeRule> rules;
+
+    private long instructionsBefore;
+    private long instructionsAfter;
+
+    public PeepholeOptimizer() {
+        this(1);
+    }
+
+    public PeepholeOptimizer(int optimizationLevel) {
+        List<PeepholeRule> levelRules = new ArrayList<>();
+        if (optimizationLevel >= 2) {
+            levelRules.addAll(ExpressionOptimizer.rules);
+        }
+        if (optimizationLevel >= 1) {
+            levelRules.addAll(peepholeRules);
+        }
+
+        this.rules = levelRules;
+    }
+
+    public List<VMInstruction> optimize(List<VMInstruction> function) {
+        instructionsBefore += function.size();
+
+        List<VMInstruction> code = new ArrayList<>(function);
+        boolean changed = true;
+        while (changed) {
+            changed = applyRules(code);
+            changed |= removeUnreachableCode(code);
+            changed |= removeUnusedLabels(code);
+        }
+
+        instructionsAfter += code.size();
+        return code;
+    }
+
+    public long getInstructionsBefore() {
+        return instructionsBefore;
+    }
+
+    public long getInstructionsAfter() {
+        return instructionsAfter;
+    }
+
+    public long getInstructionsSaved() {
+        return instructionsBefore - instructionsAfter;
+    }
+
+    private boolean applyRules(List<VMInstruction> code) {
+        boolean changed = false;
+
+        for (int index = 0; index < code.size(); index++) {
+            for (PeepholeRule rule : rules) {
+                if (rule.rewrite(code, index)) {
+                    changed = true;
+                    index = Math.max(-1, index - 4);
+                    break;
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean removeUnreachableCode(List<VMInstruction> code) {
+        boolean changed = false;
+
+        for (int index = 0; index < code.size() - 1; index++) {
+            VMInstruction instruction = code.get(index);
+            if (!instruction.is(VMOpcode.GOTO) && !instruction.is(VMOpcode.RETURN)) {
+                continue;
+            }
+
+            while (index + 1 < code.size() && !code.get(index + 1).is(VMOpcode.LABEL) && !code.get(index + 1).is(VMOpcode.FUNCTION)) {
+                code.remove(index + 1);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean removeUnusedLabels(List<VMInstruction> code) {
+        Set<String> usedLabels = new HashSet<>();
+        for (VMInstruction instruction : code) {
+            if (instruction.is(VMOpcode.GOTO) || instruction.is(VMOpcode.IF_GOTO)) {
+                usedLabels.add(instruction.getSymbol());
+            }
+        }
+
+        return code.removeIf(instruction -> instruction.is(VMOpcode.LABEL) && !usedLabels.contains(instruction.getSymbol()));
+    }
+
+    // push constant a, push constant b, add|sub|and|or  ->  push constant (a op b)
+    private static boolean foldConstantArithmetic(List<VMInstruction> code, int index) {
+        if (index + 2 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 1).isPush(VMSegment.CONSTANT)) {
+            return false;
+        }
+
+        int left = code.get(index).getOperand();
+        int right = code.get(index + 1).getOperand();
+        int result;
+
+        switch (code.get(index + 2).getOpcode()) {
+            case ADD:
+                result = left + right;
+                break;
+            case SUB:
+                result = left - right;
+                break;
+            case AND:
+                result = left & right;
+                break;
+            case OR:
+                result = left | right;
+                break;
+            default:
+                return false;
+        }
+
+        if (result < 0 || result > MAX_CONSTANT) {
+            return false;
+        }
+
+        replace(code, index, 3, VMInstruction.push(VMSegment.CONSTANT, result));
+        return true;
+    }
+
+    // push constant a, push constant b, eq|lt|gt  ->  push constant 0 [, not]
+    private static boolean foldConstantComparison(List<VMInstruction> code, int index) {
+        if (index + 2 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT) || !code.get(index + 1).isPush(VMSegment.CONSTANT)) {
+            return false;
+        }
+
+        int left = code.get(index).getOperand();
+        int right = code.get(index + 1).getOperand();
+        boolean result;
+
+        switch (code.get(index + 2).getOpcode()) {
+            case EQ:
+                result = left == right;
+                break;
+            case LT:
+                result = left < right;
+                break;
+            case GT:
+                result = left > right;
+                break;
+            default:
+                return false;
+        }
+
+        if (result) {
+            replace(code, index, 3, VMInstruction.push(VMSegment.CONSTANT, 0), VMInstruction.arithmetic(VMOpcode.NOT));
+        } else {
+            replace(code, index, 3, VMInstruction.push(VMSegment.CONSTANT, 0));
+        }
+        return true;
+    }
+
+    // not, not  ->  (nothing)
+    private static boolean removeDoubleNot(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).is(VMOpcode.NOT) || !code.get(index + 1).is(VMOpcode.NOT)) {
+            return false;
+        }
+
+        replace(code, index, 2);
+        return true;
+    }
+
+    // push constant 0, add|sub|or  ->  (nothing);  push constant 1, call Math.multiply|Math.divide 2  ->  (nothing)
+    private static boolean removeIdentityArithmetic(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size()) {
+            return false;
+        }
+
+        VMInstruction operand = code.get(index);
+        VMInstruction operation = code.get(index + 1);
+
+        boolean identity = operand.isPushConstant(0)
+                && (operation.is(VMOpcode.ADD) || operation.is(VMOpcode.SUB) || operation.is(VMOpcode.OR));
+        identity |= operand.isPushConstant(1)
+                && (operation.isCall("Math.multiply", 2) || operation.isCall("Math.divide", 2));
+
+        if (!identity) {
+            return false;
+        }
+
+        replace(code, index, 2);
+        return true;
+    }
+
+    // push constant 0, if-goto L  ->  (nothing);  push constant 0, not, if-goto L  ->  goto L
+    private static boolean foldConstantCondition(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).isPush(VMSegment.CONSTANT)) {
+            return false;
+        }
+
+        if (code.get(index + 1).is(VMOpcode.IF_GOTO)) {
+            if (code.get(index).getOperand() == 0) {
+                replace(code, index, 2);
+            } else {
+                replace(code, index, 2, VMInstruction.gotoLabel(code.get(index + 1).getSymbol()));
+            }
+            return true;
+        }
+
+        if (index + 2 < code.size() && code.get(index).getOperand() == 0
+                && code.get(index + 1).is(VMOpcode.NOT) && code.get(index + 2).is(VMOpcode.IF_GOTO)) {
+            replace(code, index, 3, VMInstruction.gotoLabel(code.get(index + 2).getSymbol()));
+            return true;
+        }
+
+        return false;
+    }
+
+    // goto L, label M..., label L  ->  label M..., label L
+    private static boolean removeGotoToNextLabel(List<VMInstruction> code, int index) {
+        if (!code.get(index).is(VMOpcode.GOTO)) {
+            return false;
+        }
+
+        String target = code.get(index).getSymbol();
+        for (int next = index + 1; next < code.size() && code.get(next).is(VMOpcode.LABEL); next++) {
+            if (code.get(next).getSymbol().equals(target)) {
+                code.remove(index);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // push s i, pop s i  ->  (nothing)
+    private static boolean removeSelfAssignment(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).is(VMOpcode.PUSH) || code.get(index).isPush(VMSegment.CONSTANT)
+                || !code.get(index + 1).isPop(code.get(index).getSegment(), code.get(index).getOperand())) {
+            return false;
+        }
+
+        replace(code, index, 2);
+        return true;
+    }
+
+    // push x, pop temp 0, pop pointer 1, push temp 0, pop that 0  ->  pop pointer 1, push x, pop that 0
+    private static boolean removeArrayStoreTempShuffle(List<VMInstruction> code, int index) {
+        if (index + 4 >= code.size()) {
+            return false;
+        }
+
+        VMInstruction value = code.get(index);
+        if (!value.is(VMOpcode.PUSH) || value.getSegment() == VMSegment.THAT || value.getSegment() == VMSegment.POINTER
+                || value.getSegment() == VMSegment.TEMP) {
+            return false;
+        }
+
+        if (!code.get(index + 1).isPop(VMSegment.TEMP, 0) || !code.get(index + 2).isPop(VMSegment.POINTER, 1)
+                || !code.get(index + 3).equals(VMInstruction.push(VMSegment.TEMP, 0)) || !code.get(index + 4).isPop(VMSegment.THAT, 0)) {
+            return false;
+        }
+
+        replace(code, index, 5, code.get(index + 2), value, code.get(index + 4));
+        return true;
+    }
+
+    static void replace(List<VMInstruction> code, int index, int length, VMInstruction... replacement) {
+        List<VMInstruction> window = code.subList(index, index + length);
+        window.clear();
+        window.addAll(List.of(replacement));
+    }
+}
@@ -0,0 +1,11 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+
+import java.util.List;
+
+@FunctionalInterface
+interface PeepholeRule {
+
+    boolean rewrite(List<VMInstruction> code, int index);
+}
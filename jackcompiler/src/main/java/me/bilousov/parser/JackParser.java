@@ -0,0 +1,543 @@
+package me.bilousov.parser;
+
+import me.bilousov.ast.*;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.util.CompilationException;
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.TokenType;
+import me.bilousov.util.VariableKind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Recursive descent parser for one class. A syntax error is recorded with its line and column and the
+// parser skips ahead to the next ';' or '}' (or the next statement, declaration or subroutine), so a
+// single pass reports every error in the file; parseClass() then throws them all together.
+public class JackParser {
+
+    private static final ExpressionNode[] NO_EXPRESSIONS = new ExpressionNode[0];
+
+    private final JackTokenizer tokenizer;
+    private final List<Diagnostic> diagnostics;
+
+    // set by advancing past the last token; the tokenizer itself stays on that token
+    private boolean atEnd;
+
+    public JackParser(JackTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        this.diagnostics = tokenizer.getDiagnostics();
+        advance();
+    }
+
+    public ClassNode parseClass() {
+        if (tokenizer.tokenCount() == 0) {
+            diagnostics.add(new Diagnostic(1, 1, "Expected 'class' but the file is empty"));
+            throw new CompilationException(diagnostics);
+        }
+
+        ClassNode classNode;
+        try {
+            classNode = parseClassBody();
+        } catch (SyntaxError e) {
+            classNode = null;
+        }
+
+        if (!diagnostics.isEmpty()) {
+            throw new CompilationException(diagnostics);
+        }
+
+        return classNode;
+    }
+
+    private ClassNode parseClassBody() {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        expectKeyword(JackKeyword.CLASS);
+        String className = expectIdentifier();
+        expectSymbol('{');
+
+        List<VarDecNode> classVarDecs = new ArrayList<>();
+        while (isKeyword(JackKeyword.STATIC) || isKeyword(JackKeyword.FIELD)) {
+            VariableKind kind = isKeyword(JackKeyword.FIELD) ? VariableKind.FIELD : VariableKind.STATIC;
+            advance();
+            try {
+                classVarDecs.add(parseVarDec(kind));
+            } catch (SyntaxError e) {
+                skipPastSemicolon();
+            }
+        }
+
+        List<SubroutineNode> subroutines = new ArrayList<>();
+        while (true) {
+            if (isSubroutineStart()) {
+                try {
+                    subroutines.add(parseSubroutine());
+                } catch (SyntaxError e) {
+                    skipToSubroutine();
+                }
+            } else if (isSymbol('}') || atEnd) {
+                break;
+            } else {
+                report("a subroutine declaration or '}'");
+                skipToSubroutine();
+            }
+        }
+
+        if (!isSymbol('}')) {
+            throw unexpected("'}'");
+        }
+
+        return positioned(new ClassNode(className, classVarDecs.toArray(new VarDecNode[0]), subroutines.toArray(new SubroutineNode[0])), line, column);
+    }
+
+    private VarDecNode parseVarDec(VariableKind kind) {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        String type = expectType();
+        List<String> names = new ArrayList<>();
+        names.add(expectIdentifier());
+
+        while (isSymbol(',')) {
+            advance();
+            names.add(expectIdentifier());
+        }
+        expectSymbol(';');
+
+        return positioned(new VarDecNode(kind, type, names.toArray(new String[0])), line, column);
+    }
+
+    private ParameterNode parseParameter() {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+
+        return positioned(new ParameterNode(expectType(), expectIdentifier()), line, column);
+    }
+
+    private SubroutineNode parseSubroutine() {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        JackKeyword kind = keyword();
+        advance();
+        String returnType = expectType();
+        String name = expectIdentifier();
+
+        expectSymbol('(');
+        List<ParameterNode> parameters = new ArrayList<>();
+        if (!isSymbol(')')) {
+            parameters.add(parseParameter());
+            while (isSymbol(',')) {
+                advance();
+                parameters.add(parseParameter());
+            }
+        }
+        expectSymbol(')');
+
+        expectSymbol('{');
+        List<VarDecNode> varDecs = new ArrayList<>();
+        while (isKeyword(JackKeyword.VAR)) {
+            advance();
+            try {
+                varDecs.add(parseVarDec(VariableKind.LOCAL));
+            } catch (SyntaxError e) {
+                skipPastSemicolon();
+            }
+        }
+        StatementNode[] statements = parseStatements();
+        expectSymbol('}');
+
+        return positioned(new SubroutineNode(kind, returnType, name, parameters.toArray(new ParameterNode[0]),
+                varDecs.toArray(new VarDecNode[0]), statements), line, column);
+    }
+
+    private StatementNode[] parseStatements() {
+        List<StatementNode> statements = new ArrayList<>();
+
+        while (true) {
+            int line = tokenizer.line();
+            int column = tokenizer.column();
+            StatementNode statement;
+
+            try {
+                JackKeyword keyword = keyword();
+                if (keyword == JackKeyword.LET) {
+                    statement = parseLet();
+                } else if (keyword == JackKeyword.IF) {
+                    statement = parseIf();
+                } else if (keyword == JackKeyword.WHILE) {
+                    statement = parseWhile();
+                } else if (keyword == JackKeyword.DO) {
+                    statement = parseDo();
+                } else if (keyword == JackKeyword.RETURN) {
+                    statement = parseReturn();
+                } else if (isSymbol('}') || isSubroutineStart() || atEnd) {
+                    return statements.toArray(new StatementNode[0]);
+                } else {
+                    throw unexpected("a statement");
+                }
+            } catch (SyntaxError e) {
+                if (!skipToStatement()) {
+                    return statements.toArray(new StatementNode[0]);
+                }
+                continue;
+            }
+
+            statements.add(positioned(statement, line, column));
+        }
+    }
+
+    private LetStatement parseLet() {
+        advance();
+        String varName = expectIdentifier();
+        ExpressionNode index = null;
+
+        if (isSymbol('[')) {
+            advance();
+            index = parseExpression();
+            expectSymbol(']');
+        }
+
+        expectSymbol('=');
+        ExpressionNode value = parseExpression();
+        expectSymbol(';');
+
+        return new LetStatement(varName, index, value);
+    }
+
+    private IfStatement parseIf() {
+        advance();
+        ExpressionNode condition = parseCondition();
+        StatementNode[] thenStatements = parseBlock();
+        StatementNode[] elseStatements = null;
+
+        if (isKeyword(JackKeyword.ELSE)) {
+            advance();
+            elseStatements = parseBlock();
+        }
+
+        return new IfStatement(condition, thenStatements, elseStatements);
+    }
+
+    private WhileStatement parseWhile() {
+        advance();
+        ExpressionNode condition = parseCondition();
+
+        return new WhileStatement(condition, parseBlock());
+    }
+
+    private DoStatement parseDo() {
+        advance();
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        String firstName = expectIdentifier();
+        SubroutineCall call = positioned(parseSubroutineCall(firstName), line, column);
+        expectSymbol(';');
+
+        return new DoStatement(call);
+    }
+
+    private ReturnStatement parseReturn() {
+        advance();
+        ExpressionNode value = isSymbol(';') ? null : parseExpression();
+        expectSymbol(';');
+
+        return new ReturnStatement(value);
+    }
+
+    private ExpressionNode parseCondition() {
+        expectSymbol('(');
+        ExpressionNode condition = parseExpression();
+        expectSymbol(')');
+
+        return condition;
+    }
+
+    private StatementNode[] parseBlock() {
+        expectSymbol('{');
+        StatementNode[] statements = parseStatements();
+        expectSymbol('}');
+
+        return statements;
+    }
+
+    private ExpressionNode parseExpression() {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        ExpressionNode expression = parseTerm();
+
+        while (isOperator(symbolChar())) {
+            char operator = symbolChar();
+            advance();
+            expression = positioned(new BinaryExpression(operator, expression, parseTerm()), line, column);
+        }
+
+        return expression;
+    }
+
+    private ExpressionNode parseTerm() {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        ExpressionNode term = parseTermAt();
+
+        // a parenthesized expression keeps the position of its contents
+        if (term.getLine() == 0) {
+            term.setPosition(line, column);
+        }
+
+        return term;
+    }
+
+    private ExpressionNode parseTermAt() {
+        TokenType tokenType = tokenType();
+
+        if (tokenType == TokenType.INT_CONST) {
+            int value = tokenizer.intVal();
+            advance();
+            return new IntegerConstant(value);
+        }
+
+        if (tokenType == TokenType.STRING_CONST) {
+            String value = tokenizer.stringVal();
+            advance();
+            return new StringConstant(value);
+        }
+
+        if (tokenType == TokenType.KEYWORD) {
+            JackKeyword keyword = keyword();
+            if (keyword != JackKeyword.TRUE && keyword != JackKeyword.FALSE && keyword != JackKeyword.NULL && keyword != JackKeyword.THIS) {
+                throw unexpected("an expression");
+            }
+            advance();
+            return new KeywordConstant(keyword);
+        }
+
+        if (isSymbol('(')) {
+            advance();
+            ExpressionNode expression = parseExpression();
+            expectSymbol(')');
+            expression.parenthesize();
+            return expression;
+        }
+
+        if (isSymbol('-') || isSymbol('~')) {
+            char operator = symbolChar();
+            advance();
+            return new UnaryExpression(operator, parseTerm());
+        }
+
+        String name = expectIdentifier();
+
+        if (isSymbol('[')) {
+            advance();
+            ExpressionNode index = parseExpression();
+            expectSymbol(']');
+            return new ArrayAccess(name, index);
+        }
+
+        if (isSymbol('(') || isSymbol('.')) {
+            return parseSubroutineCall(name);
+        }
+
+        return new VariableReference(name);
+    }
+
+    // the caller has consumed firstName and sets the call's position
+    private SubroutineCall parseSubroutineCall(String firstName) {
+        String receiver = null;
+        String name = firstName;
+
+        if (isSymbol('.')) {
+            advance();
+            receiver = firstName;
+            name = expectIdentifier();
+        }
+
+        expectSymbol('(');
+        ExpressionNode[] arguments = parseExpressionList();
+        expectSymbol(')');
+
+        return new SubroutineCall(receiver, name, arguments);
+    }
+
+    private ExpressionNode[] parseExpressionList() {
+        if (isSymbol(')')) {
+            return NO_EXPRESSIONS;
+        }
+
+        List<ExpressionNode> expressions = new ArrayList<>();
+        expressions.add(parseExpression());
+        while (isSymbol(',')) {
+            advance();
+            expressions.add(parseExpression());
+        }
+
+        return expressions.toArray(NO_EXPRESSIONS);
+    }
+
+    private static boolean isOperator(char symbol) {
+        switch (symbol) {
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '&':
+            case '|':
+            case '<':
+            case '>':
+            case '=':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void expectKeyword(JackKeyword keyword) {
+        if (!isKeyword(keyword)) {
+            throw unexpected("'" + keyword.getLexeme() + "'");
+        }
+        advance();
+    }
+
+    private void expectSymbol(char symbol) {
+        if (!isSymbol(symbol)) {
+            throw unexpected("'" + symbol + "'");
+        }
+        advance();
+    }
+
+    private String expectIdentifier() {
+        if (tokenType() != TokenType.IDENTIFIER) {
+            throw unexpected("an identifier");
+        }
+
+        String identifier = tokenizer.identifier().intern();
+        advance();
+        return identifier;
+    }
+
+    private String expectType() {
+        JackKeyword keyword = keyword();
+        if (keyword == JackKeyword.INT || keyword == JackKeyword.CHAR || keyword == JackKeyword.BOOLEAN || keyword == JackKeyword.VOID) {
+            advance();
+            return keyword.getLexeme();
+        }
+
+        return expectIdentifier();
+    }
+
+    private void advance() {
+        if (tokenizer.hasMoreTokens()) {
+            tokenizer.advance();
+        } else {
+            atEnd = true;
+        }
+    }
+
+    private TokenType tokenType() {
+        return atEnd ? null : tokenizer.tokenType();
+    }
+
+    private JackKeyword keyword() {
+        return atEnd ? null : tokenizer.keyword();
+    }
+
+    private boolean isKeyword(JackKeyword keyword) {
+        return !atEnd && tokenizer.isKeyword(keyword);
+    }
+
+    private char symbolChar() {
+        return atEnd ? 0 : tokenizer.symbolChar();
+    }
+
+    private boolean isSymbol(char symbol) {
+        return !atEnd && tokenizer.isSymbol(symbol);
+    }
+
+    private boolean isSubroutineStart() {
+        return isKeyword(JackKeyword.CONSTRUCTOR) || isKeyword(JackKeyword.FUNCTION) || isKeyword(JackKeyword.METHOD);
+    }
+
+    private static boolean isStatementStart(JackKeyword keyword) {
+        return keyword == JackKeyword.LET || keyword == JackKeyword.IF || keyword == JackKeyword.WHILE
+                || keyword == JackKeyword.DO || keyword == JackKeyword.RETURN;
+    }
+
+    // after an error inside a statement: past the next ';', or up to a '}' or the start of another
+    // statement. False when that is the end of the statement list (a subroutine or the end of the file).
+    // A block met on the way, as in "while (x {", is still parsed so its '}' does not end the subroutine
+    private boolean skipToStatement() {
+        while (!atEnd) {
+            if (isSymbol('{')) {
+                try {
+                    parseBlock();
+                } catch (SyntaxError e) {
+                    return false;
+                }
+                continue;
+            }
+            if (isSymbol(';')) {
+                advance();
+                return true;
+            }
+            if (isSymbol('}') || isStatementStart(keyword())) {
+                return true;
+            }
+            if (isSubroutineStart()) {
+                return false;
+            }
+            advance();
+        }
+
+        return false;
+    }
+
+    private void skipPastSemicolon() {
+        while (!atEnd && !isSymbol(';') && !isSubroutineStart()) {
+            advance();
+        }
+        if (isSymbol(';')) {
+            advance();
+        }
+    }
+
+    private void skipToSubroutine() {
+        while (!atEnd && !isSubroutineStart()) {
+            advance();
+        }
+    }
+
+    private static <T extends Positioned> T positioned(T node, int line, int column) {
+        node.setPosition(line, column);
+        return node;
+    }
+
+    // records the error unless one was already reported at this token, which happens when recovery stops
+    // on the token that caused it
+    private void report(String expected) {
+        int line = tokenizer.line();
+        int column = tokenizer.column();
+        for (Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.isAt(line, column)) {
+                return;
+            }
+        }
+
+        String found = atEnd ? "the end of the file" : "'" + tokenizer.tokenText() + "'";
+        diagnostics.add(new Diagnostic(line, column, "Expected " + expected + " but found " + found));
+    }
+
+    private SyntaxError unexpected(String expected) {
+        report(expected);
+        return new SyntaxError();
+    }
+
+    // unwinds to the nearest recovery point; the diagnostic itself is already recorded
+    private static class SyntaxError extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        SyntaxError() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package me.bilousov.program;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Call edges between the VM functions of a program, read from generated code rather than the source,
+// so every call the VM will execute is seen. Calls into the Jack OS lead out of the graph.
+public class CallGraph {
+
+    private final Map<String, Set<String>> callees;
+    private final Map<String, Integer> functionSizes;
+
+    public CallGraph() {
+        this.callees = new ConcurrentHashMap<>();
+        this.functionSizes = new ConcurrentHashMap<>();
+    }
+
+    // safe to call from several workers at once, one class's instructions per call
+    public void addFunctions(List<VMInstruction> instructions) {
+        String function = null;
+        Set<String> calls = null;
+        int size = 0;
+
+        for (VMInstruction instruction : instructions) {
+            if (instruction.is(VMOpcode.FUNCTION)) {
+                if (function != null) {
+                    addFunction(function, calls, size);
+                }
+                function = instruction.getSymbol();
+                calls = new HashSet<>();
+                size = 0;
+            } else if (instruction.is(VMOpcode.CALL) && calls != null) {
+                calls.add(instruction.getSymbol());
+            }
+            size++;
+        }
+
+        if (function != null) {
+            addFunction(function, calls, size);
+        }
+    }
+
+    private void addFunction(String function, Set<String> calls, int size) {
+        callees.put(function, calls);
+        functionSizes.put(function, size);
+    }
+
+    public boolean contains(String function) {
+        return callees.containsKey(function);
+    }
+
+    public Set<String> getFunctions() {
+        return callees.keySet();
+    }
+
+    public int getFunctionSize(String function) {
+        return functionSizes.getOrDefault(function, 0);
+    }
+
+    // roots the graph does not contain are skipped
+    public Set<String> reachableFrom(Collection<String> roots) {
+        Set<String> reachable = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+
+        for (String root : roots) {
+            if (contains(root) && reachable.add(root)) {
+                pending.add(root);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            for (String callee : callees.get(pending.poll())) {
+                if (contains(callee) && reachable.add(callee)) {
+                    pending.add(callee);
+                }
+            }
+        }
+
+        return reachable;
+    }
+}
@@ -0,0 +1,84 @@
+package me.bilousov.program;
+
+import me.bilousov.util.JackKeyword;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Signatures of the standard Jack OS classes, which are linked in at VM level and never compiled from source.
+public class JackOS {
+
+    private static final String[] declarations = {
+            "Math function void init()",
+            "Math function int abs(int)",
+            "Math function int multiply(int, int)",
+            "Math function int divide(int, int)",
+            "Math function int min(int, int)",
+            "Math function int max(int, int)",
+            "Math function int sqrt(int)",
+            "String constructor String new(int)",
+            "String method void dispose()",
+            "String method int length()",
+            "String method char charAt(int)",
+            "String method void setCharAt(int, char)",
+            "String method String appendChar(char)",
+            "String method void eraseLastChar()",
+            "String method int intValue()",
+            "String method void setInt(int)",
+            "String function char backSpace()",
+            "String function char doubleQuote()",
+            "String function char newLine()",
+            "Array function Array new(int)",
+            "Array method void dispose()",
+            "Output function void init()",
+            "Output function void moveCursor(int, int)",
+            "Output function void printChar(char)",
+            "Output function void printString(String)",
+            "Output function void printInt(int)",
+            "Output function void println()",
+            "Output function void backSpace()",
+            "Screen function void init()",
+            "Screen function void clearScreen()",
+            "Screen function void setColor(boolean)",
+            "Screen function void drawPixel(int, int)",
+            "Screen function void drawLine(int, int, int, int)",
+            "Screen function void drawRectangle(int, int, int, int)",
+            "Screen function void drawCircle(int, int, int)",
+            "Keyboard function void init()",
+            "Keyboard function char keyPressed()",
+            "Keyboard function char readChar()",
+            "Keyboard function String readLine(String)",
+            "Keyboard function int readInt(String)",
+            "Memory function void init()",
+            "Memory function int peek(int)",
+            "Memory function void poke(int, int)",
+            "Memory function Array alloc(int)",
+            "Memory function void deAlloc(Array)",
+            "Sys function void init()",
+            "Sys function void halt()",
+            "Sys function void error(int)",
+            "Sys function void wait(int)"
+    };
+
+    private static final List<SubroutineSignature> signatures = parse();
+
+    public static List<SubroutineSignature> getSignatures() {
+        return signatures;
+    }
+
+    private static List<SubroutineSignature> parse() {
+        List<SubroutineSignature> parsed = new ArrayList<>();
+
+        for (String declaration : declarations) {
+            int open = declaration.indexOf('(');
+            String[] words = declaration.substring(0, open).split(" ");
+            String parameters = declaration.substring(open + 1, declaration.length() - 1);
+            JackKeyword kind = JackKeyword.valueOf(words[1].toUpperCase());
+
+            parsed.add(new SubroutineSignature(words[0], kind, words[2], words[3],
+                    parameters.isEmpty() ? new String[0] : parameters.split(", ")));
+        }
+
+        return parsed;
+    }
+}
@@ -0,0 +1,72 @@
+package me.bilousov.program;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.ast.ParameterNode;
+import me.bilousov.ast.SubroutineNode;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ProgramIndex {
+
+    private final Map<String, Map<String, SubroutineSignature>> classes;
+
+    public ProgramIndex() {
+        this.classes = new ConcurrentHashMap<>();
+    }
+
+    public static ProgramIndex withJackOS() {
+        ProgramIndex index = new ProgramIndex();
+        for (SubroutineSignature signature : JackOS.getSignatures()) {
+            index.classes.computeIfAbsent(signature.getClassName(), name -> new ConcurrentHashMap<>()).put(signature.getName(), signature);
+        }
+
+        return index;
+    }
+
+    // safe to call from several workers at once; a class defined twice keeps the last definition indexed
+    public void add(ClassNode classNode) {
+        Map<String, SubroutineSignature> subroutines = new ConcurrentHashMap<>();
+
+        for (SubroutineNode subroutine : classNode.getSubroutines()) {
+            ParameterNode[] parameters = subroutine.getParameters();
+            String[] parameterTypes = new String[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                parameterTypes[i] = parameters[i].getType();
+            }
+
+            subroutines.put(subroutine.getName(), new SubroutineSignature(classNode.getName(), subroutine.getKind(),
+                    subroutine.getReturnType(), subroutine.getName(), parameterTypes));
+        }
+
+        classes.put(classNode.getName(), subroutines);
+    }
+
+    public boolean hasClass(String className) {
+        return classes.containsKey(className);
+    }
+
+    public SubroutineSignature lookup(String className, String subroutineName) {
+        Map<String, SubroutineSignature> subroutines = classes.get(className);
+
+        return subroutines != null ? subroutines.get(subroutineName) : null;
+    }
+
+    public int classCount() {
+        return classes.size();
+    }
+
+    // stable text of every signature, used to key build cache entries on the whole program's interface
+    public String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+
+        for (Map<String, SubroutineSignature> subroutines : new TreeMap<>(classes).values()) {
+            for (SubroutineSignature signature : new TreeMap<>(subroutines).values()) {
+                fingerprint.append(signature).append(';');
+            }
+        }
+
+        return fingerprint.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package me.bilousov.program;
+
+import me.bilousov.util.JackKeyword;
+
+import java.util.Arrays;
+
+public class SubroutineSignature {
+
+    private final String className;
+    private final JackKeyword kind;
+    private final String returnType;
+    private final String name;
+    private final String[] parameterTypes;
+
+    public SubroutineSignature(String className, JackKeyword kind, String returnType, String name, String[] parameterTypes) {
+        this.className = className;
+        this.kind = kind;
+        this.returnType = returnType;
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public JackKeyword getKind() {
+        return kind;
+    }
+
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    public boolean isMethod() {
+        return kind == JackKeyword.METHOD;
+    }
+
+    public String getQualifiedName() {
+        return className + "." + name;
+    }
+
+    @Override
+    public String toString() {
+        return kind.getLexeme() + " " + returnType + " " + getQualifiedName() + "(" + String.join(", ", Arrays.asList(parameterTypes)) + ")";
+    }
+}
@@ -0,0 +1,227 @@
+package me.bilousov.tokenizer;
+
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.TokenType;
+
+import java.util.List;
+
+public class JackScanner {
+
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte LETTER = 2;
+    private static final byte DIGIT = 3;
+    private static final byte SYMBOL = 4;
+    private static final byte QUOTE = 5;
+    private static final byte SLASH = 6;
+
+    private static final byte[] charClasses = new byte[128];
+
+    static {
+        for (char ch : " \t\r\n\f".toCharArray()) {
+            charClasses[ch] = WHITESPACE;
+        }
+        for (char ch = 'a'; ch <= 'z'; ch++) {
+            charClasses[ch] = LETTER;
+        }
+        for (char ch = 'A'; ch <= 'Z'; ch++) {
+            charClasses[ch] = LETTER;
+        }
+        charClasses['_'] = LETTER;
+        for (char ch = '0'; ch <= '9'; ch++) {
+            charClasses[ch] = DIGIT;
+        }
+        for (char ch : "{}()[].,;+-*&|<>=~".toCharArray()) {
+            charClasses[ch] = SYMBOL;
+        }
+        charClasses['"'] = QUOTE;
+        charClasses['/'] = SLASH;
+    }
+
+    private final char[] source;
+    private final int length;
+    private final List<Diagnostic> diagnostics;
+
+    private int position;
+    private int line = 1;
+    private int lineStart;
+    private int tokenLine;
+    private int tokenStart;
+    private int tokenEnd;
+    private TokenType tokenType;
+    private JackKeyword keyword;
+
+    // with a diagnostics list a lexical error is recorded there and scanning resumes after it;
+    // without one it is thrown
+    public JackScanner(char[] source, int length, List<Diagnostic> diagnostics) {
+        this.source = source;
+        this.length = length;
+        this.diagnostics = diagnostics;
+    }
+
+    public JackScanner(char[] source, int length) {
+        this(source, length, null);
+    }
+
+    public JackScanner(char[] source) {
+        this(source, source.length);
+    }
+
+    public boolean next() {
+        while (position < length) {
+            char ch = source[position];
+            byte charClass = ch < 128 ? charClasses[ch] : OTHER;
+
+            switch (charClass) {
+                case WHITESPACE:
+                    if (ch == '\n') {
+                        newLine(position);
+                    }
+                    position++;
+                    break;
+                case SLASH:
+                    if (position + 1 < length && source[position + 1] == '/') {
+                        skipLineComment();
+                    } else if (position + 1 < length && source[position + 1] == '*') {
+                        skipBlockComment();
+                    } else {
+                        return emit(TokenType.SYMBOL, position, position + 1);
+                    }
+                    break;
+                case SYMBOL:
+                    return emit(TokenType.SYMBOL, position, position + 1);
+                case DIGIT:
+                    return emit(TokenType.INT_CONST, position, scanWhile(position + 1, false));
+                case LETTER:
+                    return emitWord(position, scanWhile(position + 1, true));
+                case QUOTE:
+                    int end = scanString();
+                    if (end < 0) {
+                        break;
+                    }
+                    return emit(TokenType.STRING_CONST, position, end);
+                default:
+                    error(position, "Unexpected character '" + ch + "'");
+                    position++;
+            }
+        }
+
+        tokenType = null;
+        return false;
+    }
+
+    private void newLine(int newLineOffset) {
+        line++;
+        lineStart = newLineOffset + 1;
+    }
+
+    private void error(int offset, String message) {
+        Diagnostic diagnostic = new Diagnostic(line, offset - lineStart + 1, message);
+        if (diagnostics == null) {
+            throw new IllegalStateException(diagnostic.toString());
+        }
+
+        diagnostics.add(diagnostic);
+    }
+
+    private boolean emit(TokenType type, int start, int end) {
+        this.tokenType = type;
+        this.tokenLine = line;
+        this.keyword = null;
+        this.tokenStart = start;
+        this.tokenEnd = end;
+        this.position = end;
+        return true;
+    }
+
+    private boolean emitWord(int start, int end) {
+        JackKeyword wordKeyword = JackKeyword.fromChars(source, start, end - start);
+        emit(wordKeyword != null ? TokenType.KEYWORD : TokenType.IDENTIFIER, start, end);
+        this.keyword = wordKeyword;
+        return true;
+    }
+
+    private int scanWhile(int from, boolean allowLetters) {
+        int end = from;
+        while (end < length && source[end] < 128) {
+            byte charClass = charClasses[source[end]];
+            if (charClass != DIGIT && !(allowLetters && charClass == LETTER)) {
+                break;
+            }
+            end++;
+        }
+
+        return end;
+    }
+
+    // -1 for a literal that runs into the end of its line, which is reported and skipped
+    private int scanString() {
+        int end = position + 1;
+        while (end < length && source[end] != '"' && source[end] != '\n') {
+            end++;
+        }
+
+        if (end == length || source[end] == '\n') {
+            error(position, "Unterminated string literal");
+            position = end;
+            return -1;
+        }
+
+        return end + 1;
+    }
+
+    private void skipLineComment() {
+        position += 2;
+        while (position < length && source[position] != '\n') {
+            position++;
+        }
+    }
+
+    private void skipBlockComment() {
+        int commentStart = position;
+        int commentLine = line;
+        int commentLineStart = lineStart;
+        position += 2;
+        while (position + 1 < length && !(source[position] == '*' && source[position + 1] == '/')) {
+            if (source[position] == '\n') {
+                newLine(position);
+            }
+            position++;
+        }
+
+        if (position + 1 >= length) {
+            line = commentLine;
+            lineStart = commentLineStart;
+            error(commentStart, "Unterminated comment");
+            position = length;
+            return;
+        }
+
+        position += 2;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+    public JackKeyword getKeyword() {
+        return keyword;
+    }
+
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    public int getTokenLine() {
+        return tokenLine;
+    }
+
+    public int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    public String getTokenText() {
+        return new String(source, tokenStart, tokenEnd - tokenStart);
+    }
+}
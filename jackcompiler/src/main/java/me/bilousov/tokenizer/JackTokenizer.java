@@ -0,0 +1,146 @@
+package me.bilousov.tokenizer;
+
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.TokenType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JackTokenizer {
+
+    private File currentFile;
+    private final TokenStream tokens;
+    private final List<Diagnostic> diagnostics;
+    private int tokenIndex = -1;
+
+    public JackTokenizer(File jackFile) throws IOException {
+        this(jackFile, SourceReader.read(jackFile));
+    }
+
+    public JackTokenizer(File jackFile, byte[] content) {
+        this(jackFile, ByteBuffer.wrap(content));
+    }
+
+    public JackTokenizer(File jackFile, ByteBuffer content) {
+        this.currentFile = jackFile;
+        char[] source = SourceReader.decode(content);
+        this.diagnostics = new ArrayList<>();
+        this.tokens = TokenStream.scan(source, source.length, diagnostics);
+    }
+
+    public boolean hasMoreTokens(){
+        return tokenIndex + 1 < tokens.size();
+    }
+
+    public int tokenCount(){
+        return tokens.size();
+    }
+
+    public void reset(){
+        tokenIndex = -1;
+    }
+
+    public String advance(){
+        if(hasMoreTokens()){
+            tokenIndex++;
+        }
+
+        return getCurrentToken();
+    }
+
+    public String getCurrentToken(){
+        if(tokenType() == TokenType.SYMBOL){
+            return symbol();
+        }
+
+        return tokens.text(tokenIndex);
+    }
+
+    // the token as written in the source, without the XML escaping getCurrentToken() applies
+    public String tokenText(){
+        return tokens.text(tokenIndex);
+    }
+
+    public String xmlTokenType(){
+        return tokenType().getXmlLabel();
+    }
+
+    public TokenType tokenType(){
+        return tokens.type(tokenIndex);
+    }
+
+    public JackKeyword keyword(){
+        return tokens.keyword(tokenIndex);
+    }
+
+    public boolean isKeyword(JackKeyword keyword){
+        return tokens.keyword(tokenIndex) == keyword;
+    }
+
+    public char symbolChar(){
+        return tokens.symbol(tokenIndex);
+    }
+
+    public boolean isSymbol(char symbol){
+        return tokens.symbol(tokenIndex) == symbol;
+    }
+
+    public String keyWord(){
+        return tokens.text(tokenIndex);
+    }
+
+    public String symbol(){
+        switch (symbolChar()){
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '&':
+                return "&amp;";
+            default:
+                return tokens.text(tokenIndex);
+        }
+    }
+
+    public String identifier(){
+        return tokens.name(tokenIndex);
+    }
+
+    public int intVal(){
+        return tokens.intValue(tokenIndex);
+    }
+
+    public String stringVal(){
+        return tokens.stringValue(tokenIndex);
+    }
+
+    public int sourceOffset(){
+        return tokens.offset(tokenIndex);
+    }
+
+    public int line(){
+        return tokenIndex >= 0 ? tokens.line(tokenIndex) : 1;
+    }
+
+    public int column(){
+        return tokenIndex >= 0 ? tokens.column(tokenIndex) : 1;
+    }
+
+    // problems found in this file so far: lexical errors from the scan, then whatever the parser adds
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public File getCurrentFile() {
+        return currentFile;
+    }
+
+    public void setCurrentFile(File currentFile) {
+        this.currentFile = currentFile;
+    }
+}
@@ -0,0 +1,89 @@
+package me.bilousov.tokenizer;
+
+import java.util.Arrays;
+
+public class NameTable {
+
+    private String[] names;
+    private int[] slots;
+    private int size;
+
+    public NameTable() {
+        this.names = new String[64];
+        this.slots = new int[128];
+        Arrays.fill(slots, -1);
+    }
+
+    public int intern(char[] source, int start, int length) {
+        int hash = hash(source, start, length);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != -1) {
+            String candidate = names[slots[slot]];
+            if (matches(candidate, source, start, length)) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+
+        names[size] = new String(source, start, length);
+        slots[slot] = size;
+
+        if (++size * 2 > slots.length) {
+            rehash();
+        }
+
+        return size - 1;
+    }
+
+    public String get(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            String name = names[id];
+            int slot = name.hashCode() & mask;
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    private static int hash(char[] source, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + source[i];
+        }
+
+        return hash;
+    }
+
+    private static boolean matches(String candidate, char[] source, int start, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != source[start + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package me.bilousov.tokenizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+public class SourceReader {
+
+    // the whole file goes into one heap buffer, which the cache hashes and decode() widens into the scanner's
+    // char[]; mapping large files would not save anything, since decode() copies every byte onto the heap anyway
+    public static ByteBuffer read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file.getName() + " is too large to compile (" + size + " bytes)");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full or the file shrank underneath us
+            }
+
+            return buffer.flip();
+        }
+    }
+
+    // Jack sources are almost always ASCII, which decodes one byte to one char without a CharsetDecoder
+    // or an intermediate String; anything else goes through a strict UTF-8 decode of the same buffer
+    public static char[] decode(ByteBuffer content) {
+        ByteBuffer bytes = content.duplicate();
+        int start = bytes.position();
+        int length = bytes.remaining();
+        char[] source = new char[length];
+
+        for (int i = 0; i < length; i++) {
+            byte b = bytes.get(start + i);
+            if (b < 0) {
+                return decodeUtf8(bytes);
+            }
+            source[i] = (char) b;
+        }
+
+        return source;
+    }
+
+    private static char[] decodeUtf8(ByteBuffer bytes) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        try {
+            CharBuffer chars = decoder.decode(bytes);
+            char[] source = new char[chars.remaining()];
+            chars.get(source);
+
+            return source;
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException("Could not decode source as UTF-8", e);
+        }
+    }
+}
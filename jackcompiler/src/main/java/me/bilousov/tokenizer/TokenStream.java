@@ -0,0 +1,176 @@
+package me.bilousov.tokenizer;
+
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.JackKeyword;
+import me.bilousov.util.TokenType;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TokenStream {
+
+    private static final TokenType[] tokenTypes = TokenType.values();
+    private static final JackKeyword[] keywords = JackKeyword.values();
+    private static final int MAX_INT_CONSTANT = 32767;
+    private static final String[] symbolTexts = new String[128];
+
+    static {
+        for (char symbol : "{}()[].,;+-*/&|<>=~".toCharArray()) {
+            symbolTexts[symbol] = String.valueOf(symbol);
+        }
+    }
+
+    private final NameTable names;
+    private final char[] source;
+    private byte[] kinds;
+    private int[] values;
+    private int[] offsets;
+    private int[] lines;
+    private int size;
+
+    public TokenStream(char[] source, int expectedTokens) {
+        this.names = new NameTable();
+        this.source = source;
+        this.kinds = new byte[Math.max(expectedTokens, 16)];
+        this.values = new int[kinds.length];
+        this.offsets = new int[kinds.length];
+        this.lines = new int[kinds.length];
+    }
+
+    public static TokenStream scan(char[] source, int length) {
+        return scan(source, length, null);
+    }
+
+    // lexical errors go to diagnostics when it is given, and are thrown otherwise
+    public static TokenStream scan(char[] source, int length, List<Diagnostic> diagnostics) {
+        TokenStream stream = new TokenStream(source, length / 4);
+        JackScanner scanner = new JackScanner(source, length, diagnostics);
+
+        while (scanner.next()) {
+            int start = scanner.getTokenStart();
+            int tokenLength = scanner.getTokenEnd() - start;
+            int value;
+
+            switch (scanner.getTokenType()) {
+                case KEYWORD:
+                    value = scanner.getKeyword().ordinal();
+                    break;
+                case SYMBOL:
+                    value = source[start];
+                    break;
+                case INT_CONST:
+                    value = parseInt(source, start, tokenLength);
+                    if (value > MAX_INT_CONSTANT) {
+                        Diagnostic diagnostic = new Diagnostic(scanner.getTokenLine(), column(source, start), "Integer constant out of range");
+                        if (diagnostics == null) {
+                            throw new IllegalStateException(diagnostic.toString());
+                        }
+                        diagnostics.add(diagnostic);
+                        value = MAX_INT_CONSTANT;
+                    }
+                    break;
+                case STRING_CONST:
+                    // string constants stay a view into the source until someone asks for their text
+                    value = tokenLength;
+                    break;
+                default:
+                    value = stream.names.intern(source, start, tokenLength);
+            }
+
+            stream.add(scanner.getTokenType(), value, start, scanner.getTokenLine());
+        }
+
+        return stream;
+    }
+
+    // stops at MAX_INT_CONSTANT + 1 so long digit runs cannot overflow
+    private static int parseInt(char[] source, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length && value <= MAX_INT_CONSTANT; i++) {
+            value = value * 10 + (source[i] - '0');
+        }
+
+        return value;
+    }
+
+    // columns are only needed for diagnostics, so they are found from the offset instead of being stored
+    private static int column(char[] source, int offset) {
+        int lineStart = offset;
+        while (lineStart > 0 && source[lineStart - 1] != '\n') {
+            lineStart--;
+        }
+
+        return offset - lineStart + 1;
+    }
+
+    private void add(TokenType type, int value, int offset, int line) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+
+        kinds[size] = (byte) type.ordinal();
+        values[size] = value;
+        offsets[size] = offset;
+        lines[size] = line;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return tokenTypes[kinds[index]];
+    }
+
+    public JackKeyword keyword(int index) {
+        return kinds[index] == TokenType.KEYWORD.ordinal() ? keywords[values[index]] : null;
+    }
+
+    public char symbol(int index) {
+        return kinds[index] == TokenType.SYMBOL.ordinal() ? (char) values[index] : 0;
+    }
+
+    public int intValue(int index) {
+        return values[index];
+    }
+
+    public String name(int index) {
+        return names.get(values[index]);
+    }
+
+    public String stringValue(int index) {
+        return new String(source, offsets[index] + 1, values[index] - 2);
+    }
+
+    public int offset(int index) {
+        return offsets[index];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    public int column(int index) {
+        return column(source, offsets[index]);
+    }
+
+    public String text(int index) {
+        switch (type(index)) {
+            case KEYWORD:
+                return keywords[values[index]].getLexeme();
+            case SYMBOL:
+                return symbolTexts[values[index]];
+            case INT_CONST:
+                return String.valueOf(values[index]);
+            case STRING_CONST:
+                return new String(source, offsets[index], values[index]);
+            default:
+                return names.get(values[index]);
+        }
+    }
+}
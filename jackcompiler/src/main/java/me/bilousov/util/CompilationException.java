@@ -0,0 +1,43 @@
+package me.bilousov.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Thrown once per file with every problem found in it, so one compile reports them all.
+public class CompilationException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Diagnostic> diagnostics;
+
+    public CompilationException(List<Diagnostic> diagnostics) {
+        this(sorted(diagnostics));
+    }
+
+    private CompilationException(Diagnostic[] diagnostics) {
+        super(summarize(List.of(diagnostics)));
+        this.diagnostics = List.of(diagnostics);
+    }
+
+    public CompilationException(Diagnostic diagnostic) {
+        this(List.of(diagnostic));
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // lexical errors are found before syntax errors, so they are put back in source order
+    private static Diagnostic[] sorted(List<Diagnostic> diagnostics) {
+        Diagnostic[] ordered = diagnostics.toArray(new Diagnostic[0]);
+        Arrays.sort(ordered, Comparator.comparingInt(Diagnostic::getLine).thenComparingInt(Diagnostic::getColumn));
+
+        return ordered;
+    }
+
+    private static String summarize(List<Diagnostic> diagnostics) {
+        String first = diagnostics.get(0).toString();
+        return diagnostics.size() == 1 ? first : first + " (and " + (diagnostics.size() - 1) + " more errors)";
+    }
+}
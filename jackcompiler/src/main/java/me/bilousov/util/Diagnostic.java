@@ -0,0 +1,43 @@
+package me.bilousov.util;
+
+import java.io.File;
+
+// One problem in a source file. Lines and columns start at 1; 0 means the position is unknown.
+public final class Diagnostic {
+
+    private final int line;
+    private final int column;
+    private final String message;
+
+    public Diagnostic(int line, int column, String message) {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isAt(int line, int column) {
+        return this.line == line && this.column == column;
+    }
+
+    // file:line:column: message, the form editors and CI logs turn into links
+    public String format(File sourceFile) {
+        return sourceFile.getPath() + ":" + (line > 0 ? line + ":" + column + ": " : " ") + message;
+    }
+
+    @Override
+    public String toString() {
+        return line > 0 ? line + ":" + column + ": " + message : message;
+    }
+}
@@ -0,0 +1,58 @@
+package me.bilousov.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum JackKeyword {
+    CLASS, METHOD, FUNCTION, CONSTRUCTOR, INT, BOOLEAN, CHAR, VOID, VAR, STATIC, FIELD, LET, DO, IF, ELSE, WHILE,
+    RETURN, TRUE, FALSE, NULL, THIS;
+
+    private static final JackKeyword[][] keywordsByFirstChar = new JackKeyword[26][];
+
+    static {
+        for (char first = 'a'; first <= 'z'; first++) {
+            List<JackKeyword> candidates = new ArrayList<>();
+            for (JackKeyword keyword : values()) {
+                if (keyword.lexeme.charAt(0) == first) {
+                    candidates.add(keyword);
+                }
+            }
+            keywordsByFirstChar[first - 'a'] = candidates.toArray(new JackKeyword[0]);
+        }
+    }
+
+    private final String lexeme;
+
+    JackKeyword() {
+        this.lexeme = name().toLowerCase();
+    }
+
+    public String getLexeme() {
+        return lexeme;
+    }
+
+    public static JackKeyword fromChars(char[] source, int start, int length) {
+        char first = source[start];
+        if (first < 'a' || first > 'z') {
+            return null;
+        }
+
+        for (JackKeyword keyword : keywordsByFirstChar[first - 'a']) {
+            if (keyword.lexeme.length() == length && lexemeMatches(keyword.lexeme, source, start)) {
+                return keyword;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean lexemeMatches(String lexeme, char[] source, int start) {
+        for (int i = 1; i < lexeme.length(); i++) {
+            if (lexeme.charAt(i) != source[start + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
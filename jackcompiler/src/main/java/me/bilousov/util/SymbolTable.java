@@ -0,0 +1,49 @@
+package me.bilousov.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SymbolTable {
+
+    private final Map<String, Variable> classScope;
+    private final Map<String, Variable> subroutineScope;
+    private final int[] kindCounts;
+
+    public SymbolTable() {
+        this.classScope = new HashMap<>();
+        this.subroutineScope = new HashMap<>();
+        this.kindCounts = new int[VariableKind.values().length];
+    }
+
+    public void startSubroutine() {
+        subroutineScope.clear();
+        kindCounts[VariableKind.LOCAL.ordinal()] = 0;
+        kindCounts[VariableKind.ARGUMENT.ordinal()] = 0;
+    }
+
+    public Variable define(String name, String type, VariableKind kind) {
+        Variable variable = new Variable(name, type, kind, kind.getScope(), kindCounts[kind.ordinal()]++);
+
+        if (kind.getScope() == VariableScope.CLASS) {
+            classScope.put(name, variable);
+        } else {
+            subroutineScope.put(name, variable);
+        }
+
+        return variable;
+    }
+
+    public Variable lookup(String name) {
+        Variable variable = subroutineScope.get(name);
+
+        return variable != null ? variable : classScope.get(name);
+    }
+
+    public boolean isDefined(String name, VariableScope scope) {
+        return (scope == VariableScope.CLASS ? classScope : subroutineScope).containsKey(name);
+    }
+
+    public int varCount(VariableKind kind) {
+        return kindCounts[kind.ordinal()];
+    }
+}
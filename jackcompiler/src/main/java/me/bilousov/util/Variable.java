@@ -1,17 +1,19 @@
 package me.bilousov.util;
 
+import me.bilousov.vm.VMSegment;
+
 public class Variable {
 
     private String name;
     private String type;
-    private String kind;
+    private VariableKind kind;
     private VariableScope scope;
     private int varOrderNumber;
 
     public Variable() {
     }
 
-    public Variable(String name, String type, String kind, VariableScope scope, int varOrderNumber) {
+    public Variable(String name, String type, VariableKind kind, VariableScope scope, int varOrderNumber) {
         this.name = name;
         this.type = type;
         this.kind = kind;
@@ -39,18 +41,18 @@ public class Variable {
         this.type = type;
     }
 
-    public String getKind(boolean inStackUsage) {
-        if(kind.equals("field") && inStackUsage){
-            return "this";
-        }
-
+    public VariableKind getKind() {
         return kind;
     }
 
-    public void setKind(String kind) {
+    public void setKind(VariableKind kind) {
         this.kind = kind;
     }
 
+    public VMSegment getSegment() {
+        return kind.getSegment();
+    }
+
     public VariableScope getScope() {
         return scope;
     }
@@ -73,7 +75,7 @@ public class Variable {
         return "Variable {" +
                 "name='" + name + '\'' +
                 ", type='" + type + '\'' +
-                ", kind='" + kind + '\'' +
+                ", kind=" + kind +
                 ", scope=" + scope +
                 '}';
     }
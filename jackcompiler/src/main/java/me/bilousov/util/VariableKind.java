@@ -0,0 +1,24 @@
+package me.bilousov.util;
+
+import me.bilousov.vm.VMSegment;
+
+public enum VariableKind {
+    FIELD(VMSegment.THIS, VariableScope.CLASS), STATIC(VMSegment.STATIC, VariableScope.CLASS),
+    LOCAL(VMSegment.LOCAL, VariableScope.SUBROUTINE), ARGUMENT(VMSegment.ARGUMENT, VariableScope.SUBROUTINE);
+
+    private final VMSegment segment;
+    private final VariableScope scope;
+
+    public VMSegment getSegment() {
+        return this.segment;
+    }
+
+    public VariableScope getScope() {
+        return this.scope;
+    }
+
+    VariableKind(VMSegment segment, VariableScope scope) {
+        this.segment = segment;
+        this.scope = scope;
+    }
+}
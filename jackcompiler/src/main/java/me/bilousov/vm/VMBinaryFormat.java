@@ -0,0 +1,54 @@
+package me.bilousov.vm;
+
+import java.io.File;
+
+// Layout of a .vmb file: the magic "JVMB" and a version byte, then one record per command. A record
+// starts with a byte holding the opcode in the low five bits and, for push and pop, the segment in the
+// high three; operands follow as unsigned LEB128 varints. Symbols (labels, function names) are numbered
+// in order of first use: a reference is the symbol's number, and the first reference to a new symbol
+// is followed by its length and UTF-8 bytes, so the writer can stream without a symbol table up front.
+public final class VMBinaryFormat {
+
+    public static final String FILE_EXTENSION = ".vmb";
+
+    static final byte[] MAGIC = {'J', 'V', 'M', 'B'};
+    static final int VERSION = 1;
+
+    private static final int OPCODE_BITS = 5;
+    private static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    private static final VMOpcode[] opcodes = VMOpcode.values();
+    private static final VMSegment[] segments = VMSegment.values();
+
+    private VMBinaryFormat() {
+    }
+
+    public static boolean isBinary(File vmFile) {
+        return vmFile.getName().endsWith(FILE_EXTENSION);
+    }
+
+    public static byte[] header() {
+        byte[] header = new byte[MAGIC.length + 1];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+
+        return header;
+    }
+
+    public static int encode(VMOpcode opcode, VMSegment segment) {
+        return opcode.ordinal() | (segment != null ? segment.ordinal() << OPCODE_BITS : 0);
+    }
+
+    static VMOpcode opcode(int code) {
+        int ordinal = code & OPCODE_MASK;
+        if (ordinal >= opcodes.length) {
+            throw new IllegalStateException("Unknown opcode " + ordinal);
+        }
+
+        return opcodes[ordinal];
+    }
+
+    static VMSegment segment(int code) {
+        return segments[(code & 0xFF) >>> OPCODE_BITS];
+    }
+}
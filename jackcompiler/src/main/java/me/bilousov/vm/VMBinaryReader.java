@@ -0,0 +1,132 @@
+package me.bilousov.vm;
+
+import me.bilousov.writer.VMWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decodes a .vmb file and replays it as VMWriter calls, the binary counterpart of VMTextReader. Each
+// symbol is decoded to a String once; after that a reference costs one varint and an array lookup.
+public class VMBinaryReader {
+
+    private final byte[] data;
+    private final String sourceName;
+    private final List<String> symbols;
+
+    private int position;
+
+    private VMBinaryReader(byte[] data, String sourceName) {
+        this.data = data;
+        this.sourceName = sourceName;
+        this.symbols = new ArrayList<>();
+    }
+
+    public static void read(File vmbFile, VMWriter vmWriter) throws IOException {
+        read(Files.readAllBytes(vmbFile.toPath()), vmbFile.getPath(), vmWriter);
+    }
+
+    public static void read(byte[] data, String sourceName, VMWriter vmWriter) {
+        new VMBinaryReader(data, sourceName).replay(vmWriter);
+    }
+
+    private void replay(VMWriter vmWriter) {
+        byte[] header = VMBinaryFormat.header();
+        if (data.length < header.length) {
+            throw new IllegalStateException(sourceName + " is not a .vmb file");
+        }
+        for (int i = 0; i < VMBinaryFormat.MAGIC.length; i++) {
+            if (data[i] != header[i]) {
+                throw new IllegalStateException(sourceName + " is not a .vmb file");
+            }
+        }
+        if (data[VMBinaryFormat.MAGIC.length] != VMBinaryFormat.VERSION) {
+            throw new IllegalStateException("Unsupported .vmb version " + data[VMBinaryFormat.MAGIC.length] + " in " + sourceName);
+        }
+        position = header.length;
+
+        while (position < data.length) {
+            int start = position;
+            try {
+                replayCommand(vmWriter);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Invalid VM command at byte " + start + " in " + sourceName, e);
+            }
+        }
+    }
+
+    private void replayCommand(VMWriter vmWriter) {
+        int code = data[position++];
+        VMOpcode opcode = VMBinaryFormat.opcode(code);
+
+        switch (opcode) {
+            case PUSH:
+                vmWriter.writePush(VMBinaryFormat.segment(code), varint());
+                break;
+            case POP:
+                vmWriter.writePop(VMBinaryFormat.segment(code), varint());
+                break;
+            case LABEL:
+                vmWriter.writeLabel(symbol());
+                break;
+            case GOTO:
+                vmWriter.writeGoto(symbol());
+                break;
+            case IF_GOTO:
+                vmWriter.writeIf(symbol());
+                break;
+            case FUNCTION:
+                vmWriter.writeFunction(symbol(), varint());
+                break;
+            case CALL:
+                vmWriter.writeCall(symbol(), varint());
+                break;
+            case RETURN:
+                vmWriter.writeReturn();
+                break;
+            default:
+                vmWriter.writeArithmetic(opcode);
+        }
+    }
+
+    private String symbol() {
+        int id = varint();
+        if (id < symbols.size()) {
+            return symbols.get(id);
+        }
+        if (id != symbols.size()) {
+            throw new IllegalStateException("Symbol " + id + " used before it was defined");
+        }
+
+        int length = varint();
+        if (length > data.length - position) {
+            throw new IllegalStateException("Truncated symbol");
+        }
+
+        String symbol = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        symbols.add(symbol);
+
+        return symbol;
+    }
+
+    private int varint() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position >= data.length) {
+                throw new IllegalStateException("Truncated operand");
+            }
+
+            int b = data[position++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("Operand is too long");
+    }
+}
@@ -0,0 +1,166 @@
+package me.bilousov.vm;
+
+import me.bilousov.writer.VMWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// VM code held in parallel primitive arrays instead of one VMInstruction per command: a packed
+// opcode/segment byte (see VMBinaryFormat), an int operand and an int symbol id per command, with each
+// distinct label or function name stored once. Recording a command allocates nothing once the arrays
+// have grown; replay() turns it back into VMWriter calls, e.g. a TextVMWriter to print .vm text.
+public final class VMCode implements VMWriter {
+
+    private static final int NO_SYMBOL = -1;
+
+    private byte[] codes;
+    private int[] operands;
+    private int[] symbolIds;
+    private int size;
+
+    private final List<String> symbols;
+    private final Map<String, Integer> symbolIndexes;
+
+    public VMCode() {
+        this.codes = new byte[256];
+        this.operands = new int[codes.length];
+        this.symbolIds = new int[codes.length];
+        this.symbols = new ArrayList<>();
+        this.symbolIndexes = new HashMap<>();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public VMOpcode getOpcode(int index) {
+        return VMBinaryFormat.opcode(codes[index]);
+    }
+
+    // null for commands other than push and pop
+    public VMSegment getSegment(int index) {
+        VMOpcode opcode = getOpcode(index);
+        return opcode == VMOpcode.PUSH || opcode == VMOpcode.POP ? VMBinaryFormat.segment(codes[index]) : null;
+    }
+
+    public int getOperand(int index) {
+        return operands[index];
+    }
+
+    // null for commands without a label or function name
+    public String getSymbol(int index) {
+        return symbolIds[index] == NO_SYMBOL ? null : symbols.get(symbolIds[index]);
+    }
+
+    public void replay(VMWriter vmWriter) {
+        for (int i = 0; i < size; i++) {
+            String symbol = symbolIds[i] == NO_SYMBOL ? null : symbols.get(symbolIds[i]);
+
+            switch (VMBinaryFormat.opcode(codes[i])) {
+                case PUSH:
+                    vmWriter.writePush(VMBinaryFormat.segment(codes[i]), operands[i]);
+                    break;
+                case POP:
+                    vmWriter.writePop(VMBinaryFormat.segment(codes[i]), operands[i]);
+                    break;
+                case LABEL:
+                    vmWriter.writeLabel(symbol);
+                    break;
+                case GOTO:
+                    vmWriter.writeGoto(symbol);
+                    break;
+                case IF_GOTO:
+                    vmWriter.writeIf(symbol);
+                    break;
+                case CALL:
+                    vmWriter.writeCall(symbol, operands[i]);
+                    break;
+                case FUNCTION:
+                    vmWriter.writeFunction(symbol, operands[i]);
+                    break;
+                case RETURN:
+                    vmWriter.writeReturn();
+                    break;
+                default:
+                    vmWriter.writeArithmetic(VMBinaryFormat.opcode(codes[i]));
+            }
+        }
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        add(VMOpcode.PUSH, segment, index, NO_SYMBOL);
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        add(VMOpcode.POP, segment, index, NO_SYMBOL);
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        add(command, null, 0, NO_SYMBOL);
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        add(VMOpcode.LABEL, null, 0, symbolId(label));
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        add(VMOpcode.GOTO, null, 0, symbolId(label));
+    }
+
+    @Override
+    public void writeIf(String label) {
+        add(VMOpcode.IF_GOTO, null, 0, symbolId(label));
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        add(VMOpcode.CALL, null, argsCount, symbolId(name));
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        add(VMOpcode.FUNCTION, null, localsCount, symbolId(name));
+    }
+
+    @Override
+    public void writeReturn() {
+        add(VMOpcode.RETURN, null, 0, NO_SYMBOL);
+    }
+
+    private int symbolId(String symbol) {
+        Integer id = symbolIndexes.get(symbol);
+        if (id == null) {
+            id = symbols.size();
+            symbols.add(symbol);
+            symbolIndexes.put(symbol, id);
+        }
+
+        return id;
+    }
+
+    private void add(VMOpcode opcode, VMSegment segment, int operand, int symbolId) {
+        if (size == codes.length) {
+            int capacity = codes.length * 2;
+            codes = Arrays.copyOf(codes, capacity);
+            operands = Arrays.copyOf(operands, capacity);
+            symbolIds = Arrays.copyOf(symbolIds, capacity);
+        }
+
+        codes[size] = (byte) VMBinaryFormat.encode(opcode, segment);
+        operands[size] = operand;
+        symbolIds[size] = symbolId;
+        size++;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,72 @@
+package me.bilousov.vm;
+
+import java.util.List;
+
+public class VMCostModel {
+
+    // Approximate Hack instruction counts of a straightforward VM translator and of the Jack OS routines.
+    private static final int MULTIPLY_CYCLES = 1000;
+    private static final int DIVIDE_CYCLES = 2000;
+    private static final int STRING_NEW_CYCLES = 300;
+    private static final int APPEND_CHAR_CYCLES = 60;
+
+    public static long estimateCycles(List<VMInstruction> instructions) {
+        long cycles = 0;
+        for (VMInstruction instruction : instructions) {
+            cycles += estimateCycles(instruction);
+        }
+
+        return cycles;
+    }
+
+    public static int estimateCycles(VMInstruction instruction) {
+        switch (instruction.getOpcode()) {
+            case PUSH:
+                return instruction.getSegment() == VMSegment.CONSTANT ? 7 : isFixedSegment(instruction.getSegment()) ? 6 : 10;
+            case POP:
+                return isFixedSegment(instruction.getSegment()) ? 6 : 14;
+            case ADD:
+            case SUB:
+            case AND:
+            case OR:
+                return 5;
+            case NEG:
+            case NOT:
+                return 3;
+            case EQ:
+            case GT:
+            case LT:
+                return 13;
+            case LABEL:
+                return 0;
+            case GOTO:
+                return 2;
+            case IF_GOTO:
+                return 5;
+            case FUNCTION:
+                return 3 + 7 * instruction.getOperand();
+            case RETURN:
+                return 45;
+            case CALL:
+                if (instruction.isCall("Math.multiply", 2)) {
+                    return 50 + MULTIPLY_CYCLES;
+                }
+                if (instruction.isCall("Math.divide", 2)) {
+                    return 50 + DIVIDE_CYCLES;
+                }
+                if (instruction.isCall("String.new", 1)) {
+                    return 50 + STRING_NEW_CYCLES;
+                }
+                if (instruction.isCall("String.appendChar", 2)) {
+                    return 50 + APPEND_CHAR_CYCLES;
+                }
+                return 50;
+            default:
+                return 1;
+        }
+    }
+
+    private static boolean isFixedSegment(VMSegment segment) {
+        return segment == VMSegment.TEMP || segment == VMSegment.POINTER || segment == VMSegment.STATIC;
+    }
+}
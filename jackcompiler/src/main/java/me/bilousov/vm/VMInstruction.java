@@ -0,0 +1,154 @@
+package me.bilousov.vm;
+
+import me.bilousov.writer.VMWriter;
+
+import java.util.Objects;
+
+public final class VMInstruction {
+
+    private final VMOpcode opcode;
+    private final VMSegment segment;
+    private final String symbol;
+    private final int operand;
+
+    private VMInstruction(VMOpcode opcode, VMSegment segment, String symbol, int operand) {
+        this.opcode = opcode;
+        this.segment = segment;
+        this.symbol = symbol;
+        this.operand = operand;
+    }
+
+    public static VMInstruction push(VMSegment segment, int index) {
+        return new VMInstruction(VMOpcode.PUSH, segment, null, index);
+    }
+
+    public static VMInstruction pop(VMSegment segment, int index) {
+        return new VMInstruction(VMOpcode.POP, segment, null, index);
+    }
+
+    public static VMInstruction arithmetic(VMOpcode opcode) {
+        return new VMInstruction(opcode, null, null, 0);
+    }
+
+    public static VMInstruction label(String label) {
+        return new VMInstruction(VMOpcode.LABEL, null, label, 0);
+    }
+
+    public static VMInstruction gotoLabel(String label) {
+        return new VMInstruction(VMOpcode.GOTO, null, label, 0);
+    }
+
+    public static VMInstruction ifGoto(String label) {
+        return new VMInstruction(VMOpcode.IF_GOTO, null, label, 0);
+    }
+
+    public static VMInstruction call(String name, int argsCount) {
+        return new VMInstruction(VMOpcode.CALL, null, name, argsCount);
+    }
+
+    public static VMInstruction function(String name, int localsCount) {
+        return new VMInstruction(VMOpcode.FUNCTION, null, name, localsCount);
+    }
+
+    public static VMInstruction ret() {
+        return new VMInstruction(VMOpcode.RETURN, null, null, 0);
+    }
+
+    public VMOpcode getOpcode() {
+        return opcode;
+    }
+
+    public VMSegment getSegment() {
+        return segment;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getOperand() {
+        return operand;
+    }
+
+    public boolean is(VMOpcode opcode) {
+        return this.opcode == opcode;
+    }
+
+    public boolean isPush(VMSegment segment) {
+        return opcode == VMOpcode.PUSH && this.segment == segment;
+    }
+
+    public boolean isPop(VMSegment segment, int index) {
+        return opcode == VMOpcode.POP && this.segment == segment && operand == index;
+    }
+
+    public boolean isPushConstant(int value) {
+        return isPush(VMSegment.CONSTANT) && operand == value;
+    }
+
+    public boolean isCall(String name, int argsCount) {
+        return opcode == VMOpcode.CALL && symbol.equals(name) && operand == argsCount;
+    }
+
+    public void writeTo(VMWriter vmWriter) {
+        switch (opcode) {
+            case PUSH:
+                vmWriter.writePush(segment, operand);
+                break;
+            case POP:
+                vmWriter.writePop(segment, operand);
+                break;
+            case LABEL:
+                vmWriter.writeLabel(symbol);
+                break;
+            case GOTO:
+                vmWriter.writeGoto(symbol);
+                break;
+            case IF_GOTO:
+                vmWriter.writeIf(symbol);
+                break;
+            case CALL:
+                vmWriter.writeCall(symbol, operand);
+                break;
+            case FUNCTION:
+                vmWriter.writeFunction(symbol, operand);
+                break;
+            case RETURN:
+                vmWriter.writeReturn();
+                break;
+            default:
+                vmWriter.writeArithmetic(opcode);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VMInstruction that = (VMInstruction) o;
+        return operand == that.operand && opcode == that.opcode && segment == that.segment && Objects.equals(symbol, that.symbol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(opcode, segment, symbol, operand);
+    }
+
+    @Override
+    public String toString() {
+        switch (opcode) {
+            case PUSH:
+            case POP:
+                return opcode.getMnemonic() + " " + segment.getName() + " " + operand;
+            case LABEL:
+            case GOTO:
+            case IF_GOTO:
+                return opcode.getMnemonic() + " " + symbol;
+            case CALL:
+            case FUNCTION:
+                return opcode.getMnemonic() + " " + symbol + " " + operand;
+            default:
+                return opcode.getMnemonic();
+        }
+    }
+}
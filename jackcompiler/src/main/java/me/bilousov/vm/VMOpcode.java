@@ -0,0 +1,22 @@
+package me.bilousov.vm;
+
+public enum VMOpcode {
+    PUSH("push"), POP("pop"),
+    ADD("add"), SUB("sub"), NEG("neg"), EQ("eq"), GT("gt"), LT("lt"), AND("and"), OR("or"), NOT("not"),
+    LABEL("label"), GOTO("goto"), IF_GOTO("if-goto"),
+    FUNCTION("function"), CALL("call"), RETURN("return");
+
+    private final String mnemonic;
+
+    public String getMnemonic() {
+        return this.mnemonic;
+    }
+
+    public boolean isArithmetic() {
+        return ordinal() >= ADD.ordinal() && ordinal() <= NOT.ordinal();
+    }
+
+    VMOpcode(String mnemonic) {
+        this.mnemonic = mnemonic;
+    }
+}
@@ -0,0 +1,16 @@
+package me.bilousov.vm;
+
+public enum VMSegment {
+    CONSTANT("constant"), ARGUMENT("argument"), LOCAL("local"), STATIC("static"), THIS("this"), THAT("that"),
+    POINTER("pointer"), TEMP("temp");
+
+    private final String name;
+
+    public String getName() {
+        return this.name;
+    }
+
+    VMSegment(String name) {
+        this.name = name;
+    }
+}
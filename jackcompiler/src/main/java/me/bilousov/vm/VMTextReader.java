@@ -0,0 +1,100 @@
+package me.bilousov.vm;
+
+import me.bilousov.writer.VMWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+// Parses .vm text and replays it as VMWriter calls, so anything that consumes the compiler's output
+// stream can also consume a .vm file from disk.
+public class VMTextReader {
+
+    private static final Map<String, VMOpcode> opcodes = new HashMap<>();
+    private static final Map<String, VMSegment> segments = new HashMap<>();
+
+    static {
+        for (VMOpcode opcode : VMOpcode.values()) {
+            opcodes.put(opcode.getMnemonic(), opcode);
+        }
+        for (VMSegment segment : VMSegment.values()) {
+            segments.put(segment.getName(), segment);
+        }
+    }
+
+    public static void read(File vmFile, VMWriter vmWriter) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(vmFile.toPath(), StandardCharsets.UTF_8)) {
+            read(reader, vmFile.getPath(), vmWriter);
+        }
+    }
+
+    public static void read(BufferedReader reader, String sourceName, VMWriter vmWriter) throws IOException {
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            int comment = line.indexOf("//");
+            String[] words = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+
+            try {
+                replay(words, vmWriter);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Invalid VM command '" + line.trim() + "' at line " + lineNumber + " in " + sourceName, e);
+            }
+        }
+    }
+
+    private static void replay(String[] words, VMWriter vmWriter) {
+        VMOpcode opcode = opcodes.get(words[0]);
+        if (opcode == null) {
+            throw new IllegalStateException("Unknown command " + words[0]);
+        }
+
+        switch (opcode) {
+            case PUSH:
+                vmWriter.writePush(segment(words[1]), Integer.parseInt(words[2]));
+                break;
+            case POP:
+                vmWriter.writePop(segment(words[1]), Integer.parseInt(words[2]));
+                break;
+            case LABEL:
+                vmWriter.writeLabel(words[1]);
+                break;
+            case GOTO:
+                vmWriter.writeGoto(words[1]);
+                break;
+            case IF_GOTO:
+                vmWriter.writeIf(words[1]);
+                break;
+            case FUNCTION:
+                vmWriter.writeFunction(words[1], Integer.parseInt(words[2]));
+                break;
+            case CALL:
+                vmWriter.writeCall(words[1], Integer.parseInt(words[2]));
+                break;
+            case RETURN:
+                vmWriter.writeReturn();
+                break;
+            default:
+                vmWriter.writeArithmetic(opcode);
+        }
+    }
+
+    private static VMSegment segment(String name) {
+        VMSegment segment = segments.get(name);
+        if (segment == null) {
+            throw new IllegalStateException("Unknown segment " + name);
+        }
+
+        return segment;
+    }
+}
@@ -0,0 +1,153 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMBinaryFormat;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Writes the compact .vmb encoding described in VMBinaryFormat.
+public class BinaryVMWriter implements VMWriter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> symbols;
+
+    public BinaryVMWriter(File outputFile) throws IOException {
+        this.channel = FileChannel.open(outputFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.symbols = new HashMap<>();
+
+        buffer.put(VMBinaryFormat.header());
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        command(VMOpcode.PUSH, segment);
+        varint(index);
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        command(VMOpcode.POP, segment);
+        varint(index);
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        command(command, null);
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        command(VMOpcode.LABEL, null);
+        symbol(label);
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        command(VMOpcode.GOTO, null);
+        symbol(label);
+    }
+
+    @Override
+    public void writeIf(String label) {
+        command(VMOpcode.IF_GOTO, null);
+        symbol(label);
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        command(VMOpcode.CALL, null);
+        symbol(name);
+        varint(argsCount);
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        command(VMOpcode.FUNCTION, null);
+        symbol(name);
+        varint(localsCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        command(VMOpcode.RETURN, null);
+    }
+
+    private void command(VMOpcode opcode, VMSegment segment) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) VMBinaryFormat.encode(opcode, segment));
+    }
+
+    private void symbol(String name) {
+        Integer id = symbols.get(name);
+        if (id != null) {
+            varint(id);
+            return;
+        }
+
+        symbols.put(name, symbols.size());
+        varint(symbols.size() - 1);
+
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        for (byte b : bytes) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+    }
+
+    private void varint(int value) {
+        if (buffer.remaining() < MAX_VARINT_BYTES) {
+            flush();
+        }
+
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
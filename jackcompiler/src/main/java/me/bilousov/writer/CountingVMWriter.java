@@ -0,0 +1,105 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CountingVMWriter implements VMWriter {
+
+    private final VMWriter delegate;
+    private final Map<String, Integer> functionInstructions;
+
+    private String currentFunction;
+    private int currentCount;
+    private long instructionCount;
+
+    public CountingVMWriter(VMWriter delegate) {
+        this.delegate = delegate;
+        this.functionInstructions = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        count();
+        delegate.writePush(segment, index);
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        count();
+        delegate.writePop(segment, index);
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        count();
+        delegate.writeArithmetic(command);
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        count();
+        delegate.writeLabel(label);
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        count();
+        delegate.writeGoto(label);
+    }
+
+    @Override
+    public void writeIf(String label) {
+        count();
+        delegate.writeIf(label);
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        count();
+        delegate.writeCall(name, argsCount);
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        finishFunction();
+        currentFunction = name;
+        count();
+        delegate.writeFunction(name, localsCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        count();
+        delegate.writeReturn();
+    }
+
+    private void count() {
+        instructionCount++;
+        currentCount++;
+    }
+
+    private void finishFunction() {
+        if (currentFunction != null) {
+            functionInstructions.merge(currentFunction, currentCount, Integer::sum);
+        }
+        currentCount = 0;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public Map<String, Integer> getFunctionInstructions() {
+        return functionInstructions;
+    }
+
+    @Override
+    public void close() {
+        finishFunction();
+        currentFunction = null;
+        delegate.close();
+    }
+}
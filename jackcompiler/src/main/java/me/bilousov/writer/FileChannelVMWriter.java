@@ -0,0 +1,89 @@
+package me.bilousov.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class FileChannelVMWriter extends TextVMWriter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits;
+
+    public FileChannelVMWriter(File outputFile) throws IOException {
+        this.channel = FileChannel.open(outputFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.digits = new byte[11];
+    }
+
+    @Override
+    protected void append(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    @Override
+    protected void append(int number) {
+        if (buffer.remaining() < digits.length) {
+            flush();
+        }
+
+        if (number < 0) {
+            buffer.put((byte) '-');
+            number = -number;
+        }
+
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number > 0);
+
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    @Override
+    protected void endLine() {
+        if (buffer.remaining() < LINE_SEPARATOR.length) {
+            flush();
+        }
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.Set;
+
+// Passes on only the functions named in keptFunctions; everything from a dropped function's
+// header up to the next function header is discarded.
+public class FunctionFilterVMWriter implements VMWriter {
+
+    private final VMWriter delegate;
+    private final Set<String> keptFunctions;
+
+    private boolean keeping = true;
+
+    public FunctionFilterVMWriter(VMWriter delegate, Set<String> keptFunctions) {
+        this.delegate = delegate;
+        this.keptFunctions = keptFunctions;
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        if (keeping) {
+            delegate.writePush(segment, index);
+        }
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        if (keeping) {
+            delegate.writePop(segment, index);
+        }
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        if (keeping) {
+            delegate.writeArithmetic(command);
+        }
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        if (keeping) {
+            delegate.writeLabel(label);
+        }
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        if (keeping) {
+            delegate.writeGoto(label);
+        }
+    }
+
+    @Override
+    public void writeIf(String label) {
+        if (keeping) {
+            delegate.writeIf(label);
+        }
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        if (keeping) {
+            delegate.writeCall(name, argsCount);
+        }
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        keeping = keptFunctions.contains(name);
+        if (keeping) {
+            delegate.writeFunction(name, localsCount);
+        }
+    }
+
+    @Override
+    public void writeReturn() {
+        if (keeping) {
+            delegate.writeReturn();
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,70 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InstructionListWriter implements VMWriter {
+
+    private final List<VMInstruction> instructions;
+
+    public InstructionListWriter() {
+        this.instructions = new ArrayList<>();
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        instructions.add(VMInstruction.push(segment, index));
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        instructions.add(VMInstruction.pop(segment, index));
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        instructions.add(VMInstruction.arithmetic(command));
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        instructions.add(VMInstruction.label(label));
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        instructions.add(VMInstruction.gotoLabel(label));
+    }
+
+    @Override
+    public void writeIf(String label) {
+        instructions.add(VMInstruction.ifGoto(label));
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        instructions.add(VMInstruction.call(name, argsCount));
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        instructions.add(VMInstruction.function(name, localsCount));
+    }
+
+    @Override
+    public void writeReturn() {
+        instructions.add(VMInstruction.ret());
+    }
+
+    public List<VMInstruction> getInstructions() {
+        return instructions;
+    }
+
+    @Override
+    public void close() {
+    }
+}
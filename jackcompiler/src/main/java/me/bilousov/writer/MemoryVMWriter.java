@@ -0,0 +1,39 @@
+package me.bilousov.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MemoryVMWriter extends TextVMWriter {
+
+    private final List<String> lines;
+    private final StringBuilder currentLine;
+
+    public MemoryVMWriter() {
+        this.lines = new ArrayList<>();
+        this.currentLine = new StringBuilder();
+    }
+
+    @Override
+    protected void append(String text) {
+        currentLine.append(text);
+    }
+
+    @Override
+    protected void append(int number) {
+        currentLine.append(number);
+    }
+
+    @Override
+    protected void endLine() {
+        lines.add(currentLine.toString());
+        currentLine.setLength(0);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,47 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+public class NullVMWriter implements VMWriter {
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+    }
+
+    @Override
+    public void writeLabel(String label) {
+    }
+
+    @Override
+    public void writeGoto(String label) {
+    }
+
+    @Override
+    public void writeIf(String label) {
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+    }
+
+    @Override
+    public void writeReturn() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
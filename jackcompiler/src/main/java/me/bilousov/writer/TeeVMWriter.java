@@ -0,0 +1,79 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+// Sends every command to two writers, e.g. a .vm file and an in-process assembly backend.
+public class TeeVMWriter implements VMWriter {
+
+    private final VMWriter first;
+    private final VMWriter second;
+
+    public TeeVMWriter(VMWriter first, VMWriter second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        first.writePush(segment, index);
+        second.writePush(segment, index);
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        first.writePop(segment, index);
+        second.writePop(segment, index);
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        first.writeArithmetic(command);
+        second.writeArithmetic(command);
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        first.writeLabel(label);
+        second.writeLabel(label);
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        first.writeGoto(label);
+        second.writeGoto(label);
+    }
+
+    @Override
+    public void writeIf(String label) {
+        first.writeIf(label);
+        second.writeIf(label);
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        first.writeCall(name, argsCount);
+        second.writeCall(name, argsCount);
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        first.writeFunction(name, localsCount);
+        second.writeFunction(name, localsCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        first.writeReturn();
+        second.writeReturn();
+    }
+
+    @Override
+    public void close() {
+        try {
+            first.close();
+        } finally {
+            second.close();
+        }
+    }
+}
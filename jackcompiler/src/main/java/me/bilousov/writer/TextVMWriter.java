@@ -0,0 +1,82 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+public abstract class TextVMWriter implements VMWriter {
+
+    protected abstract void append(String text);
+
+    protected abstract void append(int number);
+
+    protected abstract void endLine();
+
+    @Override
+    public void writePush(VMSegment segment, int index) {
+        append("push ");
+        append(segment.getName());
+        append(" ");
+        append(index);
+        endLine();
+    }
+
+    @Override
+    public void writePop(VMSegment segment, int index) {
+        append("pop ");
+        append(segment.getName());
+        append(" ");
+        append(index);
+        endLine();
+    }
+
+    @Override
+    public void writeArithmetic(VMOpcode command) {
+        append(command.getMnemonic());
+        endLine();
+    }
+
+    @Override
+    public void writeLabel(String label) {
+        append("label ");
+        append(label);
+        endLine();
+    }
+
+    @Override
+    public void writeGoto(String label) {
+        append("goto ");
+        append(label);
+        endLine();
+    }
+
+    @Override
+    public void writeIf(String label) {
+        append("if-goto ");
+        append(label);
+        endLine();
+    }
+
+    @Override
+    public void writeCall(String name, int argsCount) {
+        append("call ");
+        append(name);
+        append(" ");
+        append(argsCount);
+        endLine();
+    }
+
+    @Override
+    public void writeFunction(String name, int localsCount) {
+        append("function ");
+        append(name);
+        append(" ");
+        append(localsCount);
+        endLine();
+    }
+
+    @Override
+    public void writeReturn() {
+        append("return");
+        endLine();
+    }
+}
@@ -0,0 +1,30 @@
+package me.bilousov.writer;
+
+import me.bilousov.vm.VMOpcode;
+import me.bilousov.vm.VMSegment;
+
+import java.io.Closeable;
+
+public interface VMWriter extends Closeable {
+
+    void writePush(VMSegment segment, int index);
+
+    void writePop(VMSegment segment, int index);
+
+    void writeArithmetic(VMOpcode command);
+
+    void writeLabel(String label);
+
+    void writeGoto(String label);
+
+    void writeIf(String label);
+
+    void writeCall(String name, int argsCount);
+
+    void writeFunction(String name, int localsCount);
+
+    void writeReturn();
+
+    @Override
+    void close();
+}
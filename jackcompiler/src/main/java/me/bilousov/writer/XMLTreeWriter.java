@@ -0,0 +1,84 @@
+package me.bilousov.writer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class XMLTreeWriter implements Closeable {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final Writer writer;
+    private int indentLevel;
+
+    public XMLTreeWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public XMLTreeWriter(File outputFile) throws IOException {
+        this(Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+    public void increaseIndentLevel() {
+        indentLevel++;
+    }
+
+    public void decreaseIndentLevel() {
+        indentLevel--;
+    }
+
+    public void writeOpenTag(String tagName) {
+        writeIndented("<", tagName, ">");
+    }
+
+    public void writeCloseTag(String tagName) {
+        writeIndented("</", tagName, ">");
+    }
+
+    public void writeToken(String token, String tagName) {
+        try {
+            writeIndentation();
+            writer.write('<');
+            writer.write(tagName);
+            writer.write("> ");
+            writer.write(token);
+            writer.write(" </");
+            writer.write(tagName);
+            writer.write('>');
+            writer.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeIndented(String prefix, String tagName, String suffix) {
+        try {
+            writeIndentation();
+            writer.write(prefix);
+            writer.write(tagName);
+            writer.write(suffix);
+            writer.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeIndentation() throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            writer.write('\t');
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package me.bilousov.writer;
+
+import me.bilousov.compiler.CompileMode;
+import me.bilousov.tokenizer.JackTokenizer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class XMLWriter {
+
+    private static final String INPUT_FILE_EXTENSION = ".jack";
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    public static void writeXMLForTokenizer(JackTokenizer tokenizer, File file) throws IOException {
+        try (BufferedWriter bw = Files.newBufferedWriter(getOutputFile(file, CompileMode.TOKENS.getOutputExtension()).toPath(), StandardCharsets.UTF_8)) {
+            bw.write("<tokens>" + LINE_SEPARATOR);
+
+            while (tokenizer.hasMoreTokens()){
+                tokenizer.advance();
+                bw.write("<" + tokenizer.xmlTokenType() + ">" + " " + tokenizer.getCurrentToken() + " </" + tokenizer.xmlTokenType() + ">" + LINE_SEPARATOR);
+            }
+
+            bw.write("</tokens>" + LINE_SEPARATOR);
+        }
+    }
+
+    public static File getOutputFile(File file) {
+        return getOutputFile(file, CompileMode.VM.getOutputExtension());
+    }
+
+    // swaps the .jack suffix of the file name only, so a directory such as "src.jack/" keeps its name
+    public static File getOutputFile(File file, String extension) {
+        String name = file.getName();
+        if (name.endsWith(INPUT_FILE_EXTENSION)) {
+            name = name.substring(0, name.length() - INPUT_FILE_EXTENSION.length());
+        }
+
+        return new File(file.getParentFile(), name + extension);
+    }
+}
@@ -0,0 +1,52 @@
+package me.bilousov.backend;
+
+import me.bilousov.vm.VMSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HackProgramLinkerTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void refusesToWriteWithoutSysInit() {
+        HackProgramLinker linker = new HackProgramLinker(true);
+        linker.add(function("Main", "Main.main"));
+        File asmFile = outputDir.resolve("Program.asm").toFile();
+
+        assertThrows(IllegalStateException.class, () -> linker.write(asmFile));
+        assertFalse(asmFile.exists());
+    }
+
+    @Test
+    void writesTheBootstrapCallToSysInit() throws IOException {
+        HackProgramLinker linker = new HackProgramLinker(true);
+        linker.add(function("Sys", HackProgramLinker.ENTRY_POINT));
+        File asmFile = outputDir.resolve("Program.asm").toFile();
+
+        linker.write(asmFile);
+
+        String assembly = Files.readString(asmFile.toPath());
+        assertTrue(assembly.contains("@Sys.init"));
+        assertTrue(assembly.contains("(Sys.init)"));
+    }
+
+    private static HackAssemblyWriter function(String className, String name) {
+        HackAssemblyWriter part = new HackAssemblyWriter(className, true);
+        part.writeFunction(name, 0);
+        part.writePush(VMSegment.CONSTANT, 0);
+        part.writeReturn();
+
+        return part;
+    }
+}
@@ -0,0 +1,223 @@
+package me.bilousov.checker;
+
+import me.bilousov.Main;
+import me.bilousov.ast.ClassNode;
+import me.bilousov.parser.JackParser;
+import me.bilousov.program.ProgramIndex;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.util.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class SemanticCheckerTest {
+
+    private static final String POINT = """
+            class Point {
+                field int x, y;
+                static int count;
+                constructor Point new(int ax, int ay) {
+                    let x = ax;
+                    let y = ay;
+                    let count = count + 1;
+                    return this;
+                }
+                method int getX() { return x; }
+                method Point plus(Point other) { return Point.new(x + other.getX(), y); }
+                function int count() { return count; }
+                method void dispose() { do Memory.deAlloc(this); return; }
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void acceptsAValidProgram() {
+        assertEquals(List.of(), check("""
+                class Main {
+                    function void main() {
+                        var Point p, q;
+                        var Array cells;
+                        var String s;
+                        var boolean done;
+                        let p = Point.new(1, 2);
+                        let q = p.plus(Point.new(3, 4));
+                        let cells = Array.new(10);
+                        let cells[q.getX()] = p;
+                        let p = cells[0];
+                        let s = "x";
+                        let done = (p.getX() < 3) & ~(q = null);
+                        do Output.printInt(Math.max(Point.count(), cells[1] + 97));
+                        do p.dispose();
+                        while (true) { return; }
+                    }
+                    function int sign(int n) {
+                        if (n < 0) { return -1; } else { return 1; }
+                    }
+                }
+                """));
+    }
+
+    static Stream<Arguments> errors() {
+        return Stream.of(
+                arguments("an undefined subroutine", "do Main.missing();",
+                        "Main.jack:4:12: Cannot call Main.missing(): no subroutine missing in class Main"),
+                arguments("an unknown class", "do Circle.new(1);",
+                        "Main.jack:4:12: Cannot call Circle.new(): unknown class or variable Circle"),
+                arguments("too few arguments", "do Output.printInt(Math.max(1));",
+                        "Main.jack:4:28: Math.max takes 2 argument(s), got 1"),
+                arguments("too many arguments", "let p = Point.new(1, 2, 3);",
+                        "Main.jack:4:17: Point.new takes 2 argument(s), got 3"),
+                arguments("a method called as a function", "do Output.printInt(Point.getX());",
+                        "Main.jack:4:28: Method Point.getX called without an object"),
+                arguments("a method of the class called from a function", "do draw();",
+                        "Main.jack:4:12: Method Main.draw called from function Main.main without an object"),
+                arguments("a constructor called on an object", "let p = p.new(1, 2);",
+                        "Main.jack:4:17: constructor Point.new called on object p"),
+                arguments("a call on a primitive", "do n.getX();",
+                        "Main.jack:4:12: Cannot call n.getX(): n is int"),
+                arguments("an argument of the wrong class", "let p = p.plus(\"far\");",
+                        "Main.jack:4:24: Argument 1 of Point.plus must be Point, not String"),
+                arguments("an undefined variable", "let m = 1;",
+                        "Main.jack:4:9: Undefined variable 'm' in Main.main"),
+                arguments("a field used from a function", "let n = size;",
+                        "Main.jack:4:17: Field size cannot be used in function Main.main"),
+                arguments("'this' used in a function", "let cells = this;",
+                        "Main.jack:4:21: 'this' cannot be used in function Main.main"),
+                arguments("a void call used as a value", "let n = Output.println();",
+                        "Main.jack:4:17: A void subroutine call has no value"),
+                arguments("an object assigned to an int", "let n = p;",
+                        "Main.jack:4:9: Cannot assign Point to int variable n"),
+                arguments("an object as an operand", "let n = n + p;",
+                        "Main.jack:4:21: Operand of '+' must be a number, not Point"),
+                arguments("a string as an array index", "let n = cells[\"0\"];",
+                        "Main.jack:4:23: Array index must be a number, not String"),
+                arguments("a value returned from a void function", "return 1;",
+                        "Main.jack:4:9: Void subroutine Main.main cannot return a value")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("errors")
+    void reportsOneErrorWhereItIs(String name, String statement, String expected) {
+        assertEquals(List.of(expected), check(mainWith(statement)));
+    }
+
+    @Test
+    void reportsDeclarationAndReturnErrors() {
+        assertEquals(List.of(
+                "Main.jack:2:11: Unknown type Circle",
+                "Main.jack:3:11: Variable x is declared twice in class Main",
+                "Main.jack:4:5: Constructor Main.new must return Main, not int",
+                "Main.jack:5:5: Main.get can reach its end without a return",
+                "Main.jack:6:28: Main.name must return String, not int",
+                "Main.jack:7:29: Main.flag must return boolean",
+                "Main.jack:8:5: Subroutine Main.get is declared twice"),
+                check("""
+                        class Main {
+                            field Circle c;
+                            field int x, x;
+                            constructor int new() { return 0; }
+                            method int get() { if (x) { return x; } }
+                            method String name() { return 1; }
+                            method boolean flag() { return; }
+                            method int get() { return 0; }
+                        }
+                        """));
+    }
+
+    @Test
+    void checkOptionPrintsEveryErrorAndWritesNoCode() throws IOException {
+        Files.writeString(directory.resolve("Point.jack"), POINT);
+        Files.writeString(directory.resolve("Main.jack"), mainWith("do Main.missing();\n        do Output.printInt(Math.max(1));"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exitCode = Main.run(new String[]{"--check", directory.toString()}, directory.toFile(), print(out), print(err), null);
+
+        String mainFile = directory.resolve("Main.jack").toString();
+        assertEquals(1, exitCode);
+        assertEquals(List.of(
+                mainFile + ":4:12: Cannot call Main.missing(): no subroutine missing in class Main",
+                mainFile + ":5:28: Math.max takes 2 argument(s), got 1",
+                "2 errors in 1 of 2 files"),
+                err.toString(StandardCharsets.UTF_8).lines().toList());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("Checked 2 classes in "));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(": errors found"));
+        assertFalse(Files.exists(directory.resolve("Main.vm")));
+        assertFalse(Files.exists(directory.resolve("Point.vm")));
+    }
+
+    @Test
+    void checkOptionPassesAValidProgram() throws IOException {
+        Files.writeString(directory.resolve("Point.jack"), POINT);
+        Files.writeString(directory.resolve("Main.jack"), mainWith("let p = p.plus(Point.new(n, 2));"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exitCode = Main.run(new String[]{"--check", directory.toString()}, directory.toFile(), print(out), print(err), null);
+
+        assertEquals(0, exitCode);
+        assertEquals("", err.toString(StandardCharsets.UTF_8));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(": no errors"));
+        assertFalse(Files.exists(directory.resolve("Main.vm")));
+    }
+
+    // Main.main with a local of each kind, running the statement on line 4
+    private static String mainWith(String statement) {
+        return """
+                class Main {
+                    field int size;
+                    function void main() { var int n; var Point p; var Array cells;
+                        %s
+                        return;
+                    }
+                    method void draw() { return; }
+                }
+                """.formatted(statement);
+    }
+
+    private static List<String> check(String mainSource) {
+        List<ClassNode> classes = List.of(parse("Point.jack", POINT), parse("Main.jack", mainSource));
+        ProgramIndex programIndex = ProgramIndex.withJackOS();
+        for (ClassNode classNode : classes) {
+            programIndex.add(classNode);
+        }
+
+        List<String> messages = new ArrayList<>();
+        for (ClassNode classNode : classes) {
+            for (Diagnostic diagnostic : new SemanticChecker(programIndex).check(classNode)) {
+                messages.add(diagnostic.format(new File(classNode.getName() + ".jack")));
+            }
+        }
+
+        return messages;
+    }
+
+    private static ClassNode parse(String fileName, String source) {
+        return new JackParser(new JackTokenizer(new File(fileName), source.getBytes(StandardCharsets.UTF_8))).parseClass();
+    }
+
+    private static PrintStream print(ByteArrayOutputStream output) {
+        return new PrintStream(output, true, StandardCharsets.UTF_8);
+    }
+}
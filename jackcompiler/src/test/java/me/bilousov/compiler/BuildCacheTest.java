@@ -0,0 +1,64 @@
+package me.bilousov.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildCacheTest {
+
+    private static final String MAIN = String.join("\n",
+            "class Main {",
+            "    function void main() { return; }",
+            "}");
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void identifiesTheCompilerBuildRatherThanItsReleaseVersion() {
+        assertNotEquals("1.0-SNAPSHOT", BuildCache.compilerVersion());
+        assertEquals(64, BuildCache.compilerVersion().length());
+    }
+
+    @Test
+    void reusesOutputsCachedByTheSameBuild() throws IOException {
+        compile();
+
+        assertTrue(compile().isCached());
+    }
+
+    @Test
+    void compilesAgainAfterTheCompilerVersionChanged() throws IOException {
+        compile();
+        Path index = sources.resolve(BuildCache.INDEX_FILE_NAME);
+        List<String> lines = Files.readAllLines(index);
+        lines.set(0, "version 1.0-SNAPSHOT");
+        Files.write(index, lines);
+
+        CompileResult result = compile();
+
+        assertTrue(result.isSuccess());
+        assertFalse(result.isCached());
+        assertEquals("version " + BuildCache.compilerVersion(), Files.readAllLines(index).get(0));
+    }
+
+    private CompileResult compile() throws IOException {
+        Files.writeString(sources.resolve("Main.jack"), MAIN);
+
+        BuildCache buildCache = BuildCache.load(sources.toFile());
+        List<CompileResult> results = new BatchCompiler(new CompilerOptions(), buildCache).compile(BatchCompiler.findJackFiles(sources.toFile()));
+        buildCache.save();
+
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+}
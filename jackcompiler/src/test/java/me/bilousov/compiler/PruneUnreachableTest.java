@@ -0,0 +1,102 @@
+package me.bilousov.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PruneUnreachableTest {
+
+    private static final String SYS = String.join("\n",
+            "class Sys {",
+            "    function void init() {",
+            "        do Math.init();",
+            "        do Main.main();",
+            "        do Sys.halt();",
+            "        return;",
+            "    }",
+            "    function void halt() { while (true) { } return; }",
+            "}");
+
+    private static final String MAIN = String.join("\n",
+            "class Main {",
+            "    function void main() {",
+            "        do Memory.poke(8000, Math.multiply(6, 7));",
+            "        return;",
+            "    }",
+            "}");
+
+    private static final String MATH = String.join("\n",
+            "class Math {",
+            "    static int one;",
+            "    function void init() { let one = 1; return; }",
+            "    function int multiply(int x, int y) { return x * y * one; }",
+            "    function int unused() { return 0; }",
+            "}");
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void keepsTheProgramsOwnSysInit() throws IOException {
+        write("Sys.jack", SYS);
+        write("Main.jack", MAIN);
+        write("Math.jack", MATH);
+
+        BatchCompiler batchCompiler = prune(true);
+
+        DeadCodeReport report = batchCompiler.getDeadCodeReport();
+        assertTrue(report.isEntryPointFound());
+        assertEquals(Set.of("Math.unused"), report.getRemovedFunctions().keySet());
+        assertTrue(read("Sys.vm").contains("function Sys.init 0"));
+        assertTrue(read("Math.vm").contains("function Math.init 0"));
+
+        AssemblyReport assemblyReport = batchCompiler.getAssemblyReport();
+        assertNotNull(assemblyReport);
+        assertTrue(read(sources.getFileName() + ".asm").contains("(Sys.init)"));
+    }
+
+    @Test
+    void keepsOsInitFunctionsWithoutSysInit() throws IOException {
+        write("Main.jack", MAIN);
+        write("Math.jack", MATH);
+
+        DeadCodeReport report = prune(false).getDeadCodeReport();
+
+        assertEquals(Set.of("Math.unused"), report.getRemovedFunctions().keySet());
+        assertTrue(read("Math.vm").contains("function Math.init 0"));
+    }
+
+    private BatchCompiler prune(boolean assemble) {
+        CompilerOptions options = new CompilerOptions();
+        options.setOptimizationLevel(1);
+        options.setWholeProgram(true);
+        options.setPruneUnreachable(true);
+        options.setAssemble(assemble);
+
+        BatchCompiler batchCompiler = new BatchCompiler(options, null);
+        List<CompileResult> results = batchCompiler.compile(BatchCompiler.findJackFiles(sources.toFile()));
+        for (CompileResult result : results) {
+            assertTrue(result.isSuccess(), () -> String.valueOf(result.getError()));
+        }
+
+        return batchCompiler;
+    }
+
+    private void write(String name, String source) throws IOException {
+        Files.writeString(sources.resolve(name), source);
+    }
+
+    private String read(String name) throws IOException {
+        return Files.readString(new File(sources.toFile(), name).toPath());
+    }
+}
@@ -0,0 +1,73 @@
+package me.bilousov.compiler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WholeProgramStatsTest {
+
+    private static final String MAIN = String.join("\n",
+            "class Main {",
+            "    function void main() {",
+            "        do Output.printInt(Main.square(7));",
+            "        return;",
+            "    }",
+            "    function int square(int x) { return x * x; }",
+            "}");
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void reportsParseCheckAndGenerateTimeWhenPruning() throws IOException {
+        CompilerOptions options = wholeProgram();
+        options.setPruneUnreachable(true);
+
+        FileStats stats = compile(options);
+
+        assertTrue(stats.isSuccess());
+        assertTrue(stats.getPhaseNanos(CompilePhase.PARSE) > 0);
+        assertTrue(stats.getPhaseNanos(CompilePhase.CHECK) > 0);
+        assertTrue(stats.getPhaseNanos(CompilePhase.GENERATE) > 0);
+    }
+
+    @Test
+    void reportsParseAndCheckTimeInCheckMode() throws IOException {
+        CompilerOptions options = wholeProgram();
+        options.setCheckOnly(true);
+
+        FileStats stats = compile(options);
+
+        assertTrue(stats.isSuccess());
+        assertTrue(stats.getPhaseNanos(CompilePhase.PARSE) > 0);
+        assertTrue(stats.getPhaseNanos(CompilePhase.CHECK) > 0);
+        assertEquals(0, stats.getPhaseNanos(CompilePhase.GENERATE));
+    }
+
+    private static CompilerOptions wholeProgram() {
+        CompilerOptions options = new CompilerOptions();
+        options.setWholeProgram(true);
+
+        return options;
+    }
+
+    private FileStats compile(CompilerOptions options) throws IOException {
+        Files.writeString(sources.resolve("Main.jack"), MAIN);
+
+        ConcurrentLinkedQueue<FileStats> reported = new ConcurrentLinkedQueue<>();
+        BatchCompiler batchCompiler = new BatchCompiler(options, null);
+        batchCompiler.setListener(reported::add);
+        batchCompiler.compile(BatchCompiler.findJackFiles(sources.toFile()));
+
+        assertEquals(1, reported.size());
+        return reported.peek();
+    }
+}
@@ -0,0 +1,106 @@
+package me.bilousov.daemon;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompileDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompileDaemon daemon;
+
+    @AfterEach
+    void stopDaemon() {
+        if (daemon != null) {
+            daemon.close();
+        }
+    }
+
+    @Test
+    void createsTheSocketInAnOwnerOnlyDirectory() throws IOException {
+        UnixDomainSocketAddress address = start(tempDir.resolve("sockets").resolve("daemon.sock"));
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tempDir.resolve("sockets"))));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(address.getPath())));
+    }
+
+    @Test
+    void refusesADirectoryOthersCanEnter() throws IOException {
+        Path shared = Files.createDirectory(tempDir.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        assertThrows(IOException.class, () -> CompileDaemon.bind(UnixDomainSocketAddress.of(shared.resolve("daemon.sock"))));
+    }
+
+    @Test
+    void refusesToTakeOverARunningDaemonsSocket() throws IOException {
+        UnixDomainSocketAddress address = start(tempDir.resolve("daemon.sock"));
+
+        assertThrows(IOException.class, () -> CompileDaemon.bind(address));
+        assertEquals(0, send(address, DaemonProtocol.SHUTDOWN_COMMAND));
+        daemon = null;
+    }
+
+    @Test
+    void replacesTheSocketOfADaemonThatIsGone() throws IOException {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(tempDir.resolve("daemon.sock"));
+        CompileDaemon.bind(address).close();
+        Files.createFile(address.getPath());
+
+        start(address.getPath());
+
+        assertEquals(0, send(address, DaemonProtocol.SHUTDOWN_COMMAND));
+        daemon = null;
+    }
+
+    @Test
+    void aClientThatSendsNothingDoesNotBlockOthers() throws IOException {
+        UnixDomainSocketAddress address = start(tempDir.resolve("daemon.sock"));
+
+        try (SocketChannel silent = DaemonProtocol.connect(address)) {
+            assertTrue(silent.isConnected());
+            int status = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> send(address, tempDir.resolve("Missing.jack").toString()));
+            assertEquals(1, status);
+        }
+    }
+
+    private UnixDomainSocketAddress start(Path socketFile) throws IOException {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketFile);
+        daemon = CompileDaemon.bind(address);
+
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+
+        return address;
+    }
+
+    private int send(UnixDomainSocketAddress address, String... args) throws IOException {
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        return DaemonClient.send(address, tempDir.toFile(), args, discard, discard);
+    }
+}
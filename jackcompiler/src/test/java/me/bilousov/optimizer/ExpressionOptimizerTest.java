@@ -0,0 +1,163 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class ExpressionOptimizerTest {
+
+    private static final VMInstruction MULTIPLY = VMInstruction.call("Math.multiply", 2);
+
+    // operands for the multiply chains, including both ends of the 16-bit range
+    private static final int[] OPERANDS = {0, 1, -1, 7, -123, 1000, 2047, 32767, -32768};
+
+    @TempDir
+    Path directory;
+
+    static Stream<Arguments> constantExpressions() {
+        return Stream.of(
+                arguments("push constant 2\npush constant 3\nadd", "push constant 5"),
+                arguments("push constant 30000\npush constant 30000\nadd", "push constant 5536\nneg"),
+                arguments("push constant 32767\npush constant 1\nadd", "push constant 32767\nnot"),
+                arguments("push constant 2\npush constant 3\nsub", "push constant 1\nneg"),
+                arguments("push constant 0\npush constant 32767\nsub", "push constant 32767\nneg"),
+                arguments("push constant 181\npush constant 181\ncall Math.multiply 2", "push constant 32761"),
+                arguments("push constant 200\npush constant 200\ncall Math.multiply 2", "push constant 25536\nneg"),
+                arguments("push constant 256\npush constant 128\ncall Math.multiply 2", "push constant 32767\nnot"),
+                arguments("push constant 32767\npush constant 32767\ncall Math.multiply 2", "push constant 1"),
+                arguments("push constant 100\npush constant 7\ncall Math.divide 2", "push constant 14"),
+                arguments("push constant 5\npush constant 10\ncall Math.divide 2", "push constant 0"),
+                arguments("push constant 12\npush constant 10\nand", "push constant 8"),
+                arguments("push constant 12\npush constant 10\nor", "push constant 14")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("constantExpressions")
+    void foldsConstantExpressionsWithTheVMsWraparound(String expression, String folded) throws IOException {
+        List<VMInstruction> unfolded = VMText.parse(printing(expression));
+
+        List<VMInstruction> optimized = new PeepholeOptimizer(2).optimize(unfolded);
+
+        assertEquals(VMText.normalize(printing(folded)), VMText.format(optimized));
+        assertEquals(VMText.run(unfolded, directory), VMText.run(optimized, directory));
+    }
+
+    @Test
+    void leavesDivisionByZeroToTheRuntime() {
+        String program = printing("push constant 7\npush constant 0\ncall Math.divide 2");
+
+        assertEquals(VMText.normalize(program), VMText.format(new PeepholeOptimizer(2).optimize(VMText.parse(program))));
+    }
+
+    static IntStream reducibleMultipliers() {
+        return IntStream.concat(IntStream.of(0), IntStream.rangeClosed(2, ExpressionOptimizer.MAX_STRENGTH_REDUCED_MULTIPLIER));
+    }
+
+    @ParameterizedTest(name = "x * {0}")
+    @MethodSource("reducibleMultipliers")
+    void reducesAConstantMultiplierToAnAddChain(int multiplier) throws IOException {
+        List<VMInstruction> unreduced = VMText.parse(multiplyEachOperand("push local 0\npush constant " + multiplier));
+
+        List<VMInstruction> optimized = new PeepholeOptimizer(2).optimize(unreduced);
+
+        assertFalse(optimized.contains(MULTIPLY));
+        assertEquals(VMText.run(unreduced, directory), VMText.run(optimized, directory));
+    }
+
+    @ParameterizedTest(name = "{0} * x")
+    @MethodSource("reducibleMultipliers")
+    void reducesAConstantMultiplierOnTheLeft(int multiplier) throws IOException {
+        List<VMInstruction> unreduced = VMText.parse(multiplyEachOperand("push constant " + multiplier + "\npush local 0"));
+
+        List<VMInstruction> optimized = new PeepholeOptimizer(2).optimize(unreduced);
+
+        assertFalse(optimized.contains(MULTIPLY));
+        assertEquals(VMText.run(unreduced, directory), VMText.run(optimized, directory));
+    }
+
+    @ParameterizedTest(name = "x * {0}")
+    @ValueSource(ints = {1, 17, 100})
+    void keepsTheCallForOtherMultipliers(int multiplier) {
+        List<VMInstruction> optimized = new PeepholeOptimizer(2).optimize(VMText.parse(multiplyEachOperand("push local 0\npush constant " + multiplier)));
+
+        assertEquals(multiplier != 1, optimized.contains(MULTIPLY));
+    }
+
+    @Test
+    void theChainLeavesTheRestOfTheStackAlone() throws IOException {
+        List<VMInstruction> unreduced = VMText.parse(String.join("\n",
+                "function Main.main 2",
+                "push constant 1234",
+                "pop local 1",
+                "push constant 321",
+                "neg",
+                "pop local 0",
+                "push local 1",
+                "push local 0",
+                "push constant 13",
+                "call Math.multiply 2",
+                "add",
+                "call Output.printInt 1",
+                "pop temp 0",
+                "push local 1",
+                "call Output.printInt 1",
+                "pop temp 0",
+                "push constant 0",
+                "return"));
+
+        List<VMInstruction> optimized = new PeepholeOptimizer(2).optimize(unreduced);
+
+        assertTrue(optimized.contains(VMInstruction.pop(VMSegment.TEMP, 1)));
+        assertEquals("-29391234", VMText.run(optimized, directory));
+        assertEquals(VMText.run(unreduced, directory), VMText.run(optimized, directory));
+    }
+
+    // Main.main printing the value the expression leaves on the stack
+    private static String printing(String expression) {
+        return String.join("\n",
+                "function Main.main 0",
+                expression,
+                "call Output.printInt 1",
+                "pop temp 0",
+                "push constant 0",
+                "return");
+    }
+
+    // Main.main printing the product for every operand in local 0, one per line
+    private static String multiplyEachOperand(String product) {
+        StringBuilder program = new StringBuilder("function Main.main 1\n");
+        for (int operand : OPERANDS) {
+            program.append(pushValue(operand)).append("pop local 0\n")
+                    .append(product).append("\ncall Math.multiply 2\n")
+                    .append("call Output.printInt 1\npop temp 0\n")
+                    .append("call Output.println 0\npop temp 0\n");
+        }
+
+        return program.append("push constant 0\nreturn\n").toString();
+    }
+
+    private static String pushValue(int value) {
+        if (value == Short.MIN_VALUE) {
+            return "push constant 32767\nnot\n";
+        }
+
+        return value < 0 ? "push constant " + -value + "\nneg\n" : "push constant " + value + "\n";
+    }
+}
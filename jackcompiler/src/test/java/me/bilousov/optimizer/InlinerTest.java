@@ -0,0 +1,273 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMOpcode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InlinerTest {
+
+    private static final int MAX_INSTRUCTIONS = 40;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void movesArgumentsAndLocalsToTemp3Through7() {
+        List<VMInstruction> code = VMText.parse("""
+                function Main.main 0
+                push constant 1
+                push constant 2
+                call Main.five 2
+                return
+                function Main.five 3
+                push argument 0
+                pop local 0
+                push argument 1
+                pop local 1
+                push local 0
+                push local 1
+                add
+                pop local 2
+                push local 2
+                return
+                """);
+
+        List<VMInstruction> inlined = inline(code);
+
+        assertEquals(VMText.normalize("""
+                function Main.main 0
+                push constant 1
+                push constant 2
+                pop temp 4
+                pop temp 3
+                push constant 0
+                pop temp 5
+                push constant 0
+                pop temp 6
+                push constant 0
+                pop temp 7
+                push temp 3
+                pop temp 5
+                push temp 4
+                pop temp 6
+                push temp 5
+                push temp 6
+                add
+                pop temp 7
+                push temp 7
+                return
+                """), VMText.format(function(inlined, "Main.main")));
+    }
+
+    // the callee's arguments, its locals and a saved this must fit in the five scratch temps
+    @ParameterizedTest(name = "{0} arguments, {1} locals, sets this: {2}")
+    @CsvSource({
+            "2, 3, false, true",
+            "3, 3, false, false",
+            "5, 0, false, true",
+            "0, 5, false, true",
+            "6, 0, false, false",
+            "4, 0, true, true",
+            "2, 2, true, true",
+            "5, 0, true, false",
+            "2, 3, true, false"
+    })
+    void inlinesOnlyCalleesThatFitInTheScratchTemps(int argsCount, int localsCount, boolean setsThis, boolean inlined) throws IOException {
+        List<VMInstruction> code = VMText.parse(callerOf(argsCount) + callee(argsCount, localsCount, setsThis));
+
+        List<VMInstruction> result = inline(code);
+
+        assertEquals(!inlined, function(result, "Main.main").contains(VMInstruction.call("Main.callee", argsCount)));
+        assertEquals(VMText.run(code, directory), VMText.run(result, directory));
+    }
+
+    @Test
+    void savesAndRestoresThisAroundAMethodThatSetsIt() throws IOException {
+        List<VMInstruction> code = VMText.parse("""
+                function Main.main 0
+                push constant 3000
+                pop pointer 0
+                push constant 42
+                pop this 0
+                push constant 4000
+                call Main.setThis 1
+                call Output.printInt 1
+                pop temp 0
+                push this 0
+                call Output.printInt 1
+                pop temp 0
+                push constant 0
+                return
+                function Main.setThis 0
+                push argument 0
+                pop pointer 0
+                push constant 7
+                pop this 0
+                push this 0
+                return
+                """);
+
+        List<VMInstruction> inlined = inline(code);
+
+        assertEquals(VMText.normalize("""
+                function Main.main 0
+                push constant 3000
+                pop pointer 0
+                push constant 42
+                pop this 0
+                push constant 4000
+                pop temp 3
+                push pointer 0
+                pop temp 4
+                push temp 3
+                pop pointer 0
+                push constant 7
+                pop this 0
+                push this 0
+                push temp 4
+                pop pointer 0
+                call Output.printInt 1
+                pop temp 0
+                push this 0
+                call Output.printInt 1
+                pop temp 0
+                push constant 0
+                return
+                """), VMText.format(function(inlined, "Main.main")));
+        assertEquals("742", VMText.run(inlined, directory));
+    }
+
+    @Test
+    void givesEachCallSiteItsOwnLabels() throws IOException {
+        List<VMInstruction> code = VMText.parse("""
+                function Main.main 0
+                push constant 5
+                neg
+                call Main.abs 1
+                push constant 3
+                call Main.abs 1
+                add
+                call Output.printInt 1
+                pop temp 0
+                push constant 0
+                return
+                function Main.abs 0
+                push argument 0
+                push constant 0
+                lt
+                if-goto NEGATIVE
+                push argument 0
+                return
+                label NEGATIVE
+                push argument 0
+                neg
+                return
+                """);
+
+        Inliner inliner = new Inliner(MAX_INSTRUCTIONS);
+        inliner.addCandidates(code);
+        List<VMInstruction> caller = function(inliner.inline(code), "Main.main");
+
+        Set<String> labels = new HashSet<>();
+        for (VMInstruction instruction : caller) {
+            assertFalse(instruction.is(VMOpcode.CALL) && instruction.getSymbol().equals("Main.abs"));
+            if (instruction.is(VMOpcode.LABEL)) {
+                assertTrue(labels.add(instruction.getSymbol()), () -> "duplicate label " + instruction.getSymbol());
+            }
+        }
+        assertEquals(Set.of("INLINE_0_NEGATIVE", "INLINE_0_END", "INLINE_1_NEGATIVE", "INLINE_1_END"), labels);
+        for (VMInstruction instruction : caller) {
+            if (instruction.is(VMOpcode.GOTO) || instruction.is(VMOpcode.IF_GOTO)) {
+                assertTrue(labels.contains(instruction.getSymbol()));
+            }
+        }
+
+        assertEquals(2, inliner.getReport().getInlinedCalls());
+        assertEquals("8", VMText.run(inliner.inline(code), directory));
+    }
+
+    @Test
+    void leavesCalleesThatUseTheScratchTemps() {
+        List<VMInstruction> code = VMText.parse("""
+                function Main.main 0
+                call Main.scratch 0
+                return
+                function Main.scratch 0
+                push temp 3
+                return
+                """);
+
+        assertTrue(inline(code).contains(VMInstruction.call("Main.scratch", 0)));
+    }
+
+    private static List<VMInstruction> inline(List<VMInstruction> code) {
+        Inliner inliner = new Inliner(MAX_INSTRUCTIONS);
+        inliner.addCandidates(code);
+
+        return inliner.inline(code);
+    }
+
+    // Main.main with this at 5000, calling Main.callee with 1, 2, ... and printing its result and then this
+    private static String callerOf(int argsCount) {
+        StringBuilder caller = new StringBuilder("function Main.main 0\npush constant 5000\npop pointer 0\n");
+        for (int i = 0; i < argsCount; i++) {
+            caller.append("push constant ").append(i + 1).append('\n');
+        }
+
+        return caller.append("call Main.callee ").append(argsCount).append('\n')
+                .append("call Output.printInt 1\npop temp 0\n")
+                .append("push pointer 0\ncall Output.printInt 1\npop temp 0\n")
+                .append("push constant 0\nreturn\n")
+                .toString();
+    }
+
+    // returns the sum of its arguments and of locals set to 10, 20, ...
+    private static String callee(int argsCount, int localsCount, boolean setsThis) {
+        StringBuilder callee = new StringBuilder("function Main.callee ").append(localsCount).append('\n');
+        if (setsThis) {
+            callee.append("push constant 6000\npop pointer 0\n");
+        }
+        for (int i = 0; i < localsCount; i++) {
+            callee.append("push constant ").append(10 * (i + 1)).append("\npop local ").append(i).append('\n');
+        }
+
+        callee.append("push constant 0\n");
+        for (int i = 0; i < argsCount; i++) {
+            callee.append("push argument ").append(i).append("\nadd\n");
+        }
+        for (int i = 0; i < localsCount; i++) {
+            callee.append("push local ").append(i).append("\nadd\n");
+        }
+
+        return callee.append("return\n").toString();
+    }
+
+    private static List<VMInstruction> function(List<VMInstruction> code, String name) {
+        List<VMInstruction> function = new ArrayList<>();
+        boolean inFunction = false;
+        for (VMInstruction instruction : code) {
+            if (instruction.is(VMOpcode.FUNCTION)) {
+                inFunction = instruction.getSymbol().equals(name);
+            }
+            if (inFunction) {
+                function.add(instruction);
+            }
+        }
+
+        return function;
+    }
+}
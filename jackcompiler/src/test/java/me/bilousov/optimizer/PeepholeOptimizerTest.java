@@ -0,0 +1,295 @@
+package me.bilousov.optimizer;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class PeepholeOptimizerTest {
+
+    static Stream<Arguments> rewrites() {
+        return Stream.of(
+                arguments("folds constant add", """
+                        push constant 2
+                        push constant 3
+                        add
+                        """, """
+                        push constant 5
+                        """),
+                arguments("folds constant and", """
+                        push constant 12
+                        push constant 10
+                        and
+                        """, """
+                        push constant 8
+                        """),
+                arguments("folds constant or", """
+                        push constant 12
+                        push constant 10
+                        or
+                        """, """
+                        push constant 14
+                        """),
+                arguments("keeps a subtraction that goes negative", """
+                        push constant 2
+                        push constant 3
+                        sub
+                        """, """
+                        push constant 2
+                        push constant 3
+                        sub
+                        """),
+                arguments("keeps an addition past 32767", """
+                        push constant 30000
+                        push constant 30000
+                        add
+                        """, """
+                        push constant 30000
+                        push constant 30000
+                        add
+                        """),
+                arguments("folds a true comparison to not 0", """
+                        push constant 3
+                        push constant 5
+                        lt
+                        """, """
+                        push constant 0
+                        not
+                        """),
+                arguments("folds a false comparison to 0", """
+                        push constant 3
+                        push constant 5
+                        eq
+                        """, """
+                        push constant 0
+                        """),
+                arguments("removes double not", """
+                        push local 0
+                        not
+                        not
+                        """, """
+                        push local 0
+                        """),
+                arguments("removes adding 0", """
+                        push local 0
+                        push constant 0
+                        add
+                        """, """
+                        push local 0
+                        """),
+                arguments("removes subtracting 0", """
+                        push local 0
+                        push constant 0
+                        sub
+                        """, """
+                        push local 0
+                        """),
+                arguments("removes or with 0", """
+                        push local 0
+                        push constant 0
+                        or
+                        """, """
+                        push local 0
+                        """),
+                arguments("removes multiplying by 1", """
+                        push local 0
+                        push constant 1
+                        call Math.multiply 2
+                        """, """
+                        push local 0
+                        """),
+                arguments("removes dividing by 1", """
+                        push local 0
+                        push constant 1
+                        call Math.divide 2
+                        """, """
+                        push local 0
+                        """),
+                arguments("drops a branch on false and the code it guarded", """
+                        push constant 0
+                        if-goto L
+                        push constant 1
+                        return
+                        label L
+                        push constant 2
+                        return
+                        """, """
+                        push constant 1
+                        return
+                        """),
+                arguments("turns a branch on a nonzero constant into goto", """
+                        push argument 0
+                        pop local 0
+                        push constant 1
+                        if-goto L
+                        push constant 1
+                        return
+                        label L
+                        push constant 2
+                        return
+                        """, """
+                        push argument 0
+                        pop local 0
+                        push constant 2
+                        return
+                        """),
+                arguments("turns a branch on true into goto", """
+                        push constant 0
+                        not
+                        if-goto L
+                        push constant 1
+                        return
+                        label L
+                        push constant 2
+                        return
+                        """, """
+                        push constant 2
+                        return
+                        """),
+                arguments("removes goto to the next label", """
+                        push argument 0
+                        if-goto L
+                        goto L
+                        label L
+                        return
+                        """, """
+                        push argument 0
+                        if-goto L
+                        label L
+                        return
+                        """),
+                arguments("removes goto past other labels to its own", """
+                        push argument 0
+                        if-goto M
+                        push argument 1
+                        if-goto L
+                        goto L
+                        label M
+                        label L
+                        return
+                        """, """
+                        push argument 0
+                        if-goto M
+                        push argument 1
+                        if-goto L
+                        label M
+                        label L
+                        return
+                        """),
+                arguments("removes self-assignment", """
+                        push local 1
+                        pop local 1
+                        push constant 0
+                        return
+                        """, """
+                        push constant 0
+                        return
+                        """),
+                arguments("keeps a copy to another slot", """
+                        push local 1
+                        pop local 2
+                        """, """
+                        push local 1
+                        pop local 2
+                        """),
+                arguments("removes the array-store temp shuffle", """
+                        push local 0
+                        push constant 2
+                        add
+                        push argument 1
+                        pop temp 0
+                        pop pointer 1
+                        push temp 0
+                        pop that 0
+                        """, """
+                        push local 0
+                        push constant 2
+                        add
+                        pop pointer 1
+                        push argument 1
+                        pop that 0
+                        """),
+                arguments("keeps the shuffle when the value reads that", """
+                        push local 0
+                        push that 0
+                        pop temp 0
+                        pop pointer 1
+                        push temp 0
+                        pop that 0
+                        """, """
+                        push local 0
+                        push that 0
+                        pop temp 0
+                        pop pointer 1
+                        push temp 0
+                        pop that 0
+                        """),
+                arguments("removes code after return up to the next label", """
+                        push argument 0
+                        if-goto L
+                        push constant 0
+                        return
+                        push constant 7
+                        pop local 0
+                        label L
+                        push constant 1
+                        return
+                        """, """
+                        push argument 0
+                        if-goto L
+                        push constant 0
+                        return
+                        label L
+                        push constant 1
+                        return
+                        """),
+                arguments("removes code after goto up to the next function", """
+                        function Main.loop 0
+                        label L
+                        goto L
+                        push constant 0
+                        return
+                        function Main.next 0
+                        push constant 1
+                        return
+                        """, """
+                        function Main.loop 0
+                        label L
+                        goto L
+                        function Main.next 0
+                        push constant 1
+                        return
+                        """),
+                arguments("removes unused labels", """
+                        label UNUSED
+                        push constant 0
+                        return
+                        """, """
+                        push constant 0
+                        return
+                        """)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rewrites")
+    void rewrites(String name, String input, String expected) {
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(1);
+
+        String optimized = VMText.format(optimizer.optimize(VMText.parse(input)));
+
+        assertEquals(VMText.normalize(expected), optimized);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rewrites")
+    void leavesNothingForASecondPass(String name, String input, String expected) {
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(1);
+
+        assertEquals(VMText.normalize(expected), VMText.format(optimizer.optimize(VMText.parse(expected))));
+    }
+}
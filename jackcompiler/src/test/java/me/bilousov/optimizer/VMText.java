@@ -0,0 +1,59 @@
+package me.bilousov.optimizer;
+
+import me.bilousov.interpreter.VMInterpreter;
+import me.bilousov.interpreter.VMProgram;
+import me.bilousov.vm.VMInstruction;
+import me.bilousov.vm.VMTextReader;
+import me.bilousov.writer.InstructionListWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// .vm text in and out, so optimizer tests read as before/after listings, and a way to run the code and
+// compare what it prints before and after a rewrite
+final class VMText {
+
+    private VMText() {
+    }
+
+    static List<VMInstruction> parse(String text) {
+        InstructionListWriter instructions = new InstructionListWriter();
+        try {
+            VMTextReader.read(new BufferedReader(new StringReader(text)), "test", instructions);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return instructions.getInstructions();
+    }
+
+    static String format(List<VMInstruction> code) {
+        return code.stream().map(VMInstruction::toString).collect(Collectors.joining("\n"));
+    }
+
+    // the same listing with comments and indentation stripped
+    static String normalize(String text) {
+        return format(parse(text));
+    }
+
+    // runs the code as Main.vm on the interpreter and returns what it printed
+    static String run(List<VMInstruction> code, Path directory) throws IOException {
+        File vmFile = directory.resolve("Main.vm").toFile();
+        Files.writeString(vmFile.toPath(), format(code) + "\n");
+
+        VMInterpreter interpreter = new VMInterpreter(VMProgram.load(List.of(vmFile)), "");
+        int errorCode = interpreter.run(VMInterpreter.DEFAULT_MAX_STEPS);
+        if (errorCode != 0) {
+            throw new IllegalStateException("Sys.error(" + errorCode + ")");
+        }
+
+        return interpreter.getOutput();
+    }
+}
@@ -0,0 +1,169 @@
+package me.bilousov.parser;
+
+import me.bilousov.ast.ClassNode;
+import me.bilousov.tokenizer.JackTokenizer;
+import me.bilousov.util.CompilationException;
+import me.bilousov.util.Diagnostic;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JackParserTest {
+
+    private static final File SOURCE_FILE = new File("Main.jack");
+
+    @Test
+    void parsesAValidClassWithoutErrors() {
+        ClassNode classNode = parse("""
+                class Main {
+                    field int x;
+                    function void main() {
+                        var int i;
+                        while (i < 3) { let i = i + 1; }
+                        return;
+                    }
+                }
+                """);
+
+        assertEquals("Main", classNode.getName());
+        assertEquals(1, classNode.getSubroutines().length);
+    }
+
+    @Test
+    void reportsEachBadStatementAndGoesOnWithTheNext() {
+        assertEquals(List.of(
+                "Main.jack:4:17: Expected an identifier but found ';'",
+                "Main.jack:5:21: Expected an identifier but found ';'",
+                "Main.jack:6:29: Expected ')' but found ';'",
+                "Main.jack:7:9: Expected a statement but found 'x'"),
+                errors("""
+                        class Main {
+                            function void main() {
+                                var int x;
+                                let x = ;
+                                let x = 1 + ;
+                                do Output.printInt(x;
+                                x = 2;
+                                return;
+                            }
+                        }
+                        """));
+    }
+
+    @Test
+    void parsesABlockMetWhileSkippingSoItsBraceDoesNotEndTheSubroutine() {
+        assertEquals(List.of(
+                "Main.jack:4:18: Expected ')' but found '{'",
+                "Main.jack:5:23: Expected ';' but found '}'",
+                "Main.jack:7:17: Expected an identifier but found ';'"),
+                errors("""
+                        class Main {
+                            function void main() {
+                                var int x;
+                                while (x {
+                                    let x = 1 }
+                                let x = 2;
+                                let x = ;
+                                return;
+                            }
+                        }
+                        """));
+    }
+
+    @Test
+    void skipsPastTheSemicolonOfABadDeclaration() {
+        assertEquals(List.of(
+                "Main.jack:2:15: Expected an identifier but found '1'",
+                "Main.jack:3:19: Expected an identifier but found ';'",
+                "Main.jack:6:16: Expected an identifier but found ';'",
+                "Main.jack:9:13: Expected an identifier but found '='"),
+                errors("""
+                        class Main {
+                            field int 1x;
+                            static boolean;
+                            field int y;
+                            function void main() {
+                                var int;
+                                var char c;
+                                let c = 1;
+                                let = 2;
+                                return;
+                            }
+                        }
+                        """));
+    }
+
+    @Test
+    void skipsToTheNextSubroutineAfterABadHeader() {
+        assertEquals(List.of(
+                "Main.jack:2:19: Expected an identifier but found '('",
+                "Main.jack:3:35: Expected ';' but found '}'",
+                "Main.jack:4:5: Expected a subroutine declaration or '}' but found 'var'",
+                "Main.jack:5:17: Expected an identifier but found '3'"),
+                errors("""
+                        class Main {
+                            function void (int a) { return; }
+                            function int two() { return 2 }
+                            var int misplaced;
+                            method void 3() { return; }
+                            function void last() { return; }
+                        }
+                        """));
+    }
+
+    @Test
+    void reportsOnlyOnceWhereRecoveryStopsOnTheBadToken() {
+        // the missing '}' of main is found at 'function', where the let statement already failed
+        assertEquals(List.of(
+                "Main.jack:4:5: Expected an expression but found 'function'",
+                "Main.jack:5:13: Expected an identifier but found '{'"),
+                errors("""
+                        class Main {
+                            function void main() {
+                                let x =
+                            function void next() {
+                                var {
+                                return;
+                            }
+                        }
+                        """));
+    }
+
+    // at the end of the file the error points at the last token
+    @Test
+    void reportsTheEndOfTheFile() {
+        assertEquals(List.of("Main.jack:3:15: Expected '}' but found the end of the file"),
+                errors("""
+                        class Main {
+                            function void main() {
+                                return;
+                        """));
+    }
+
+    @Test
+    void reportsAnEmptyFile() {
+        assertEquals(List.of("Main.jack:1:1: Expected 'class' but the file is empty"), errors("// nothing here\n"));
+    }
+
+    private static ClassNode parse(String source) {
+        return new JackParser(new JackTokenizer(SOURCE_FILE, source.getBytes(StandardCharsets.UTF_8))).parseClass();
+    }
+
+    private static List<String> errors(String source) {
+        List<String> messages = new ArrayList<>();
+        try {
+            parse(source);
+        } catch (CompilationException e) {
+            for (Diagnostic diagnostic : e.getDiagnostics()) {
+                messages.add(diagnostic.format(SOURCE_FILE));
+            }
+        }
+
+        return messages;
+    }
+}
@@ -0,0 +1,150 @@
+package me.bilousov.tokenizer;
+
+import me.bilousov.util.Diagnostic;
+import me.bilousov.util.TokenType;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JackScannerTest {
+
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    @Test
+    void scansEveryKindOfToken() {
+        assertEquals(List.of(
+                "KEYWORD let", "IDENTIFIER x_1", "SYMBOL =", "IDENTIFIER a", "SYMBOL [", "INT_CONST 12", "SYMBOL ]",
+                "SYMBOL /", "INT_CONST 3", "SYMBOL +", "STRING_CONST \"hi\"", "SYMBOL ;"),
+                scan("let x_1 = a[12] / 3 + \"hi\";"));
+        assertTrue(diagnostics.isEmpty());
+    }
+
+    @Test
+    void tellsKeywordsFromIdentifiersThatStartWithThem() {
+        assertEquals(List.of("KEYWORD class", "IDENTIFIER classy", "KEYWORD do", "IDENTIFIER done"), scan("class classy do done"));
+    }
+
+    @Test
+    void keepsLineCommentMarkersInsideStrings() {
+        assertEquals(List.of(
+                "KEYWORD do", "IDENTIFIER Output", "SYMBOL .", "IDENTIFIER printString", "SYMBOL (",
+                "STRING_CONST \"http://example.com // not a comment\"", "SYMBOL )", "SYMBOL ;", "KEYWORD return", "SYMBOL ;"),
+                scan("do Output.printString(\"http://example.com // not a comment\"); return;"));
+        assertTrue(diagnostics.isEmpty());
+    }
+
+    @Test
+    void keepsBlockCommentMarkersInsideStrings() {
+        assertEquals(List.of("STRING_CONST \"a /* b\"", "IDENTIFIER x", "STRING_CONST \"*/\""), scan("\"a /* b\" x \"*/\""));
+        assertTrue(diagnostics.isEmpty());
+    }
+
+    @Test
+    void skipsCommentsAndCountsTheLinesInside() {
+        JackScanner scanner = scanner("// line comment\n/* block\n * comment\n */ x /** doc */ y // end");
+
+        assertTrue(scanner.next());
+        assertEquals("x", scanner.getTokenText());
+        assertEquals(4, scanner.getTokenLine());
+        assertTrue(scanner.next());
+        assertEquals("y", scanner.getTokenText());
+        assertFalse(scanner.next());
+        assertTrue(diagnostics.isEmpty());
+    }
+
+    @Test
+    void reportsAnUnterminatedBlockCommentWhereItStarts() {
+        assertEquals(List.of("KEYWORD let", "IDENTIFIER x", "SYMBOL =", "INT_CONST 1", "SYMBOL ;"),
+                scan("let x = 1;\n  /* never closed\nlet y = 2;\n"));
+
+        assertEquals(List.of("2:3: Unterminated comment"), messages());
+    }
+
+    @Test
+    void reportsABlockCommentOpenedOnTheLastCharacter() {
+        assertEquals(List.of("IDENTIFIER x"), scan("x /*"));
+
+        assertEquals(List.of("1:3: Unterminated comment"), messages());
+    }
+
+    @Test
+    void reportsAStringThatRunsPastTheEndOfItsLineAndGoesOn() {
+        assertEquals(List.of("KEYWORD let", "IDENTIFIER s", "SYMBOL =", "KEYWORD let", "IDENTIFIER y", "SYMBOL =", "INT_CONST 2", "SYMBOL ;"),
+                scan("let s = \"abc;\nlet y = 2;"));
+
+        assertEquals(List.of("1:9: Unterminated string literal"), messages());
+    }
+
+    @Test
+    void reportsAStringThatRunsIntoTheEndOfTheFile() {
+        assertEquals(List.of("IDENTIFIER x"), scan("x \"abc"));
+
+        assertEquals(List.of("1:3: Unterminated string literal"), messages());
+    }
+
+    @Test
+    void reportsUnexpectedCharactersAndGoesOn() {
+        assertEquals(List.of("IDENTIFIER a", "IDENTIFIER b"), scan("a # b\n"));
+
+        assertEquals(List.of("1:3: Unexpected character '#'"), messages());
+    }
+
+    @Test
+    void throwsWithoutADiagnosticsList() {
+        char[] source = "let s = \"abc".toCharArray();
+        JackScanner scanner = new JackScanner(source);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> {
+            while (scanner.next()) {
+                // scan until the error
+            }
+        });
+        assertEquals("1:9: Unterminated string literal", error.getMessage());
+    }
+
+    @Test
+    void tokenizerReturnsAStringWithSlashesAsOneConstant() {
+        JackTokenizer tokenizer = new JackTokenizer(new File("Main.jack"), "let s = \"a // b\";".getBytes(StandardCharsets.UTF_8));
+
+        tokenizer.advance();
+        tokenizer.advance();
+        tokenizer.advance();
+        tokenizer.advance();
+
+        assertEquals(TokenType.STRING_CONST, tokenizer.tokenType());
+        assertEquals("a // b", tokenizer.stringVal());
+        assertEquals(";", tokenizer.advance());
+        assertTrue(tokenizer.getDiagnostics().isEmpty());
+    }
+
+    private JackScanner scanner(String source) {
+        return new JackScanner(source.toCharArray(), source.length(), diagnostics);
+    }
+
+    private List<String> scan(String source) {
+        JackScanner scanner = scanner(source);
+        List<String> tokens = new ArrayList<>();
+        while (scanner.next()) {
+            tokens.add(scanner.getTokenType() + " " + scanner.getTokenText());
+        }
+
+        return tokens;
+    }
+
+    private List<String> messages() {
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic diagnostic : diagnostics) {
+            messages.add(diagnostic.toString());
+        }
+
+        return messages;
+    }
+}
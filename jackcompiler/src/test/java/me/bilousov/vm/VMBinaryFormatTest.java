@@ -0,0 +1,153 @@
+package me.bilousov.vm;
+
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.compiler.CompileMode;
+import me.bilousov.compiler.CompileResult;
+import me.bilousov.compiler.CompilerOptions;
+import me.bilousov.writer.BinaryVMWriter;
+import me.bilousov.writer.InstructionListWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VMBinaryFormatTest {
+
+    private static final String MAIN = String.join("\n",
+            "class Main {",
+            "    static int total;",
+            "    field Array cells;",
+            "    function void main() {",
+            "        var int i;",
+            "        var String s;",
+            "        let s = \"round trip\";",
+            "        while (i < 300) {",
+            "            if ((i & 1) = 0) { let total = total + (i * 3); } else { let total = total - 1; }",
+            "            let i = i + 1;",
+            "        }",
+            "        do Output.printString(s);",
+            "        do Output.printInt(-total);",
+            "        return;",
+            "    }",
+            "    method int cell(int index) { let cells[index] = ~cells[index + 1]; return cells[index] | index; }",
+            "}");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryOpcodeAndSegment() throws IOException {
+        List<VMInstruction> code = new ArrayList<>();
+        code.add(VMInstruction.function("Main.everything", 3));
+        for (VMSegment segment : VMSegment.values()) {
+            code.add(VMInstruction.push(segment, 0));
+            code.add(VMInstruction.push(segment, 127));
+            code.add(VMInstruction.push(segment, 128));
+            if (segment != VMSegment.CONSTANT) {
+                code.add(VMInstruction.pop(segment, 1));
+            }
+        }
+        code.add(VMInstruction.push(VMSegment.CONSTANT, 32767));
+        for (VMOpcode opcode : VMOpcode.values()) {
+            if (opcode.isArithmetic()) {
+                code.add(VMInstruction.arithmetic(opcode));
+            }
+        }
+        code.add(VMInstruction.label("LOOP"));
+        code.add(VMInstruction.ifGoto("LOOP"));
+        code.add(VMInstruction.gotoLabel("LOOP"));
+        code.add(VMInstruction.call("Main.everything", 0));
+        code.add(VMInstruction.ret());
+
+        assertEquals(code, roundTrip(code));
+    }
+
+    @Test
+    void readsBackMoreCodeThanTheWriteBufferHolds() throws IOException {
+        List<VMInstruction> code = new ArrayList<>();
+        for (int function = 0; function < 2000; function++) {
+            String name = "Generated.function_with_a_long_name_" + function;
+            code.add(VMInstruction.function(name, function % 7));
+            code.add(VMInstruction.label("LABEL_" + function));
+            code.add(VMInstruction.push(VMSegment.CONSTANT, function * 16));
+            code.add(VMInstruction.ifGoto("LABEL_" + function));
+            code.add(VMInstruction.call(name, function % 3));
+            code.add(VMInstruction.call("Generated.function_with_a_long_name_0", 1));
+            code.add(VMInstruction.ret());
+        }
+
+        assertEquals(code, roundTrip(code));
+    }
+
+    @Test
+    void compilesTheSameCodeToTextAndBinary() throws IOException {
+        Files.writeString(directory.resolve("Main.jack"), MAIN);
+        for (int optimizationLevel = 0; optimizationLevel <= 2; optimizationLevel++) {
+            CompilerOptions options = new CompilerOptions();
+            options.setModes(EnumSet.of(CompileMode.VM, CompileMode.VMB));
+            options.setOptimizationLevel(optimizationLevel);
+
+            for (CompileResult result : new BatchCompiler(options, null).compile(BatchCompiler.findJackFiles(directory.toFile()))) {
+                assertTrue(result.isSuccess(), () -> String.valueOf(result.getError()));
+            }
+
+            InstructionListWriter text = new InstructionListWriter();
+            VMTextReader.read(directory.resolve("Main.vm").toFile(), text);
+            InstructionListWriter binary = new InstructionListWriter();
+            VMBinaryReader.read(directory.resolve("Main.vmb").toFile(), binary);
+
+            assertFalse(text.getInstructions().isEmpty());
+            assertEquals(text.getInstructions(), binary.getInstructions(), "-O" + optimizationLevel);
+        }
+    }
+
+    @Test
+    void startsWithTheMagicAndVersion() throws IOException {
+        File vmbFile = write(List.of(VMInstruction.ret()));
+
+        byte[] data = Files.readAllBytes(vmbFile.toPath());
+
+        assertArrayEquals(VMBinaryFormat.header(), Arrays.copyOf(data, VMBinaryFormat.header().length));
+        assertTrue(VMBinaryFormat.isBinary(vmbFile));
+        assertFalse(VMBinaryFormat.isBinary(new File("Main.vm")));
+    }
+
+    @Test
+    void rejectsAFileWithoutTheMagic() {
+        byte[] text = "push constant 1\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IllegalStateException.class, () -> VMBinaryReader.read(text, "Main.vmb", new InstructionListWriter()));
+    }
+
+    private List<VMInstruction> roundTrip(List<VMInstruction> code) throws IOException {
+        InstructionListWriter readBack = new InstructionListWriter();
+        VMBinaryReader.read(write(code), readBack);
+
+        return readBack.getInstructions();
+    }
+
+    private File write(List<VMInstruction> code) throws IOException {
+        File vmbFile = directory.resolve("Main" + VMBinaryFormat.FILE_EXTENSION).toFile();
+        try (BinaryVMWriter writer = new BinaryVMWriter(vmbFile)) {
+            for (VMInstruction instruction : code) {
+                instruction.writeTo(writer);
+            }
+        }
+
+        return vmbFile;
+    }
+}
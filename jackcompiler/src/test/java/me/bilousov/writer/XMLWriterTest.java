@@ -0,0 +1,60 @@
+package me.bilousov.writer;
+
+import me.bilousov.compiler.BatchCompiler;
+import me.bilousov.compiler.CompileMode;
+import me.bilousov.compiler.CompileResult;
+import me.bilousov.compiler.CompilerOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XMLWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replacesTheSuffixOfTheFileName() {
+        File jackFile = new File("projects/Main.jack");
+
+        assertEquals(new File("projects/Main.vm"), XMLWriter.getOutputFile(jackFile));
+        assertEquals(new File("projects/MainT.xml"), XMLWriter.getOutputFile(jackFile, CompileMode.TOKENS.getOutputExtension()));
+        assertEquals(new File("Main.xml"), XMLWriter.getOutputFile(new File("Main.jack"), CompileMode.XML.getOutputExtension()));
+    }
+
+    @Test
+    void leavesJackInDirectoryNamesAlone() {
+        File jackFile = new File("games.jack/pong.jack.d/Ball.jack");
+
+        assertEquals(new File("games.jack/pong.jack.d/Ball.vmb"), XMLWriter.getOutputFile(jackFile, CompileMode.VMB.getOutputExtension()));
+    }
+
+    @Test
+    void leavesJackInsideTheFileNameAlone() {
+        assertEquals(new File("src/My.jackGame.vm"), XMLWriter.getOutputFile(new File("src/My.jackGame.jack")));
+    }
+
+    @Test
+    void compilesNextToTheSourceInADirectoryNamedLikeAJackFile() throws IOException {
+        Path sources = Files.createDirectory(directory.resolve("pong.jack"));
+        Files.writeString(sources.resolve("Main.jack"), "class Main { function void main() { return; } }");
+        CompilerOptions options = new CompilerOptions();
+        options.setModes(EnumSet.of(CompileMode.VM, CompileMode.TOKENS));
+
+        List<CompileResult> results = new BatchCompiler(options, null).compile(BatchCompiler.findJackFiles(sources.toFile()));
+
+        assertTrue(results.get(0).isSuccess(), () -> String.valueOf(results.get(0).getError()));
+        assertTrue(Files.exists(sources.resolve("Main.vm")));
+        assertTrue(Files.exists(sources.resolve("MainT.xml")));
+        assertTrue(Files.exists(sources.resolve("Main.jack")));
+    }
+}
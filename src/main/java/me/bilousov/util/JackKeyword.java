@@ -1,6 +0,0 @@
-package me.bilousov.util;
-
-public enum JackKeyword {
-    CLASS, METHOD, FUNCTION, CONSTRUCTOR, INT, BOOLEAN, CHAR, VOID, VAR, STATIC, FIELD, LET, DO, IF, ELSE, WHILE,
-    RETURN, TRUE, FALSE, NULL, THIS
-}
@@ -1,5 +0,0 @@
-package me.bilousov.util;
-
-public enum VariableKind {
-    FIELD, STATIC, LOCAL, ARGUMENT
-}